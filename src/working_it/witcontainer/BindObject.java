@@ -1,9 +1,19 @@
 package working_it.witcontainer;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
 
 /**
  * Internes Object zum Speicheren der
@@ -21,13 +31,92 @@ public class BindObject {
 	private final Object key;
 	
 	private Class implClass;
-	private Object instance;
+	
+	/**
+	 * Name der Implementierungs-Klasse, wenn diese erst beim ersten Zugriff
+	 * geladen wird, sonst null
+	 */
+	private String implClassName;
+	private ClassLoader classLoader;
 	private Object providerKey;
+	private ProviderPolicy providerPolicy = ProviderPolicy.ALWAYS_NEW;
+	
+	/**
+	 * Scope der Instanzen, null fuer Singleton
+	 */
+	private Scope scope;
+	
+	/**
+	 * Interface der Proxys mit Interceptoren, null ohne Interceptoren
+	 */
+	private Class<?> interceptedType;
+	private Interceptor[] interceptors;
+	
+	/**
+	 * die {@link Cached}-Methoden des Proxy-Interfaces, null bis zur ersten Erzeugung
+	 */
+	private volatile Map<Method, Cached> cachedMethods;
+	
+	/**
+	 * fertig injectete und gestartete Instance (bzw. Konstante oder Provider),
+	 * volatile, damit sie nach der Erzeugung ohne Lock gelesen werden kann
+	 */
+	private volatile Object instance;
+	
+	/**
+	 * laufende Erzeugung der Instance, null wenn keine.
+	 * Wird per CAS gesetzt, so dass jede Instance nur einmal erzeugt wird;
+	 * parallele Anfragen warten auf dieses Handle.
+	 */
+	private volatile Creation creation;
+	
+	private static final AtomicReferenceFieldUpdater<BindObject, Creation> CREATION =
+			AtomicReferenceFieldUpdater.newUpdater(BindObject.class, Creation.class, "creation");
+	
+	/**
+	 * bei Provider-Bindungen der aus der {@link ProviderPolicy} erzeugte Resolver,
+	 * null bis zum ersten Zugriff
+	 */
+	private volatile ProviderResolver resolver;
+	
+	private static final AtomicReferenceFieldUpdater<BindObject, ProviderResolver> RESOLVER =
+			AtomicReferenceFieldUpdater.newUpdater(BindObject.class, ProviderResolver.class, "resolver");
 	
 	/**
-	 * Lock fuer das thread-sichere Erzeugen der Instancen 
+	 * Instanzen im Scope {@link Scopes#THREAD}: je Thread ein Holder mit der
+	 * Instance, null bis zum ersten Zugriff. Alle Holder werden zusaetzlich in
+	 * threadHolders gehalten, damit {@link #release()} die Instanzen aller
+	 * Threads freigeben kann.
 	 */
-	private final Lock createLock = new ReentrantLock();
+	private volatile ThreadLocal<Object[]> threadInstances;
+	private final Queue<Object[]> threadHolders = new ConcurrentLinkedQueue<Object[]>();
+	
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static final AtomicReferenceFieldUpdater<BindObject, ThreadLocal<Object[]>> THREAD_INSTANCES =
+			(AtomicReferenceFieldUpdater) AtomicReferenceFieldUpdater.newUpdater(BindObject.class, ThreadLocal.class, "threadInstances");
+	
+	/**
+	 * nach {@link WitContainer#build()} je Injektionsstelle das Ziel-BindObject
+	 * (null, wenn der optionale Key nicht gebunden ist), bis dahin null
+	 */
+	private volatile BindObject[] targets;
+	
+	/**
+	 * nach {@link WitContainer#build()} je Konstruktor-Argument das Ziel-BindObject
+	 */
+	private volatile BindObject[] argumentTargets;
+	
+	/**
+	 * nach {@link WitContainer#build()} das BindObject des Providers
+	 */
+	private volatile BindObject providerTarget;
+	
+	private static final Object[] NO_ARGS = new Object[0];
+	
+	/** Zustaende der Tiefensuche in {@link #prepareDependencies(ResolutionContext)} */
+	private static final Integer VISITING = Integer.valueOf(0);
+	private static final Integer READY = Integer.valueOf(1);
+	private static final Integer BLOCKED = Integer.valueOf(2);
 	
 	
 	/**
@@ -44,120 +133,908 @@ public class BindObject {
 	}
 
 	
-	public void to(Class implClass) {
+	public BindObject to(Class implClass) {
+		checkNotFrozen();
 		this.implClass = implClass;
+		this.implClassName = null;
+		this.cachedMethods = null;
+		return this;
+	}
+
+	/**
+	 * Binden einer Implementierungs-Klasse per Namen, die Klasse wird erst
+	 * beim ersten Zugriff (getInstance, validate bzw. build) geladen
+	 *
+	 * @param className voll qualifizierter (binaerer) Name der Klasse
+	 * @param classLoader ClassLoader zum Laden der Klasse
+	 * @return this
+	 */
+	public BindObject toClassName(String className, ClassLoader classLoader) {
+		checkNotFrozen();
+		this.implClass = null;
+		this.implClassName = className;
+		this.classLoader = classLoader;
+		this.cachedMethods = null;
+		return this;
 	}
 	
-	public void to(Object instance) {
-		this.instance = instance;
+	public BindObject to(Object instance) {
+		checkNotFrozen();
+		this.instance = intercepted(instance);
+		return this;
+	}
+
+	/**
+	 * Interceptoren um alle Methoden-Aufrufe der Instanzen dieser Bindung.
+	 * Der Key muss ein Interface sein; geliefert und injected wird anstelle
+	 * der Instance ein Proxy dieses Interfaces, siehe {@link Interceptable}.
+	 *
+	 * @param interceptors die Interceptoren, der erste wird zuerst aufgerufen
+	 * @return this
+	 * @throws IllegalArgumentException wenn der Key kein Interface ist
+	 * @see #intercept(Class, Interceptor...)
+	 */
+	public BindObject intercept(Interceptor... interceptors) {
+		if (!(key instanceof Class) || !((Class<?>) key).isInterface())
+			throw new IllegalArgumentException("key "+key+" is not an interface, use intercept(Class, Interceptor...)");
+		return intercept((Class<?>) key, interceptors);
+	}
+
+	/**
+	 * Interceptoren um alle Methoden-Aufrufe der Instanzen dieser Bindung.
+	 * Geliefert und injected wird anstelle der Instance ein Proxy des
+	 * angegebenen Interfaces. Mehrere Aufrufe haengen die Interceptoren an.
+	 * Bei Provider-Bindungen werden keine Proxys erzeugt.
+	 *
+	 * @param type das Interface des Proxys, muss von der Implementierung implementiert werden
+	 * @param interceptors die Interceptoren, der erste wird zuerst aufgerufen
+	 * @return this
+	 * @throws IllegalArgumentException wenn type kein Interface ist bzw. bereits
+	 *  Interceptoren fuer ein anderes Interface gebunden sind
+	 */
+	public BindObject intercept(Class<?> type, Interceptor... interceptors) {
+		checkNotFrozen();
+		if (!type.isInterface())
+			throw new IllegalArgumentException(type.getName()+" is not an interface");
+		if (interceptedType!=null && interceptedType!=type)
+			throw new IllegalArgumentException("key "+key+" is already intercepted as "+interceptedType.getName());
+		if (interceptors.length==0) {
+			return this;
+		}
+		Object constant = (!hasImplClass() && providerKey==null) ? Interception.unwrap(instance) : null;
+		if (this.interceptors==null) {
+			this.interceptors = interceptors.clone();
+		} else {
+			Interceptor[] combined = Arrays.copyOf(this.interceptors, this.interceptors.length+interceptors.length);
+			System.arraycopy(interceptors, 0, combined, this.interceptors.length, interceptors.length);
+			this.interceptors = combined;
+		}
+		interceptedType = type;
+		cachedMethods = null;
+		if (constant!=null) {
+			instance = intercepted(constant);
+		}
+		return this;
+	}
+
+	/**
+	 * @return der Proxy mit den Interceptoren bzw. die Instance ohne Interceptoren
+	 */
+	private Object intercepted(Object target) {
+		Interceptor[] chain = interceptors;
+		return (chain!=null && target!=null) ? Interception.wrap(target, interceptedType, chain) : target;
+	}
+
+	/**
+	 * wie {@link #intercepted(Object)}, fuer vom Container erzeugte Instanzen
+	 * zusaetzlich mit dem Cache der {@link Cached}-Methoden als innerstem Interceptor
+	 */
+	private Object managed(Object created) {
+		Map<Method, Cached> cached = cachedMethods();
+		if (cached.isEmpty()) {
+			return intercepted(created);
+		}
+		Interceptor caching = new CachingInterceptor(key, cached, monitor);
+		Interceptor[] chain = interceptors;
+		if (chain==null) {
+			chain = new Interceptor[] {caching};
+		} else {
+			chain = Arrays.copyOf(chain, chain.length+1);
+			chain[chain.length-1] = caching;
+		}
+		return Interception.wrap(created, proxyType(), chain);
 	}
 
+	/**
+	 * @return die {@link Cached}-Methoden, leer ohne Proxy-Interface
+	 */
+	private Map<Method, Cached> cachedMethods() {
+		Map<Method, Cached> cached = cachedMethods;
+		if (cached==null) {
+			Class<?> type = proxyType();
+			cached = (type!=null) ? CachingInterceptor.cachedMethods(type, implClass()) : Collections.<Method, Cached>emptyMap();
+			cachedMethods = cached;
+		}
+		return cached;
+	}
 
-	public void toProvider(Object providerKey) {
+	/**
+	 * @return das Interface der Proxys: das der Interceptoren bzw. der Key,
+	 *  wenn dieser ein Interface ist, sonst null
+	 */
+	private Class<?> proxyType() {
+		if (interceptedType!=null) {
+			return interceptedType;
+		}
+		return (key instanceof Class && ((Class<?>) key).isInterface()) ? (Class<?>) key : null;
+	}
+
+
+	public BindObject toProvider(Object providerKey) {
+		return toProvider(providerKey, ProviderPolicy.ALWAYS_NEW);
+	}
+
+	/**
+	 * Binden an einen Provider mit dem angegebenen Caching-Verhalten
+	 *
+	 * @param providerKey Key, unter dem der Provider gebunden ist
+	 * @param policy wann Provider.get aufgerufen wird
+	 * @return this
+	 */
+	public BindObject toProvider(Object providerKey, ProviderPolicy policy) {
+		checkNotFrozen();
 		this.providerKey = providerKey;
+		this.providerPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Setzen des Scopes der Instanzen (default: {@link Scopes#SINGLETON}).
+	 * Nur fuer Bindungen an eine Implementierungs-Klasse.
+	 *
+	 * @param scope der Scope
+	 * @return this
+	 */
+	public BindObject inScope(Scope scope) {
+		checkNotFrozen();
+		this.scope = (scope==Scopes.SINGLETON) ? null : scope;
+		return this;
+	}
+
+	/**
+	 * @return Key, unter dem dieses BindObject gebunden ist
+	 */
+	public Object getKey() {
+		return key;
+	}
+
+	/**
+	 * @return die Implementierungs-Klasse oder null (Konstante bzw. Provider)
+	 */
+	Class<?> getImplClass() {
+		return hasImplClass() ? implClass() : null;
+	}
+
+	/**
+	 * @return der Name der Implementierungs-Klasse oder null, ohne diese zu laden
+	 */
+	String getImplClassName() {
+		return (implClass!=null) ? implClass.getName() : implClassName;
+	}
+
+	/**
+	 * @return true, wenn an eine (ggf. noch nicht geladene) Implementierungs-Klasse gebunden ist
+	 */
+	private boolean hasImplClass() {
+		return implClass!=null || implClassName!=null;
+	}
+
+	/**
+	 * liefert die Implementierungs-Klasse, laedt sie ggf. beim ersten Aufruf
+	 *
+	 * @throws ServiceCreationException wenn die Klasse nicht geladen werden kann
+	 */
+	private Class<?> implClass() {
+		Class<?> current = implClass;
+		if (current==null && implClassName!=null) {
+			try {
+				current = Class.forName(implClassName, false, classLoader);
+			} catch (ClassNotFoundException e) {
+				throw new ServiceCreationException(key, "implementation class "+implClassName+" not found");
+			} catch (LinkageError e) {
+				throw new ServiceCreationException(key, "implementation class "+implClassName+" not loadable: "+e);
+			}
+			// Class-Objekte duerfen ohne Synchronisation veroeffentlicht werden
+			implClass = current;
+		}
+		return current;
+	}
+
+	/**
+	 * @return der Key des Providers oder null
+	 */
+	Object getProviderKey() {
+		return providerKey;
+	}
+
+	/**
+	 * liefert die Keys, von denen die Erzeugung dieses BindObjects abhaengt
+	 * (Provider-Key bzw. die Keys der Konstruktor-Argumente und der
+	 * @Inject-Setter und -Felder). Verzoegerte Injektionsstellen werden bei
+	 * der Erzeugung nicht aufgeloest und sind daher nicht enthalten.
+	 *
+	 * @return Keys der Abhaengigkeiten
+	 */
+	Object[] getDependencyKeys() {
+		if (providerKey!=null) {
+			return new Object[] {providerKey};
+		}
+		if (!hasImplClass()) {
+			return new Object[0];
+		}
+		InjectionPlan plan = InjectionPlan.forClass(implClass());
+		List<Object> keys = new ArrayList<Object>();
+		addEagerKeys(plan.getArguments(), keys);
+		addEagerKeys(plan.getPoints(), keys);
+		return keys.toArray();
+	}
+
+	/**
+	 * @return die Keys der Konstruktor-Argumente; diese muessen vor der
+	 *  Instance erzeugt werden und koennen daher nicht Teil eines Zyklus sein
+	 */
+	Object[] getArgumentKeys() {
+		if (providerKey!=null || !hasImplClass()) {
+			return new Object[0];
+		}
+		List<Object> keys = new ArrayList<Object>();
+		addEagerKeys(InjectionPlan.forClass(implClass()).getArguments(), keys);
+		return keys.toArray();
+	}
+
+	private static void addEagerKeys(InjectionPoint[] points, List<Object> keys) {
+		for (InjectionPoint point : points) {
+			if (!point.isLazy())
+				keys.add(point.getKey());
+		}
+	}
+
+	/**
+	 * Pruefen der Bindung: Implementierung vorhanden, Injection-Plan korrekt
+	 * und alle nicht optionalen Keys (bzw. der Provider-Key) gebunden
+	 *
+	 * @param problems Liste, an welche die gefundenen Fehler angehaengt werden
+	 */
+	void validate(List<String> problems) {
+		if (providerKey!=null) {
+			if (crmContainer.findBindObject(providerKey)==null)
+				problems.add("provider key '"+providerKey+"' not bound");
+			return;
+		}
+		if (!hasImplClass()) {
+			if (instance==null)
+				problems.add("no implementation bound");
+			return;
+		}
+		Class<?> implClass;
+		InjectionPlan plan;
+		try {
+			implClass = implClass();
+			if (implClass.isInterface() || Modifier.isAbstract(implClass.getModifiers())) {
+				problems.add("implementation "+implClass.getName()+" is abstract");
+			}
+			plan = InjectionPlan.forClass(implClass);
+		} catch (ServiceCreationException e) {
+			problems.add(e.getMessage());
+			return;
+		}
+		if (interceptedType!=null && !interceptedType.isAssignableFrom(implClass)) {
+			problems.add("implementation "+implClass.getName()+" does not implement intercepted "+interceptedType.getName());
+		}
+		if (proxyType()!=null) {
+			try {
+				CachingInterceptor.cachedMethods(proxyType(), implClass);
+			} catch (IllegalArgumentException e) {
+				problems.add(e.getMessage());
+			}
+		} else if (CachingInterceptor.hasCachedMethods(implClass)) {
+			problems.add("@Cached methods of "+implClass.getName()+" require an interface key");
+		}
+		for (InjectionPoint argument : plan.getArguments()) {
+			if (!argument.isOptional() && crmContainer.findBindObject(argument.getKey())==null)
+				problems.add("key '"+argument.getKey()+"' not bound for constructor of "+implClass.getName());
+		}
+		for (InjectionPoint point : plan.getPoints()) {
+			if (!point.isOptional() && crmContainer.findBindObject(point.getKey())==null)
+				problems.add("key '"+point.getKey()+"' not bound for injection into "+implClass.getName());
+		}
+	}
+
+	/**
+	 * Vorab-Aufloesen der Keys zu den Ziel-BindObjects, danach entfaellt
+	 * beim Injecten die Suche im Container.
+	 * Darf erst nach erfolgreicher Pruefung und nach Abschluss aller
+	 * bind-Aufrufe aufgerufen werden.
+	 */
+	void link() {
+		link(findLinks());
+	}
+
+	/**
+	 * Ermitteln der Ziel-BindObjects, ohne sie zu setzen (siehe {@link #link(BindObject[][])})
+	 *
+	 * @return die Ziele des Providers bzw. der Konstruktor-Argumente und
+	 *  Injektionsstellen, null wenn nichts zu verknuepfen ist
+	 * @throws ServiceCreationException wenn die Klasse nicht geladen werden kann
+	 */
+	BindObject[][] findLinks() {
+		if (providerKey!=null) {
+			return new BindObject[][] {{crmContainer.findBindObject(providerKey)}};
+		}
+		if (hasImplClass()) {
+			InjectionPlan plan = InjectionPlan.forClass(implClass());
+			return new BindObject[][] {link(plan.getArguments()), link(plan.getPoints())};
+		}
+		return null;
+	}
+
+	/**
+	 * Setzen der per {@link #findLinks()} ermittelten Ziele
+	 */
+	void link(BindObject[][] links) {
+		if (links==null) {
+			return;
+		}
+		if (providerKey!=null) {
+			providerTarget = links[0][0];
+		} else {
+			argumentTargets = links[0];
+			targets = links[1];
+		}
 	}
 
+	private BindObject[] link(InjectionPoint[] points) {
+		BindObject[] linked = new BindObject[points.length];
+		for (int i = 0; i < points.length; i++) {
+			linked[i] = crmContainer.findBindObject(points[i].getKey());
+		}
+		return linked;
+	}
+
+	/**
+	 * @return true, wenn bei Zyklen die noch nicht fertige Instance
+	 *  geliefert werden kann (Singleton mit Implementierungs-Klasse)
+	 */
+	boolean supportsPartial() {
+		return scope==null && hasImplClass();
+	}
+
+	/**
+	 * @return true, wenn die Instance (bzw. der Provider) noch erzeugt werden muss
+	 */
+	boolean needsCreation() {
+		return scope==null && instance==null && (hasImplClass() || providerKey!=null);
+	}
+
+	/**
+	 * Erzeugt die Instance, sofern noch nicht geschehen.
+	 * Bei Providern wird nur der Provider selbst erzeugt, nicht get aufgerufen.
+	 */
+	void ensureCreated() {
+		if (instance==null) {
+			createInstance(monitor!=null && monitor.isEnabled());
+		}
+	}
+
+	/**
+	 * Freigeben der erzeugten Singleton-Instance (bzw. des Providers),
+	 * gebundene Konstanten bleiben erhalten
+	 */
+	void release() {
+		if (hasImplClass() || providerKey!=null) {
+			instance = null;
+			ProviderResolver released = resolver;
+			resolver = null;
+			if (released!=null)
+				released.release();
+		}
+		ThreadLocal<Object[]> local = threadInstances;
+		if (local!=null) {
+			// die Holder anderer Threads werden nicht mehr gelesen, da ein neues ThreadLocal verwendet wird
+			threadInstances = null;
+			local.remove();
+			for (Object[] holder; (holder = threadHolders.poll())!=null; ) {
+				holder[0] = null;
+			}
+		}
+	}
+
+	/**
+	 * liefert die Instance des aktuellen Threads fuer den Scope
+	 * {@link Scopes#THREAD}, erzeugt sie ggf.
+	 *
+	 * @return die Instance
+	 */
+	Object getThreadInstance() {
+		ThreadLocal<Object[]> local = threadInstances;
+		if (local==null) {
+			THREAD_INSTANCES.compareAndSet(this, null, new ThreadLocal<Object[]>());
+			local = threadInstances;
+		}
+		Object[] holder = local.get();
+		if (holder==null) {
+			holder = new Object[1];
+			local.set(holder);
+			threadHolders.add(holder);
+		}
+		Object current = holder[0];
+		if (current==null) {
+			current = newInstance();
+			holder[0] = current;
+		}
+		return current;
+	}
+
+	/**
+	 * @return true, wenn die Singleton-Instance einer Implementierungs-Klasse erzeugt ist
+	 */
+	boolean isCreated() {
+		return scope==null && hasImplClass() && instance!=null;
+	}
+
+	/**
+	 * Freigeben der erzeugten Singleton-Instance und Beenden per
+	 * {@link Stoppable#stop()} bzw. {@link AutoCloseable#close()}
+	 *
+	 * @throws Exception aus close
+	 */
+	void stop() throws Exception {
+		Object current = instance;
+		if (current==null || !hasImplClass()) {
+			return;
+		}
+		instance = null;
+		current = Interception.unwrap(current);
+		if (current instanceof Stoppable) {
+			((Stoppable) current).stop();
+		} else if (current instanceof AutoCloseable) {
+			((AutoCloseable) current).close();
+		}
+	}
 
-	public Object getInstance(int level) {
-		if(instance==null) {
-			createInstance(level);
+	/**
+	 * nach dem Einfrieren des Containers darf die Bindung nicht mehr geaendert werden
+	 */
+	private void checkNotFrozen() {
+		if (crmContainer.isFrozen())
+			throw new ContainerFrozenException(key);
+	}
+
+
+	/**
+	 * liefert die Instance zu diesem BindObject, erzeugt sie ggf.
+	 * Nach der Erzeugung erfolgt der Zugriff ohne Lock.
+	 *
+	 * @return die Instance
+	 * @throws DependencyCycleException bei einem nicht aufloesbaren Zyklus
+	 */
+	public Object getInstance() {
+		ProviderResolver current = resolver;
+		if (current!=null) {
+			return current.get();
+		}
+		if (scope!=null) {
+			return scope.getInstance(this);
+		}
+		return getSingleton();
+	}
+
+	/**
+	 * @return true, wenn die Bindung an eine Instance des Provider- bzw.
+	 *  Supplier-Typs gebunden ist, die dann selbst injected wird
+	 */
+	private boolean isBoundTo(Class<?> lazyType) {
+		return (lazyType==Provider.class || lazyType==Supplier.class) && lazyType.isInstance(getReady());
+	}
+
+	/**
+	 * @return die fertige Singleton-Instance bzw. Konstante, null wenn sie
+	 *  noch nicht erzeugt ist oder per Provider bzw. Scope geliefert wird
+	 */
+	Object getReady() {
+		return (providerKey==null && scope==null) ? instance : null;
+	}
+
+	/**
+	 * liefert die Singleton-Instance, erzeugt sie ggf.
+	 *
+	 * @return die Instance
+	 */
+	Object getSingleton() {
+		if (monitor!=null && monitor.isEnabled()) {
+			return getInstanceMonitored();
+		}
+		Object current = instance;
+		if(current==null) {
+			current = createInstance(false);
+		}
+		if (providerKey!=null) {
+			// dann ist Instance ein Provider
+			return compileResolver(current).get();
+		}
+		return current;
+	}
+
+	/**
+	 * wie {@link #getInstance()}, meldet aber alle Ereignisse an den Monitor
+	 */
+	private Object getInstanceMonitored() {
+		int level = ResolutionContext.current().depth();
+		monitor.onResolveStart(key, level);
+		long start = System.nanoTime();
+		Object current = instance;
+		if(current==null) {
+			current = createInstance(true);
+		} else {
+			monitor.onCacheHit(key, level);
 		}
 		if (providerKey!=null) {
 			// dann ist Instance ein Provider
-			Provider provider = (Provider) instance;
-			Object object = provider.get();
-			if(monitor!=null) monitor.log(instance.getClass()+" is a provider, provide: "+object.getClass());
-			return object;
+			current = compileResolver(current).get();
 		}
-		return instance;
+		monitor.onResolveEnd(key, level, System.nanoTime()-start);
+		return current;
+	}
+
+	/**
+	 * Uebersetzen der Provider-Policy in den Resolver dieser Bindung.
+	 * Bei parallelem Aufruf gewinnt der erste Resolver, damit gecachte
+	 * Objekte nur einmal erzeugt werden.
+	 *
+	 * @param provider die Provider-Instance
+	 * @return der Resolver
+	 */
+	private ProviderResolver compileResolver(Object provider) {
+		ProviderResolver compiled = providerPolicy.compile((Provider<?>) provider, key, monitor);
+		if (RESOLVER.compareAndSet(this, null, compiled)) {
+			return compiled;
+		}
+		return resolver;
 	}
 
 	@SuppressWarnings("unchecked")
-	private void createInstance(int level) {
+	private Object createInstance(boolean monitored) {
 		
 		// Sonderfall Provider 
 		if(providerKey!=null) {
-			if (monitor != null) monitor.log(levelPrefix(level) + "Search provider key=" + providerKey);
-			instance = crmContainer.getInstance(providerKey, level);
-			return;
+			// der Provider ist selbst ein Singleton, ein paralleles Setzen ist daher unkritisch
+			BindObject linked = providerTarget;
+			Object provider = (linked!=null) ? linked.getInstance() : crmContainer.getInstance(providerKey);
+			instance = provider;
+			return provider;
 		}
 		
-		if (implClass == null) {
+		if (!hasImplClass()) {
 			// es existiert fuer diesen key keine Implementierungsklasse, raus mit Exception
 			throw new ServiceCreationException(key, " no Implementation-Class");
 		}
-		createLock.lock();
-		try {
-
-			if (monitor != null)
-				monitor.log(levelPrefix(level) + "Creating instance for key=" + key
-						+ " with implementation " + implClass);
+		for (;;) {
+			// double-check: evtl. hat ein anderer Thread die Instance inzwischen erzeugt
+			Object current = instance;
+			if (current != null) {
+				return current;
+			}
+			Creation running = creation;
+			if (running == null) {
+				Creation mine = new Creation(Thread.currentThread(), key);
+				if (CREATION.compareAndSet(this, null, mine)) {
+					return create(mine, monitored);
+				}
+				continue;
+			}
+			if (running.getOwner() == Thread.currentThread()) {
+				// Zyklus im selben Thread (z.B. A<->B): die noch nicht fertig injectete Instance liefern
+				Object partial = running.getPartial();
+				if (partial == null) {
+					// die Instance wird noch konstruiert: Zyklus ueber Konstruktor-Argumente
+					throw ResolutionContext.current().cycle(this);
+				}
+				return partial;
+			}
+			return running.await(key);
+		}
+	}
 
-			Constructor constr = implClass.getConstructor();
-			instance = constr.newInstance();
+	/**
+	 * Erzeugen der Singleton-Instance durch den Thread, der das Creation-Handle
+	 * installiert hat. Wartende Threads werden am Ende benachrichtigt.
+	 */
+	private Object create(Creation mine, boolean monitored) {
+		ResolutionContext context = ResolutionContext.current();
+		boolean entered = false;
+		try {
+			Object current = instance;
+			if (current == null) {
+				int level = context.enter(this);
+				entered = true;
+				if (level >= ResolutionContext.ITERATIVE_DEPTH) {
+					prepareDependencies(context);
+				}
+				Invoker invoker = crmContainer.getInvokerFactory().getInvoker(implClass());
+				Object created = construct(invoker, level, monitored);
+				// bei Zyklen wird bereits der Proxy geliefert
+				current = managed(created);
+				mine.setPartial(current);
+				initialize(invoker, created, level, monitored);
+				// erst die fertige Instance veroeffentlichen
+				instance = current;
+				crmContainer.created(this);
+			}
+			mine.complete(current);
+			return current;
+		} catch (DependencyCycleException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} catch (Exception e) {
+			ServiceCreationException failure = new ServiceCreationException(key, e);
+			mine.completeExceptionally(failure);
+			throw failure;
+		} catch (Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			if (entered) {
+				context.exit();
+			}
+			creation = null;
+		}
+	}
 
-			injectDependencies(level+1);
-			if (instance instanceof Startable) {
-				Startable startable = (Startable) instance;
-				if (monitor != null)
-					monitor.log(levelPrefix(level) +"Call start on " + key);
-				startable.start();
+	/**
+	 * Erzeugt eine neue, fertig injectete und gestartete Instance,
+	 * unabhaengig von bereits existierenden Instanzen.
+	 * Wird von den {@link Scope}s zum Erzeugen verwendet und nutzt
+	 * den gecachten Injection-Plan und Invoker der Klasse.
+	 *
+	 * @return die neue Instance
+	 * @throws DependencyCycleException wenn die Instance (transitiv) sich selbst benoetigt
+	 */
+	public Object newInstance() {
+		if (!hasImplClass()) {
+			throw new ServiceCreationException(key, " no Implementation-Class");
+		}
+		boolean monitored = monitor!=null && monitor.isEnabled();
+		ResolutionContext context = ResolutionContext.current();
+		int level = context.enter(this);
+		try {
+			if (level >= ResolutionContext.ITERATIVE_DEPTH) {
+				prepareDependencies(context);
 			}
+			Invoker invoker = crmContainer.getInvokerFactory().getInvoker(implClass());
+			Object created = construct(invoker, level, monitored);
+			initialize(invoker, created, level, monitored);
+			return managed(created);
+		} catch (DependencyCycleException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new ServiceCreationException(key, e);
 		} finally {
-			createLock.unlock();
+			context.exit();
 		}
 	}
 
 	/**
-	 * Injecten aller Abhaengikeiten (Setter), die durch die
-	 * Annotation @Inject markiert sind
+	 * Vorab-Erzeugen der noch nicht erzeugten Singleton-Abhaengigkeiten,
+	 * die tiefsten zuerst, per Tiefensuche mit eigenem Stack. Jede dieser
+	 * Erzeugungen findet ihre Abhaengigkeiten bereits vor, so dass die
+	 * Rekursion auch bei sehr tiefen Graphen begrenzt bleibt.
 	 *
-	 * @param level Aufruf-Level (nur fuer Monitorzwecke)
-	 * @throws Exception
+	 * Ausgelassen werden Bindungen, die (transitiv) von einer gerade
+	 * erzeugten, einer nicht-singleton Bindung oder einem Zyklus abhaengen;
+	 * diese werden wie bisher rekursiv erzeugt.
 	 */
-	private void injectDependencies(int level) throws Exception {
-		Class clazz = instance.getClass();
-		for (Method method : clazz.getMethods()) {
-			Inject anno = method.getAnnotation(Inject.class);
-			if (anno==null)
+	private void prepareDependencies(ResolutionContext context) {
+		Map<BindObject, Integer> states = new IdentityHashMap<BindObject, Integer>();
+		List<BindObject> order = new ArrayList<BindObject>();
+		ArrayDeque<Visit> visits = new ArrayDeque<Visit>();
+		states.put(this, VISITING);
+		visits.push(new Visit(this));
+		while (!visits.isEmpty()) {
+			Visit visit = visits.peek();
+			if (visit.dependencies.hasNext()) {
+				BindObject dependency = visit.dependencies.next();
+				Integer state = states.get(dependency);
+				if (state == null) {
+					if (dependency.getReady()!=null) {
+						states.put(dependency, READY);
+					} else if (dependency.isPreparable(context)) {
+						states.put(dependency, VISITING);
+						visits.push(new Visit(dependency));
+					} else {
+						states.put(dependency, BLOCKED);
+						visit.blocked = true;
+					}
+				} else if (state.intValue()!=READY.intValue()) {
+					visit.blocked = true;
+				}
 				continue;
-			Class<?>[] parameterTypes = method.getParameterTypes();
-			if (parameterTypes.length!=1) {
-				throw new ServiceCreationException(clazz, method);
 			}
-			Class<?> paraClass = parameterTypes[0];
-			Object param;
-			String annoValue = anno.value();
-			
-			// Such-Key ist entweder der Annotion-Value oder, wenn nicht gesetzt, die Parameterklasse 
-			Object key = (annoValue.length()>0) ? annoValue : paraClass; 
-			
-			if (monitor!=null) 	monitor.log(levelPrefix(level)+"Injecting dependencies: "+key);
+			visits.pop();
+			if (visit.blocked) {
+				states.put(visit.bindObject, BLOCKED);
+				if (!visits.isEmpty())
+					visits.peek().blocked = true;
+			} else {
+				states.put(visit.bindObject, READY);
+				if (visit.bindObject!=this)
+					order.add(visit.bindObject);
+			}
+		}
+		for (BindObject dependency : order) {
 			try {
-				param = crmContainer.getInstance(key, level);
-			} catch (RuntimeException e) { param = null; }
-			
-			if (param!=null) {
-				method.invoke(instance, new Object[] {param});
-			} else if (!anno.optional()) {
-				throw new ServiceCreationException(key, "no Instance found for Injection, key="+key);
+				dependency.getSingleton();
+			} catch (RuntimeException e) {
+				// wird bei der regulaeren Aufloesung erneut gemeldet
 			}
 		}
 	}
 
 	/**
-	 * Helper-Methode zum Ausgeben des Level-Praefixes
+	 * @return true, wenn die Singleton-Instance vorab erzeugt werden kann
+	 */
+	private boolean isPreparable(ResolutionContext context) {
+		return providerKey==null && scope==null && hasImplClass() && instance==null
+				&& creation==null && !context.contains(this);
+	}
+
+	/**
+	 * @return die gebundenen Abhaengigkeiten
+	 */
+	private Iterator<BindObject> dependencies() {
+		List<BindObject> dependencies = new ArrayList<BindObject>();
+		for (Object dependencyKey : getDependencyKeys()) {
+			BindObject dependency = crmContainer.findBindObject(dependencyKey);
+			if (dependency!=null)
+				dependencies.add(dependency);
+		}
+		return dependencies.iterator();
+	}
+
+	/**
+	 * Eintrag im Stack der Tiefensuche von {@link #prepareDependencies(ResolutionContext)}
+	 */
+	private static final class Visit {
+
+		final BindObject bindObject;
+		final Iterator<BindObject> dependencies;
+		boolean blocked;
+
+		Visit(BindObject bindObject) {
+			this.bindObject = bindObject;
+			this.dependencies = bindObject.dependencies();
+		}
+	}
+
+	/**
+	 * Aufloesen der Konstruktor-Argumente und Aufruf des Konstruktors
+	 */
+	private Object construct(Invoker invoker, int level, boolean monitored) throws Exception {
+		Object[] args = resolveArguments(level+1, monitored);
+		if (!monitored) {
+			return invoker.newInstance(args);
+		}
+		monitor.onCreate(key, implClass(), level);
+		long start = System.nanoTime();
+		Object created = invoker.newInstance(args);
+		monitor.onConstruct(key, implClass(), level, System.nanoTime()-start);
+		return created;
+	}
+
+	/**
+	 * Aufloesen der Argumente des Konstruktors
 	 *
-	 * @param level
-	 * @return
+	 * @param level Aufruf-Level (nur fuer Monitorzwecke)
+	 * @param monitored true, wenn die Ereignisse an den Monitor gemeldet werden
+	 * @return die Argumente
 	 */
-	private String levelPrefix(int level) {
-		StringBuffer sb = new StringBuffer();
-		while(--level>=0) sb.append("-");
+	private Object[] resolveArguments(int level, boolean monitored) {
+		InjectionPoint[] arguments = InjectionPlan.forClass(implClass()).getArguments();
+		if (arguments.length==0) {
+			return NO_ARGS;
+		}
+		BindObject[] linked = argumentTargets;
+		Object[] args = new Object[arguments.length];
+		for (int i = 0; i < arguments.length; i++) {
+			Object argKey = arguments[i].getKey();
+			long start = monitored ? System.nanoTime() : 0;
+			args[i] = resolve(linked, i, arguments[i]);
+			if (args[i]!=null) {
+				if (monitored)
+					monitor.onInject(key, argKey, level, System.nanoTime()-start);
+			} else if (!arguments[i].isOptional()) {
+				throw new ServiceCreationException(argKey, "no Instance found for Constructor-Argument, key="+argKey);
+			}
+		}
+		return args;
+	}
+
+	/**
+	 * liefert die Instance zur Injektionsstelle, nach build() ohne Suche im Container.
+	 * Bei verzoegerten Injektionsstellen wird nur der Provider bzw. Proxy erzeugt.
+	 *
+	 * @param linked vorab aufgeloeste Ziele oder null
+	 * @param index Index im Array der Ziele
+	 * @param point die Injektionsstelle
+	 * @return die Instance oder null, wenn sie nicht geliefert werden kann
+	 * @throws DependencyCycleException bei einem nicht aufloesbaren Zyklus
+	 */
+	private Object resolve(BindObject[] linked, int index, InjectionPoint point) {
+		Object depKey = point.getKey();
+		if (point.isLazy()) {
+			BindObject target = (linked!=null) ? linked[index] : crmContainer.findBindObject(depKey);
+			if (target==null) {
+				return null;
+			}
+			if (!target.isBoundTo(point.getLazyType())) {
+				return LazyInstance.create(point.getLazyType(), target);
+			}
+			// an einen Provider bzw. Supplier gebunden: diesen selbst injecten
+		}
+		try {
+			if (linked!=null) {
+				return (linked[index]!=null) ? linked[index].getInstance() : null;
+			}
+			return crmContainer.getInstance(depKey);
+		} catch (DependencyCycleException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Injecten der Abhaengigkeiten und Aufruf von start
+	 */
+	private void initialize(Invoker invoker, Object target, int level, boolean monitored) throws Exception {
+		injectDependencies(invoker, target, level+1, monitored);
+		if (target instanceof Startable) {
+			Startable startable = (Startable) target;
+			long start = monitored ? System.nanoTime() : 0;
+			startable.start();
+			if (monitored)
+				monitor.onStart(key, level, System.nanoTime()-start);
+		}
+	}
+
+	/**
+	 * Injecten aller Abhaengikeiten (Setter und Felder), die durch die
+	 * Annotation @Inject markiert sind.
+	 * Die Injektionsstellen werden dem gecachten InjectionPlan der Klasse entnommen.
+	 *
+	 * @param invoker Invoker der Implementierungs-Klasse
+	 * @param target Instance, in welche injected wird
+	 * @param level Aufruf-Level (nur fuer Monitorzwecke)
+	 * @param monitored true, wenn die Ereignisse an den Monitor gemeldet werden
+	 * @throws Exception
+	 */
+	private void injectDependencies(Invoker invoker, Object target, int level, boolean monitored) throws Exception {
+		InjectionPoint[] points = InjectionPlan.forClass(implClass()).getPoints();
+		BindObject[] linked = targets;
+		for (int i = 0; i < points.length; i++) {
+			InjectionPoint point = points[i];
+			Object key = point.getKey();
+			Object param;
+			long start = monitored ? System.nanoTime() : 0;
+			param = resolve(linked, i, point);
 			
-		return "#"+sb+"# ";
+			if (param!=null) {
+				invoker.inject(target, i, param);
+				if (monitored)
+					monitor.onInject(this.key, key, level, System.nanoTime()-start);
+			} else if (!point.isOptional()) {
+				throw new ServiceCreationException(key, "no Instance found for Injection, key="+key);
+			}
+		}
 	}
 
 
@@ -0,0 +1,126 @@
+package working_it.witcontainer;
+
+import java.util.Map;
+
+/**
+ * Unveraenderliche, auf Lesen optimierte Tabelle Key -&gt; BindObject,
+ * die beim {@link WitContainer#freeze()} aus der Bind-Map aufgebaut wird.
+ * Wird auch von {@link IndexedMap} fuer beliebige Werte verwendet.
+ *
+ * Offene Adressierung mit linearem Sondieren, Keys und Werte liegen
+ * abwechselnd in einem Array. Die Tabelle ist hoechstens zu einem Viertel
+ * gefuellt, so dass ein Treffer fast immer beim ersten Vergleich erfolgt.
+ * Keys werden zuerst per Identitaet verglichen (z.B. Class-Keys),
+ * erst danach per equals.
+ * Class-Keys liegen zusaetzlich in einer eigenen Identitaets-Tabelle,
+ * in der per {@link #getByClass(Class)} nur per == verglichen wird.
+ *
+ */
+final class BindTable {
+
+	/** abwechselnd Key, Wert */
+	private final Object[] table;
+	private final int mask;
+
+	/** nur die Class-Keys, abwechselnd Key, Wert */
+	private final Object[] classTable;
+	private final int classMask;
+
+	BindTable(Map<?, ?> bindObjects) {
+		int capacity = 4;
+		while (capacity < bindObjects.size() * 4) {
+			capacity <<= 1;
+		}
+		table = new Object[capacity * 2];
+		mask = capacity - 1;
+		for (Map.Entry<?, ?> entry : bindObjects.entrySet()) {
+			Object key = entry.getKey();
+			if (key == null) {
+				continue;
+			}
+			int i = index(key);
+			while (table[i << 1] != null) {
+				i = (i + 1) & mask;
+			}
+			table[i << 1] = key;
+			table[(i << 1) + 1] = entry.getValue();
+		}
+
+		int classKeys = 0;
+		for (Object key : bindObjects.keySet()) {
+			if (key instanceof Class)
+				classKeys++;
+		}
+		capacity = 4;
+		while (capacity < classKeys * 4) {
+			capacity <<= 1;
+		}
+		classTable = new Object[capacity * 2];
+		classMask = capacity - 1;
+		for (Map.Entry<?, ?> entry : bindObjects.entrySet()) {
+			if (!(entry.getKey() instanceof Class)) {
+				continue;
+			}
+			int i = classIndex(entry.getKey());
+			while (classTable[i << 1] != null) {
+				i = (i + 1) & classMask;
+			}
+			classTable[i << 1] = entry.getKey();
+			classTable[(i << 1) + 1] = entry.getValue();
+		}
+	}
+
+	/**
+	 * liefert das BindObject zum Class-Key oder null,
+	 * Vergleich nur per Identitaet, ohne equals
+	 */
+	BindObject getByClass(Class<?> key) {
+		Object[] tab = classTable;
+		int i = classIndex(key);
+		Object k;
+		while ((k = tab[i << 1]) != null) {
+			if (k == key) {
+				return (BindObject) tab[(i << 1) + 1];
+			}
+			i = (i + 1) & classMask;
+		}
+		return null;
+	}
+
+	/**
+	 * liefert das BindObject zum Key oder null
+	 */
+	BindObject get(Object key) {
+		return (BindObject) lookup(key);
+	}
+
+	/**
+	 * liefert den Wert zum Key oder null
+	 */
+	Object lookup(Object key) {
+		if (key == null) {
+			return null;
+		}
+		Object[] tab = table;
+		int i = index(key);
+		Object k;
+		while ((k = tab[i << 1]) != null) {
+			if (k == key || k.equals(key)) {
+				return tab[(i << 1) + 1];
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	private int classIndex(Object key) {
+		int h = System.identityHashCode(key);
+		return (h ^ (h >>> 16)) & classMask;
+	}
+
+	private int index(Object key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
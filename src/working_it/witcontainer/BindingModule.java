@@ -0,0 +1,209 @@
+package working_it.witcontainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Deklaratives Binden aus einer Modul-Datei anstelle von bind-Aufrufen.
+ *
+ * Die Datei (UTF-8) enthaelt eine Bindung je Zeile im Format
+ * <code>key = value</code>, Leerzeilen und Zeilen mit # am Anfang werden
+ * ignoriert:
+ *
+ * <pre>
+ * # Class-Key an Implementierung, bzw. an sich selbst bei leerem Wert
+ * class:working_it.sample.Service = class:working_it.sample.ServiceImpl
+ * class:working_it.sample.Cache =
+ * # String-Key an Implementierung
+ * reportGenerator = class:working_it.sample.PdfReportGenerator
+ * # Konstanten, ohne Typ-Praefix als String
+ * db_name = db1
+ * pool_size = int:10
+ * timeout_millis = long:30000
+ * load_factor = double:0.75
+ * cache_enabled = boolean:true
+ * greeting = string:int:kein Typ
+ * </pre>
+ *
+ * Die Datei wird per Memory-Mapping gelesen. Es wird keine Klasse geladen,
+ * weder die Key- noch die Implementierungs-Klassen: Class-Keys werden per
+ * {@link WitContainer#bindClassName(String)} gebunden, Implementierungen per
+ * {@link BindObject#toClassName(String, ClassLoader)} und erst beim ersten
+ * getInstance geladen. Die Startzeit haengt damit nur von den tatsaechlich
+ * verwendeten Bindungen ab, nicht von der Groesse des Katalogs.
+ * ({@link WitContainer#build()} prueft dagegen alle Bindungen und laedt
+ * dazu alle Klassen, fuer einen schnellen Start genuegt {@link WitContainer#freeze()}.)
+ *
+ */
+public final class BindingModule {
+
+	private static final String CLASS = "class:";
+	private static final String STRING = "string:";
+	private static final String INT = "int:";
+	private static final String LONG = "long:";
+	private static final String DOUBLE = "double:";
+	private static final String BOOLEAN = "boolean:";
+
+	private BindingModule() {
+		super();
+	}
+
+	/**
+	 * Laden der Modul-Datei, die Klassen werden per Context-ClassLoader geladen
+	 *
+	 * @param container der Container
+	 * @param file die Modul-Datei
+	 * @return Anzahl der Bindungen
+	 * @throws IOException bei Lesefehlern oder fehlerhaften Zeilen
+	 * @see #load(WitContainer, File, ClassLoader)
+	 */
+	public static int load(WitContainer container, File file) throws IOException {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return load(container, file, (classLoader != null) ? classLoader : BindingModule.class.getClassLoader());
+	}
+
+	/**
+	 * Laden der Modul-Datei
+	 *
+	 * @param container der Container
+	 * @param file die Modul-Datei
+	 * @param classLoader ClassLoader fuer die Implementierungs-Klassen
+	 * @return Anzahl der Bindungen
+	 * @throws IOException bei Lesefehlern oder fehlerhaften Zeilen
+	 * @throws DuplicateBindException wenn ein Key bereits gebunden ist
+	 * @throws ContainerFrozenException wenn der Container bereits eingefroren ist
+	 */
+	public static int load(WitContainer container, File file, ClassLoader classLoader) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return parse(container, buffer, file.getPath(), classLoader);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Zerlegen in Zeilen, Bytes werden nur fuer die relevanten Zeilen dekodiert
+	 */
+	private static int parse(WitContainer container, ByteBuffer buffer, String source, ClassLoader classLoader)
+			throws IOException {
+		byte[] line = new byte[256];
+		int count = 0;
+		int lineNumber = 0;
+		while (buffer.hasRemaining()) {
+			lineNumber++;
+			int length = 0;
+			while (buffer.hasRemaining()) {
+				byte b = buffer.get();
+				if (b == '\n') {
+					break;
+				}
+				if (length == line.length) {
+					byte[] grown = new byte[line.length * 2];
+					System.arraycopy(line, 0, grown, 0, length);
+					line = grown;
+				}
+				line[length++] = b;
+			}
+			int start = 0;
+			while (start < length && isBlank(line[start])) {
+				start++;
+			}
+			while (length > start && isBlank(line[length - 1])) {
+				length--;
+			}
+			if (start == length || line[start] == '#') {
+				continue;
+			}
+			String text = new String(line, start, length - start, StandardCharsets.UTF_8);
+			int separator = text.indexOf('=');
+			if (separator <= 0) {
+				throw new IOException(source + ":" + lineNumber + ": expected 'key = value'");
+			}
+			try {
+				bind(container, text.substring(0, separator).trim(), text.substring(separator + 1).trim(), classLoader);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+			}
+			count++;
+		}
+		return count;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	/**
+	 * Binden einer Zeile
+	 *
+	 * @throws IllegalArgumentException bei fehlerhaftem Wert
+	 */
+	private static void bind(WitContainer container, String key, String value, ClassLoader classLoader) {
+		if (key.startsWith(CLASS)) {
+			String keyClass = className(key);
+			BindObject bindObject = container.bindClassName(keyClass);
+			if (value.length() == 0) {
+				bindObject.toClassName(keyClass, classLoader);
+			} else {
+				bindValue(bindObject, value, classLoader);
+			}
+		} else {
+			if (value.length() == 0) {
+				throw new IllegalArgumentException("missing value for key " + key);
+			}
+			bindValue(container.bind(key), value, classLoader);
+		}
+	}
+
+	private static void bindValue(BindObject bindObject, String value, ClassLoader classLoader) {
+		if (value.startsWith(CLASS)) {
+			bindObject.toClassName(className(value), classLoader);
+		} else {
+			bindObject.to(convert(value));
+		}
+	}
+
+	private static String className(String text) {
+		String name = text.substring(CLASS.length()).trim();
+		if (name.length() == 0) {
+			throw new IllegalArgumentException("missing class name in " + text);
+		}
+		return name;
+	}
+
+	/**
+	 * Umwandeln einer Konstanten gemaess Typ-Praefix
+	 *
+	 * @throws IllegalArgumentException wenn der Wert nicht zum Typ passt
+	 */
+	private static Object convert(String value) {
+		if (value.startsWith(STRING)) {
+			return value.substring(STRING.length());
+		}
+		if (value.startsWith(INT)) {
+			return Integer.valueOf(value.substring(INT.length()).trim());
+		}
+		if (value.startsWith(LONG)) {
+			return Long.valueOf(value.substring(LONG.length()).trim());
+		}
+		if (value.startsWith(DOUBLE)) {
+			return Double.valueOf(value.substring(DOUBLE.length()).trim());
+		}
+		if (value.startsWith(BOOLEAN)) {
+			String flag = value.substring(BOOLEAN.length()).trim();
+			if (!flag.equals("true") && !flag.equals("false")) {
+				throw new IllegalArgumentException("invalid boolean " + flag);
+			}
+			return Boolean.valueOf(flag);
+		}
+		return value;
+	}
+
+}
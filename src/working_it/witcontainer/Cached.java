@@ -0,0 +1,57 @@
+package working_it.witcontainer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Markiert eine Methode, deren Ergebnis je Argumente gecacht wird.
+ *
+ * Fuer vom Container erzeugte Instanzen wird der Cache automatisch angelegt,
+ * sobald eine Methode des Interfaces (bzw. deren Implementierung) markiert
+ * ist. Wie bei {@link BindObject#intercept(Interceptor...)} muss der Key
+ * dazu ein Interface sein. Geliefert und injected wird dann ein Proxy, der
+ * als innerster Interceptor den Cache abfragt; andere Interceptoren sehen
+ * daher weiterhin jeden Aufruf. Ohne generierten Proxy (siehe
+ * {@link Interceptable}) wird ein java.lang.reflect.Proxy verwendet.
+ *
+ * Die Argumente werden per equals/hashCode (Arrays per Inhalt) verglichen,
+ * null-Ergebnisse werden ebenfalls gecacht, Exceptions nicht. Jede Instance
+ * hat ihren eigenen Cache, z.B. je Request bei {@link RequestScope}.
+ * Treffer, Fehlschlaege und Verdraengungen werden an den {@link Monitor} gemeldet.
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+	/**
+	 * @return maximale Anzahl Eintraege des Caches dieser Methode
+	 */
+	int maxSize() default 1000;
+
+	/**
+	 * @return Strategie, nach der bei vollem Cache verdraengt wird
+	 */
+	Eviction eviction() default Eviction.LRU;
+
+	/**
+	 * @return Gueltigkeit eines Eintrags in Millisekunden, 0 fuer unbegrenzt
+	 */
+	long ttlMillis() default 0;
+
+
+	/**
+	 * Verdraengungs-Strategie
+	 */
+	public enum Eviction {
+		/** der am laengsten nicht gelesene Eintrag */
+		LRU,
+		/** der am seltensten gelesene Eintrag, bei Gleichstand der am laengsten nicht gelesene */
+		LFU
+	}
+
+}
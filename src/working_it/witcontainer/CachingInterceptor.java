@@ -0,0 +1,152 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interceptor der {@link Cached}-Methoden einer Instance: je Methode ein
+ * eigener {@link MethodCache}, andere Methoden werden durchgereicht.
+ *
+ * Wird von {@link BindObject} automatisch als innerster Interceptor um jede
+ * erzeugte Instance gelegt, deren Interface {@link Cached}-Methoden hat.
+ *
+ */
+final class CachingInterceptor implements Interceptor {
+
+	/** Key der Methoden ohne Argumente */
+	private static final Object NO_ARGS = new Object();
+
+	private final Object bindKey;
+	private final Monitor monitor;
+	private final Map<Method, MethodCache> caches;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param bindKey Key der Bindung (fuer den Monitor)
+	 * @param cachedMethods die Methoden des Interfaces mit ihren Cache-Parametern,
+	 *  siehe {@link #cachedMethods(Class, Class)}
+	 * @param monitor der Monitor des Containers, kann null sein
+	 */
+	CachingInterceptor(Object bindKey, Map<Method, Cached> cachedMethods, Monitor monitor) {
+		super();
+		this.bindKey = bindKey;
+		this.monitor = monitor;
+		this.caches = new HashMap<Method, MethodCache>();
+		for (Map.Entry<Method, Cached> entry : cachedMethods.entrySet()) {
+			caches.put(entry.getKey(), new MethodCache(entry.getValue()));
+		}
+	}
+
+	public Object intercept(Invocation invocation) throws Throwable {
+		Method method = invocation.getMethod();
+		MethodCache cache = caches.get(method);
+		if (cache == null) {
+			return invocation.proceed();
+		}
+		Object[] arguments = invocation.getArguments();
+		Object key = (arguments.length == 0) ? NO_ARGS : new ArgumentsKey(arguments);
+		Object value = cache.get(key);
+		boolean monitored = monitor != null && monitor.isEnabled();
+		if (value != MethodCache.MISS) {
+			if (monitored)
+				monitor.onMethodCacheHit(bindKey, method);
+			return value;
+		}
+		long start = monitored ? System.nanoTime() : 0;
+		int evicted = 0;
+		try {
+			value = invocation.proceed();
+			evicted = cache.put(key, value);
+			return value;
+		} finally {
+			// auch mit Exception ein Fehlschlag, gecacht wird dann aber nichts
+			if (monitored) {
+				monitor.onMethodCacheMiss(bindKey, method, System.nanoTime() - start);
+				if (evicted > 0)
+					monitor.onMethodCacheEviction(bindKey, method, evicted);
+			}
+		}
+	}
+
+	/**
+	 * Ermitteln der {@link Cached}-Methoden eines Interfaces; die Annotation
+	 * kann an der Methode des Interfaces oder ihrer Implementierung stehen.
+	 *
+	 * @param type das Interface der Proxys
+	 * @param implClass die Implementierungs-Klasse
+	 * @return je Methode des Interfaces die Cache-Parameter, leer wenn keine
+	 * @throws IllegalArgumentException bei void-Methoden bzw. maxSize kleiner 1
+	 */
+	static Map<Method, Cached> cachedMethods(Class<?> type, Class<?> implClass) {
+		Map<Method, Cached> cached = null;
+		for (Method method : type.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			Cached annotation = method.getAnnotation(Cached.class);
+			if (annotation == null && type.isAssignableFrom(implClass)) {
+				try {
+					annotation = implClass.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(Cached.class);
+				} catch (NoSuchMethodException e) {
+					// nicht moeglich, da implClass das Interface implementiert
+				}
+			}
+			if (annotation == null) {
+				continue;
+			}
+			if (method.getReturnType() == void.class)
+				throw new IllegalArgumentException("@Cached method " + method.getName() + " of " + type.getName() + " returns void");
+			if (annotation.maxSize() < 1)
+				throw new IllegalArgumentException("@Cached method " + method.getName() + " of " + type.getName() + " has maxSize < 1");
+			if (cached == null)
+				cached = new HashMap<Method, Cached>();
+			cached.put(method, annotation);
+		}
+		return (cached != null) ? cached : Collections.<Method, Cached>emptyMap();
+	}
+
+	/**
+	 * @return true, wenn die Klasse (oder eine Oberklasse) {@link Cached}-Methoden hat
+	 */
+	static boolean hasCachedMethods(Class<?> implClass) {
+		for (Method method : implClass.getMethods()) {
+			if (method.isAnnotationPresent(Cached.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Key aus den Argumenten eines Aufrufs, Arrays werden per Inhalt verglichen
+	 */
+	private static final class ArgumentsKey {
+
+		private final Object[] arguments;
+		private final int hash;
+
+		ArgumentsKey(Object[] arguments) {
+			// Kopie, da Interceptoren die Argumente aendern koennen
+			this.arguments = arguments.clone();
+			this.hash = Arrays.deepHashCode(this.arguments);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ArgumentsKey && hash == ((ArgumentsKey) obj).hash
+					&& Arrays.deepEquals(arguments, ((ArgumentsKey) obj).arguments);
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package working_it.witcontainer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * markiert eine Implementierungs-Klasse fuer die automatische Bindung per
+ * {@link ComponentScanner}. Die Klasse wird unter sich selbst als Class-Key
+ * bzw. unter dem angegebenen String-Key als Singleton gebunden.
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Component {
+
+	/**
+	 * optionaler String-Key, ohne Angabe ist die Klasse selbst der Key
+	 * @return der String-Key bzw. leer fuer den Class-Key
+	 */
+	String value() default "";
+}
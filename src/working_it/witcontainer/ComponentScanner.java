@@ -0,0 +1,496 @@
+package working_it.witcontainer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Automatisches Finden der per {@link Component} markierten Klassen in
+ * Jars und Verzeichnissen, ohne die Klassen zu laden.
+ *
+ * Die Wurzeln (Jars bzw. Verzeichnisse) und darin die Class-Dateien werden
+ * parallel per NIO gelesen; von jeder Class-Datei wird nur der Konstanten-Pool
+ * und, falls dieser die Annotation ueberhaupt referenziert, der Kopf und die
+ * Annotationen der Klasse ausgewertet. Interfaces, abstrakte Klassen, Enums
+ * und Annotationen werden ignoriert.
+ *
+ * Mit Index-Datei wird das Ergebnis je Wurzel samt Pruefsumme (CRC32 des Jars
+ * bzw. Namen, Groessen und Zeitstempel der Class-Dateien eines Verzeichnisses)
+ * abgelegt; bei unveraenderter Pruefsumme wird die Wurzel nicht erneut gelesen:
+ *
+ * <pre>
+ * ComponentScanner scanner = new ComponentScanner(new File("components.idx"));
+ * scanner.bind(container, ComponentScanner.classPathRoots(), getClass().getClassLoader());
+ * </pre>
+ *
+ * Gebunden wird per Klassen-Namen (siehe {@link WitContainer#bindClassName(String)}
+ * und {@link BindObject#toClassName(String, ClassLoader)}), d.h. auch beim
+ * Binden wird keine Klasse geladen.
+ *
+ */
+public final class ComponentScanner {
+
+	/** "WITI" */
+	private static final int MAGIC = 0x57495449;
+	private static final int VERSION = 1;
+
+	private static final int CLASS_MAGIC = 0xCAFEBABE;
+	/** interface, abstract, annotation, enum, module */
+	private static final int NOT_INSTANTIABLE = 0x0200 | 0x0400 | 0x2000 | 0x4000 | 0x8000;
+	private static final byte[] DESCRIPTOR =
+			("L" + Component.class.getName().replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+
+	private final File indexFile;
+	private volatile int scannedRoots;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param indexFile Index-Datei oder null, wenn immer gelesen werden soll
+	 */
+	public ComponentScanner(File indexFile) {
+		super();
+		this.indexFile = indexFile;
+	}
+
+	/**
+	 * @return die existierenden Eintraege von java.class.path
+	 */
+	public static List<Path> classPathRoots() {
+		List<Path> roots = new ArrayList<Path>();
+		for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+			if (entry.length() > 0 && Files.exists(Paths.get(entry))) {
+				roots.add(Paths.get(entry));
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Suchen der Komponenten
+	 *
+	 * @param roots Jars bzw. Verzeichnisse, andere Dateien werden uebersprungen
+	 * @return Klassen-Name -&gt; Key (leer fuer Class-Key), je Wurzel nach Namen
+	 *  sortiert; kommt eine Klasse mehrfach vor, gilt die erste Wurzel
+	 * @throws IOException
+	 */
+	public Map<String, String> scan(List<Path> roots) throws IOException {
+		final Map<String, RootIndex> cached = readIndex();
+		final RootIndex[] results = new RootIndex[roots.size()];
+		final List<Path> paths = new ArrayList<Path>(roots.size());
+		for (Path root : roots) {
+			paths.add(root.toAbsolutePath().normalize());
+		}
+		final AtomicInteger scanned = new AtomicInteger();
+		try {
+			IntStream.range(0, paths.size()).parallel().forEach(new IntConsumer() {
+				public void accept(int i) {
+					Path root = paths.get(i);
+					try {
+						long checksum = checksum(root);
+						RootIndex known = cached.get(root.toString());
+						if (known != null && known.checksum == checksum) {
+							results[i] = known;
+						} else {
+							results[i] = new RootIndex(root.toString(), checksum, scanRoot(root));
+							scanned.incrementAndGet();
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		scannedRoots = scanned.get();
+		if (indexFile != null && (scanned.get() > 0 || cached.size() != results.length)) {
+			writeIndex(results);
+		}
+		Map<String, String> components = new LinkedHashMap<String, String>();
+		for (RootIndex result : results) {
+			for (Map.Entry<String, String> entry : result.components.entrySet()) {
+				components.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Suchen und Binden der Komponenten als Singletons
+	 *
+	 * @param container der Container
+	 * @param roots Jars bzw. Verzeichnisse
+	 * @param classLoader ClassLoader zum spaeteren Laden der Klassen
+	 * @return Anzahl der gebundenen Komponenten
+	 * @throws IOException
+	 * @throws DuplicateBindException wenn ein Key bereits gebunden ist
+	 */
+	public int bind(WitContainer container, List<Path> roots, ClassLoader classLoader) throws IOException {
+		Map<String, String> components = scan(roots);
+		for (Map.Entry<String, String> entry : components.entrySet()) {
+			String className = entry.getKey();
+			BindObject bindObject = entry.getValue().length() == 0
+					? container.bindClassName(className) : container.bind(entry.getValue());
+			bindObject.toClassName(className, classLoader);
+		}
+		return components.size();
+	}
+
+	/**
+	 * @return Anzahl der Wurzeln, die beim letzten scan gelesen wurden
+	 *  (die uebrigen kamen aus dem Index)
+	 */
+	public int getScannedRoots() {
+		return scannedRoots;
+	}
+
+	/**
+	 * Lesen aller Class-Dateien einer Wurzel, andere Dateien als Archive
+	 * enthalten keine Komponenten
+	 */
+	private static Map<String, String> scanRoot(Path root) throws IOException {
+		if (Files.isDirectory(root)) {
+			return scanTree(root);
+		}
+		FileSystem jar;
+		try {
+			jar = FileSystems.newFileSystem(root, (ClassLoader) null);
+		} catch (ProviderNotFoundException e) {
+			// weder Verzeichnis noch Archiv, z.B. eine Properties-Datei im Classpath
+			return Collections.emptyMap();
+		}
+		try {
+			return scanTree(jar.getPath("/"));
+		} finally {
+			jar.close();
+		}
+	}
+
+	private static Map<String, String> scanTree(Path dir) throws IOException {
+		List<Path> files;
+		Stream<Path> walk = Files.walk(dir);
+		try {
+			files = walk.filter(new Predicate<Path>() {
+				public boolean test(Path p) {
+					return p.toString().endsWith(".class") && Files.isRegularFile(p);
+				}
+			}).collect(Collectors.toList());
+		} finally {
+			walk.close();
+		}
+		List<String[]> found = files.parallelStream().map(new Function<Path, String[]>() {
+			public String[] apply(Path p) {
+				try {
+					return parse(Files.readAllBytes(p));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}).collect(Collectors.toList());
+		Map<String, String> components = new TreeMap<String, String>();
+		for (String[] component : found) {
+			if (component != null)
+				components.put(component[0], component[1]);
+		}
+		return components;
+	}
+
+	/**
+	 * Auswerten einer Class-Datei
+	 *
+	 * @param b Inhalt der Class-Datei
+	 * @return Klassen-Name und Key bzw. null, wenn die Klasse keine Komponente ist
+	 */
+	static String[] parse(byte[] b) {
+		ByteBuffer in = ByteBuffer.wrap(b);
+		if (b.length < 10 || in.getInt() != CLASS_MAGIC) {
+			return null;
+		}
+		in.getInt(); // Version
+		int count = in.getShort() & 0xffff;
+		int[] offsets = new int[count];
+		boolean referenced = false;
+		for (int i = 1; i < count; i++) {
+			byte tag = in.get();
+			offsets[i] = in.position();
+			switch (tag) {
+			case 1:
+				int length = in.getShort() & 0xffff;
+				referenced |= equals(b, in.position(), length, DESCRIPTOR);
+				skip(in, length);
+				break;
+			case 7: case 8: case 16: case 19: case 20:
+				skip(in, 2);
+				break;
+			case 15:
+				skip(in, 3);
+				break;
+			case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+				skip(in, 4);
+				break;
+			case 5: case 6:
+				skip(in, 8);
+				i++;
+				break;
+			default:
+				return null;
+			}
+		}
+		if (!referenced) {
+			return null;
+		}
+		int access = in.getShort() & 0xffff;
+		if ((access & NOT_INSTANTIABLE) != 0) {
+			return null;
+		}
+		int thisClass = in.getShort() & 0xffff;
+		in.getShort(); // Oberklasse
+		skip(in, 2 * (in.getShort() & 0xffff));
+		skipMembers(in);
+		skipMembers(in);
+		int attributes = in.getShort() & 0xffff;
+		for (int a = 0; a < attributes; a++) {
+			String name = utf8(b, offsets, in.getShort() & 0xffff);
+			int end = in.getInt() + in.position();
+			if (name.equals("RuntimeVisibleAnnotations")) {
+				int annotations = in.getShort() & 0xffff;
+				for (int n = 0; n < annotations; n++) {
+					int type = in.getShort() & 0xffff;
+					int offset = offsets[type];
+					if (equals(b, offset + 2, b[offset] << 8 & 0xff00 | b[offset + 1] & 0xff, DESCRIPTOR)) {
+						String className = utf8(b, offsets, in.getShort(offsets[thisClass]) & 0xffff).replace('/', '.');
+						return new String[] {className, componentKey(in, b, offsets)};
+					}
+					skipAnnotationValues(in);
+				}
+			}
+			in.position(end);
+		}
+		return null;
+	}
+
+	/**
+	 * liefert den Wert des Elements value der Component-Annotation
+	 */
+	private static String componentKey(ByteBuffer in, byte[] b, int[] offsets) {
+		String key = "";
+		int pairs = in.getShort() & 0xffff;
+		for (int p = 0; p < pairs; p++) {
+			String name = utf8(b, offsets, in.getShort() & 0xffff);
+			if (name.equals("value") && in.get(in.position()) == 's') {
+				in.get();
+				key = utf8(b, offsets, in.getShort() & 0xffff);
+			} else {
+				skipElementValue(in);
+			}
+		}
+		return key;
+	}
+
+	private static void skipAnnotationValues(ByteBuffer in) {
+		int pairs = in.getShort() & 0xffff;
+		for (int p = 0; p < pairs; p++) {
+			in.getShort();
+			skipElementValue(in);
+		}
+	}
+
+	private static void skipElementValue(ByteBuffer in) {
+		byte tag = in.get();
+		switch (tag) {
+		case 'e':
+			skip(in, 4);
+			break;
+		case '@':
+			in.getShort();
+			skipAnnotationValues(in);
+			break;
+		case '[':
+			int values = in.getShort() & 0xffff;
+			for (int v = 0; v < values; v++) {
+				skipElementValue(in);
+			}
+			break;
+		default:
+			skip(in, 2);
+		}
+	}
+
+	/**
+	 * Ueberspringen der Felder bzw. Methoden samt Attributen
+	 */
+	private static void skipMembers(ByteBuffer in) {
+		int members = in.getShort() & 0xffff;
+		for (int m = 0; m < members; m++) {
+			skip(in, 6);
+			int attributes = in.getShort() & 0xffff;
+			for (int a = 0; a < attributes; a++) {
+				in.getShort();
+				skip(in, in.getInt());
+			}
+		}
+	}
+
+	private static void skip(ByteBuffer in, int bytes) {
+		in.position(in.position() + bytes);
+	}
+
+	private static String utf8(byte[] b, int[] offsets, int index) {
+		int offset = offsets[index];
+		int length = b[offset] << 8 & 0xff00 | b[offset + 1] & 0xff;
+		return new String(b, offset + 2, length, StandardCharsets.UTF_8);
+	}
+
+	private static boolean equals(byte[] b, int offset, int length, byte[] expected) {
+		if (length != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (b[offset + i] != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pruefsumme einer Wurzel: CRC32 des Jars bzw. der Namen, Groessen und
+	 * Zeitstempel der Class-Dateien eines Verzeichnisses
+	 */
+	private static long checksum(Path root) throws IOException {
+		CRC32 crc = new CRC32();
+		if (Files.isDirectory(root)) {
+			List<Path> files;
+			Stream<Path> walk = Files.walk(root);
+			try {
+				files = walk.filter(new Predicate<Path>() {
+					public boolean test(Path p) {
+						return p.toString().endsWith(".class");
+					}
+				}).sorted().collect(Collectors.toList());
+			} finally {
+				walk.close();
+			}
+			ByteBuffer attributes = ByteBuffer.allocate(16);
+			for (Path file : files) {
+				crc.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+				attributes.clear();
+				attributes.putLong(Files.size(file)).putLong(Files.getLastModifiedTime(file).toMillis());
+				crc.update(attributes.array());
+			}
+		} else {
+			FileChannel channel = FileChannel.open(root, StandardOpenOption.READ);
+			try {
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			} finally {
+				channel.close();
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Einlesen des Index, bei fehlender oder fehlerhafter Datei leer
+	 */
+	private Map<String, RootIndex> readIndex() {
+		Map<String, RootIndex> index = new HashMap<String, RootIndex>();
+		if (indexFile == null || !indexFile.isFile()) {
+			return index;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			try {
+				if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+					return index;
+				}
+				int roots = in.readInt();
+				for (int r = 0; r < roots; r++) {
+					String path = in.readUTF();
+					long checksum = in.readLong();
+					int count = in.readInt();
+					Map<String, String> components = new LinkedHashMap<String, String>();
+					for (int c = 0; c < count; c++) {
+						String className = in.readUTF();
+						components.put(className, in.readUTF());
+					}
+					index.put(path, new RootIndex(path, checksum, components));
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return new HashMap<String, RootIndex>();
+		}
+		return index;
+	}
+
+	private void writeIndex(RootIndex[] roots) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(roots.length);
+			for (RootIndex root : roots) {
+				out.writeUTF(root.path);
+				out.writeLong(root.checksum);
+				out.writeInt(root.components.size());
+				for (Map.Entry<String, String> entry : root.components.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeUTF(entry.getValue());
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Komponenten einer Wurzel samt Pruefsumme
+	 */
+	private static final class RootIndex {
+
+		final String path;
+		final long checksum;
+		final Map<String, String> components;
+
+		RootIndex(String path, long checksum, Map<String, String> components) {
+			this.path = path;
+			this.checksum = checksum;
+			this.components = Collections.unmodifiableMap(components);
+		}
+	}
+
+}
@@ -0,0 +1,14 @@
+package working_it.witcontainer;
+
+/**
+ * Wird geworfen, wenn nach {@link WitContainer#freeze()} noch gebunden wird.
+ *
+ */
+@SuppressWarnings("serial")
+public class ContainerFrozenException extends RuntimeException {
+
+	public ContainerFrozenException(Object key) {
+		super("Container is frozen, bind not allowed for key="+key);
+	}
+
+}
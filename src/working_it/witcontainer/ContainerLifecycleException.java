@@ -0,0 +1,32 @@
+package working_it.witcontainer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Sammel-Exception fuer Fehler beim Starten bzw. Beenden aller Instanzen
+ * eines Containers. Die einzelnen Fehler sind je Key abrufbar und zusaetzlich
+ * als suppressed Exceptions angehaengt.
+ *
+ */
+@SuppressWarnings("serial")
+public class ContainerLifecycleException extends RuntimeException {
+
+	private final Map<Object, Throwable> failures;
+
+	public ContainerLifecycleException(String message, Map<Object, Throwable> failures) {
+		super(message+": "+failures.size()+" failure(s) for keys "+failures.keySet());
+		this.failures = Collections.unmodifiableMap(failures);
+		for (Throwable failure : failures.values()) {
+			addSuppressed(failure);
+		}
+	}
+
+	/**
+	 * @return die Fehler je Key
+	 */
+	public Map<Object, Throwable> getFailures() {
+		return failures;
+	}
+
+}
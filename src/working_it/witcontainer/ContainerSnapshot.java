@@ -0,0 +1,288 @@
+package working_it.witcontainer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot des aufgeloesten Container-Layouts fuer einen schnellen Start.
+ *
+ * Beim Build bzw. ersten Start wird per {@link #record(WitContainer)} die
+ * Erzeugungs-Reihenfolge der Singletons aufgezeichnet und nach dem Start per
+ * {@link #write(WitContainer, File)} zusammen mit einem Fingerabdruck der
+ * Bindungen und Injection-Plaene in eine kompakte Binaer-Datei geschrieben.
+ *
+ * Spaetere Starts binden wie gewohnt und rufen dann
+ * {@link #restore(WitContainer, File)} auf: passt der Snapshot zu den
+ * aktuellen Bindungen und Klassen, werden die Keys ohne Pruefung verknuepft,
+ * der Container eingefroren und die Singletons in der aufgezeichneten
+ * Reihenfolge erzeugt, d.h. jede Instanz findet ihre Abhaengigkeiten bereits vor.
+ * Passt er nicht (oder fehlt die Datei), wird nichts veraendert und false
+ * geliefert, der Aufrufer faellt dann auf {@link WitContainer#build()} zurueck:
+ *
+ * <pre>
+ * if (!ContainerSnapshot.restore(container, file)) {
+ *     ContainerSnapshot.record(container);
+ *     container.build();
+ *     container.startAll(executor);
+ *     ContainerSnapshot.write(container, file);
+ * }
+ * </pre>
+ *
+ * Fuer CDS/AppCDS schreibt {@link #writeClassList(WitContainer, File)} die
+ * Implementierungs-Klassen und generierten Injectoren in Erzeugungs-Reihenfolge
+ * im Format von -XX:SharedClassListFile.
+ *
+ * Es werden nur Bindungen mit String- oder Class-Key aufgezeichnet,
+ * alle anderen werden wie bisher beim ersten getInstance erzeugt.
+ *
+ */
+public final class ContainerSnapshot {
+
+	/** "WITS" */
+	private static final int MAGIC = 0x57495453;
+	private static final int VERSION = 1;
+
+	private static final byte STRING_KEY = 0;
+	private static final byte CLASS_KEY = 1;
+
+	private ContainerSnapshot() {
+		super();
+	}
+
+	/**
+	 * Beginn der Aufzeichnung der Erzeugungs-Reihenfolge, muss vor dem
+	 * ersten getInstance bzw. startAll aufgerufen werden
+	 *
+	 * @param container der Container
+	 */
+	public static void record(WitContainer container) {
+		container.recordCreations();
+	}
+
+	/**
+	 * Schreiben des Snapshots
+	 *
+	 * @param container der Container, dessen Erzeugung aufgezeichnet wurde
+	 * @param file Ziel-Datei
+	 * @throws IOException
+	 */
+	public static void write(WitContainer container, File file) throws IOException {
+		List<BindObject> order = recordable(container);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(layoutHash(container));
+			out.writeInt(order.size());
+			for (BindObject bindObject : order) {
+				Object key = bindObject.getKey();
+				if (key instanceof Class) {
+					out.writeByte(CLASS_KEY);
+					out.writeUTF(((Class<?>) key).getName());
+				} else {
+					out.writeByte(STRING_KEY);
+					out.writeUTF((String) key);
+				}
+				out.writeUTF(bindObject.getImplClass().getName());
+				out.writeInt(planHash(InjectionPlan.forClass(bindObject.getImplClass())));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Schreiben der Klassen-Liste fuer CDS/AppCDS (-XX:SharedClassListFile)
+	 *
+	 * @param container der Container, dessen Erzeugung aufgezeichnet wurde
+	 * @param file Ziel-Datei
+	 * @throws IOException
+	 */
+	public static void writeClassList(WitContainer container, File file) throws IOException {
+		Set<String> names = new LinkedHashSet<String>();
+		for (BindObject bindObject : recordable(container)) {
+			InjectionPlan plan = InjectionPlan.forClass(bindObject.getImplClass());
+			names.add(plan.getImplClass().getName().replace('.', '/'));
+			if (plan.getGeneratedInjector() != null)
+				names.add(plan.getGeneratedInjector().getClass().getName().replace('.', '/'));
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			for (String name : names) {
+				writer.write(name);
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Wiederherstellen des Containers aus dem Snapshot: Verknuepfen der Keys,
+	 * Einfrieren und Erzeugen der Singletons in aufgezeichneter Reihenfolge.
+	 * Es muessen bereits alle Bindungen erfolgt sein.
+	 *
+	 * @param container der Container
+	 * @param file Snapshot-Datei
+	 * @return true, wenn der Snapshot verwendet wurde; false, wenn er fehlt,
+	 *  nicht zu den aktuellen Bindungen bzw. Klassen passt oder die Bindungen
+	 *  nicht vollstaendig sind (siehe {@link WitContainer#validate()}), der
+	 *  Container ist dann unveraendert
+	 * @throws ServiceCreationException wenn die Erzeugung einer Instanz fehlschlaegt
+	 */
+	public static boolean restore(WitContainer container, File file) {
+		List<BindObject> order = read(container, file);
+		if (order == null) {
+			return false;
+		}
+		synchronized (container) {
+			if (!container.isFrozen()) {
+				// erst alle Bindungen pruefen und verknuepfen, dann setzen: bei
+				// Fehlern bleibt der Container unveraendert
+				Map<BindObject, BindObject[][]> links = new HashMap<BindObject, BindObject[][]>();
+				try {
+					container.validate();
+					for (BindObject bindObject : container.getBindObjects()) {
+						links.put(bindObject, bindObject.findLinks());
+					}
+				} catch (ContainerValidationException e) {
+					return false;
+				} catch (ServiceCreationException e) {
+					return false;
+				}
+				for (Map.Entry<BindObject, BindObject[][]> entry : links.entrySet()) {
+					entry.getKey().link(entry.getValue());
+				}
+				container.freeze();
+			}
+		}
+		// Vorab Plaene und Invoker laden, die Klassen kommen ggf. aus dem CDS-Archiv
+		InvokerFactory invokerFactory = container.getInvokerFactory();
+		for (BindObject bindObject : order) {
+			invokerFactory.getInvoker(bindObject.getImplClass());
+		}
+		for (BindObject bindObject : order) {
+			bindObject.ensureCreated();
+		}
+		return true;
+	}
+
+	/**
+	 * Einlesen und Pruefen des Snapshots
+	 *
+	 * @return die Bindungen in Erzeugungs-Reihenfolge oder null, wenn der
+	 *  Snapshot nicht verwendet werden kann
+	 */
+	private static List<BindObject> read(WitContainer container, File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readInt() != layoutHash(container)) {
+					return null;
+				}
+				Map<String, BindObject> byKey = new HashMap<String, BindObject>();
+				for (BindObject bindObject : container.getBindObjects()) {
+					byKey.put(describe(bindObject.getKey()), bindObject);
+				}
+				int count = in.readInt();
+				List<BindObject> order = new ArrayList<BindObject>(count);
+				for (int i = 0; i < count; i++) {
+					byte keyType = in.readByte();
+					String keyName = in.readUTF();
+					String implName = in.readUTF();
+					int planHash = in.readInt();
+					BindObject bindObject = byKey.get(keyType == CLASS_KEY ? "class " + keyName : keyName);
+					if (bindObject == null || !implName.equals(bindObject.getImplClassName())
+							|| planHash(InjectionPlan.forClass(bindObject.getImplClass())) != planHash) {
+						return null;
+					}
+					order.add(bindObject);
+				}
+				return order;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// z.B. fehlerhafter Injection-Plan nach Aenderung der Klasse
+			return null;
+		}
+	}
+
+	/**
+	 * @return die aufgezeichneten Bindungen, die im Snapshot abgelegt werden koennen
+	 */
+	private static List<BindObject> recordable(WitContainer container) {
+		Set<BindObject> result = new LinkedHashSet<BindObject>();
+		for (BindObject bindObject : container.getCreationOrder()) {
+			Object key = bindObject.getKey();
+			if ((key instanceof String || key instanceof Class) && bindObject.getImplClass() != null) {
+				result.add(bindObject);
+			}
+		}
+		return new ArrayList<BindObject>(result);
+	}
+
+	/**
+	 * Fingerabdruck aller eigenen Bindungen, unabhaengig von deren Reihenfolge
+	 */
+	private static int layoutHash(WitContainer container) {
+		int hash = container.getBindObjects().size();
+		for (BindObject bindObject : container.getBindObjects()) {
+			int h = describe(bindObject.getKey()).hashCode();
+			String implName = bindObject.getImplClassName();
+			h = 31 * h + (implName != null ? implName.hashCode() : 0);
+			h = 31 * h + (bindObject.getProviderKey() != null ? describe(bindObject.getProviderKey()).hashCode() : 0);
+			hash += h;
+		}
+		return hash;
+	}
+
+	/**
+	 * Fingerabdruck eines Injection-Plans, unabhaengig von der Reihenfolge
+	 * der Setter und Felder
+	 */
+	private static int planHash(InjectionPlan plan) {
+		int hash = plan.getImplClass().getName().hashCode();
+		InjectionPoint[] arguments = plan.getArguments();
+		for (int i = 0; i < arguments.length; i++) {
+			hash = 31 * hash + pointHash(arguments[i]);
+		}
+		int points = 0;
+		for (InjectionPoint point : plan.getPoints()) {
+			points += pointHash(point);
+		}
+		return 31 * hash + points;
+	}
+
+	private static int pointHash(InjectionPoint point) {
+		int hash = 31 * describe(point.getKey()).hashCode() + (point.isOptional() ? 1 : 0);
+		return 31 * hash + (point.isLazy() ? point.getLazyType().getName().hashCode() : 0);
+	}
+
+	/**
+	 * ueber JVM-Starts stabile Beschreibung eines Keys
+	 */
+	private static String describe(Object key) {
+		return (key instanceof Class) ? "class " + ((Class<?>) key).getName() : String.valueOf(key);
+	}
+
+}
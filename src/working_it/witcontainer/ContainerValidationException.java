@@ -0,0 +1,41 @@
+package working_it.witcontainer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sammel-Exception fuer alle Verdrahtungs-Fehler, die bei
+ * {@link WitContainer#validate()} bzw. {@link WitContainer#build()}
+ * gefunden wurden. Die Fehler sind je Key abrufbar.
+ *
+ */
+@SuppressWarnings("serial")
+public class ContainerValidationException extends RuntimeException {
+
+	private final Map<Object, List<String>> problems;
+
+	public ContainerValidationException(Map<Object, List<String>> problems) {
+		super(format(problems));
+		this.problems = Collections.unmodifiableMap(problems);
+	}
+
+	private static String format(Map<Object, List<String>> problems) {
+		StringBuilder sb = new StringBuilder("Container validation failed for ")
+				.append(problems.size()).append(" key(s):");
+		for (Map.Entry<Object, List<String>> entry : problems.entrySet()) {
+			for (String problem : entry.getValue()) {
+				sb.append("\n  key=").append(entry.getKey()).append(": ").append(problem);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return die Fehler je Key
+	 */
+	public Map<Object, List<String>> getProblems() {
+		return problems;
+	}
+
+}
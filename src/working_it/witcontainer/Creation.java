@@ -0,0 +1,162 @@
+package working_it.witcontainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle einer laufenden Singleton-Erzeugung.
+ *
+ * Der erste Thread, der ein noch nicht erzeugtes Singleton anfordert,
+ * installiert per CAS ein Creation-Objekt und erzeugt die Instance.
+ * Alle weiteren Threads warten auf dieses Handle, anstatt einen Lock
+ * anzufordern: sie werden per LockSupport geparkt (kein Pinning
+ * virtueller Threads) und erhalten am Ende dieselbe Instance bzw. denselben Fehler.
+ *
+ * Warten zwei Erzeugungen zyklisch aufeinander (Thread 1 erzeugt A und
+ * benoetigt B, Thread 2 erzeugt B und benoetigt A), wird dies erkannt und
+ * wie ein Zyklus im selben Thread behandelt: die noch nicht fertig
+ * injectete Instance wird geliefert. Ist keine der Instanzen im Zyklus bereits
+ * konstruiert (Zyklus ueber Konstruktor-Argumente), wird wie im selben Thread
+ * eine {@link DependencyCycleException} geworfen.
+ *
+ */
+final class Creation extends CompletableFuture<Object> {
+
+	/** worauf wartet welcher Thread, fuer die Zyklus-Erkennung */
+	private static final Map<Thread, Creation> WAITING = new ConcurrentHashMap<Thread, Creation>();
+
+	private static final long MIN_WAIT_MILLIS = 10;
+	private static final long MAX_WAIT_MILLIS = 1000;
+
+	/** erzeugender Thread */
+	private final Thread owner;
+
+	/** Key der Bindung */
+	private final Object key;
+
+	/** bereits konstruierte, aber noch nicht fertig injectete Instance */
+	private volatile Object partial;
+
+	Creation(Thread owner, Object key) {
+		super();
+		this.owner = owner;
+		this.key = key;
+	}
+
+	Thread getOwner() {
+		return owner;
+	}
+
+	Object getPartial() {
+		return partial;
+	}
+
+	void setPartial(Object partial) {
+		this.partial = partial;
+	}
+
+	/**
+	 * Warten auf das Ende der Erzeugung
+	 *
+	 * @param key Key der Bindung (fuer Fehlermeldungen)
+	 * @return die erzeugte Instance, bei zyklischem Warten die noch nicht fertige Instance
+	 * @throws DependencyCycleException bei zyklischem Warten ueber Konstruktor-Argumente
+	 * @throws ServiceCreationException wenn die Erzeugung fehlschlug
+	 */
+	Object await(Object key) {
+		Thread current = Thread.currentThread();
+		WAITING.put(current, this);
+		try {
+			long wait = MIN_WAIT_MILLIS;
+			for (;;) {
+				List<Creation> cycle = cycle(current);
+				if (cycle != null) {
+					Object p = partial;
+					if (p != null) {
+						return p;
+					}
+					if (!hasPartial(cycle)) {
+						// keine Instance im Zyklus ist konstruiert, kein Thread kann weiter
+						throw new DependencyCycleException(path(cycle));
+					}
+					// sonst loest der Thread, der auf die konstruierte Instance wartet, den Zyklus auf
+				}
+				try {
+					return get(wait, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// erneut auf zyklisches Warten pruefen
+					wait = Math.min(wait * 2, MAX_WAIT_MILLIS);
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			if (cause instanceof DependencyCycleException) {
+				throw (DependencyCycleException) cause;
+			}
+			throw new ServiceCreationException(key, (Exception) cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceCreationException(key, e);
+		} finally {
+			WAITING.remove(current);
+		}
+	}
+
+	/**
+	 * Ermitteln der Kette, ueber die der erzeugende Thread (transitiv) auf den
+	 * angegebenen Thread wartet. Bereits beendete Erzeugungen in der Kette
+	 * (veraltete Eintraege) zaehlen nicht.
+	 *
+	 * @return die Erzeugungen beginnend mit dieser, die letzte gehoert dem
+	 *  angegebenen Thread; null, wenn kein zyklisches Warten vorliegt
+	 */
+	private List<Creation> cycle(Thread thread) {
+		List<Creation> chain = null;
+		Creation c = this;
+		for (int depth = 0; c != null && depth < 1000; depth++) {
+			if (c.isDone()) {
+				return null;
+			}
+			if (chain == null)
+				chain = new ArrayList<Creation>();
+			chain.add(c);
+			if (c.owner == thread) {
+				return chain;
+			}
+			c = WAITING.get(c.owner);
+		}
+		return null;
+	}
+
+	private static boolean hasPartial(List<Creation> cycle) {
+		for (Creation c : cycle) {
+			if (c.partial != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return die Keys des Zyklus: die Erzeugung des wartenden Threads benoetigt
+	 *  diese Erzeugung, deren Thread die naechste usw.
+	 */
+	private static List<Object> path(List<Creation> cycle) {
+		List<Object> path = new ArrayList<Object>(cycle.size() + 1);
+		path.add(cycle.get(cycle.size() - 1).key);
+		for (Creation c : cycle) {
+			path.add(c.key);
+		}
+		return path;
+	}
+
+}
@@ -0,0 +1,39 @@
+package working_it.witcontainer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception bei einem Zyklus, der nicht aufgeloest werden kann: eine Instance
+ * wird fuer ihre eigene Erzeugung benoetigt (Zyklus ueber Konstruktor-Argumente
+ * bzw. ueber Bindungen, die keine Singletons sind).
+ *
+ */
+@SuppressWarnings("serial")
+public class DependencyCycleException extends ServiceCreationException {
+
+	private final List<Object> path;
+
+	public DependencyCycleException(List<Object> path) {
+		super(path.get(0), "dependency cycle " + format(path));
+		this.path = Collections.unmodifiableList(path);
+	}
+
+	/**
+	 * @return die Keys des Zyklus, der erste und letzte Key sind gleich
+	 */
+	public List<Object> getPath() {
+		return path;
+	}
+
+	private static String format(List<Object> path) {
+		StringBuilder sb = new StringBuilder();
+		for (Object key : path) {
+			if (sb.length() > 0)
+				sb.append(" -> ");
+			sb.append(key);
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,170 @@
+package working_it.witcontainer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abhaengigkeits-Graph der BindObjects eines Containers,
+ * ermittelt aus den Injection-Plaenen und Provider-Keys.
+ *
+ * Die Knoten werden in stark zusammenhaengende Komponenten (Zyklen) zerlegt,
+ * die in Abhaengigkeits-Reihenfolge geliefert werden, d.h. eine Komponente
+ * steht immer hinter allen Komponenten, von denen sie abhaengt.
+ *
+ */
+final class DependencyGraph {
+
+	private final BindObject[] nodes;
+	/** je Knoten die Indizes der Knoten, von denen er abhaengt */
+	private final int[][] dependencies;
+	/** Komponenten in Abhaengigkeits-Reihenfolge */
+	private final int[][] components;
+	/** je Knoten der Index seiner Komponente */
+	private final int[] componentOf;
+
+	/**
+	 * Aufbau des Graphen
+	 *
+	 * @param bindObjects Knoten des Graphen
+	 * @param container Container zum Aufloesen der Keys
+	 */
+	DependencyGraph(Collection<BindObject> bindObjects, WitContainer container) {
+		nodes = bindObjects.toArray(new BindObject[bindObjects.size()]);
+		Map<BindObject, Integer> index = new IdentityHashMap<BindObject, Integer>(nodes.length * 2);
+		for (int i = 0; i < nodes.length; i++) {
+			index.put(nodes[i], i);
+		}
+		dependencies = new int[nodes.length][];
+		for (int i = 0; i < nodes.length; i++) {
+			List<Integer> deps = new ArrayList<Integer>();
+			Object[] keys;
+			try {
+				keys = nodes[i].getDependencyKeys();
+			} catch (RuntimeException e) {
+				// fehlerhafter Injection-Plan, wird bei der Erzeugung gemeldet
+				keys = new Object[0];
+			}
+			for (Object key : keys) {
+				Integer dep = index.get(container.findBindObject(key));
+				if (dep != null && !deps.contains(dep)) {
+					deps.add(dep);
+				}
+			}
+			dependencies[i] = new int[deps.size()];
+			for (int d = 0; d < deps.size(); d++) {
+				dependencies[i][d] = deps.get(d);
+			}
+		}
+		componentOf = new int[nodes.length];
+		components = tarjan();
+	}
+
+	/**
+	 * @return Anzahl der Knoten
+	 */
+	int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param node Index des Knotens
+	 * @return das BindObject des Knotens
+	 */
+	BindObject getNode(int node) {
+		return nodes[node];
+	}
+
+	/**
+	 * @param node Index des Knotens
+	 * @return Indizes der Knoten, von denen der Knoten abhaengt
+	 */
+	int[] getDependencies(int node) {
+		return dependencies[node];
+	}
+
+	/**
+	 * @return Komponenten (Knoten-Indizes) in Abhaengigkeits-Reihenfolge
+	 */
+	int[][] getComponents() {
+		return components;
+	}
+
+	/**
+	 * @param node Index des Knotens
+	 * @return Index der Komponente des Knotens
+	 */
+	int getComponentOf(int node) {
+		return componentOf[node];
+	}
+
+	/**
+	 * Zerlegung in stark zusammenhaengende Komponenten nach Tarjan,
+	 * iterativ, damit auch sehr tiefe Graphen keinen StackOverflow erzeugen.
+	 * Tarjan liefert die Komponenten bereits in Abhaengigkeits-Reihenfolge.
+	 */
+	private int[][] tarjan() {
+		int n = nodes.length;
+		int[] lowLink = new int[n];
+		int[] order = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] stack = new int[n];
+		int stackSize = 0;
+		int[] callNode = new int[n];
+		int[] callEdge = new int[n];
+		int counter = 0;
+		List<int[]> result = new ArrayList<int[]>();
+
+		for (int root = 0; root < n; root++) {
+			if (order[root] != 0) {
+				continue;
+			}
+			int depth = 0;
+			callNode[0] = root;
+			callEdge[0] = 0;
+			order[root] = lowLink[root] = ++counter;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth >= 0) {
+				int v = callNode[depth];
+				if (callEdge[depth] < dependencies[v].length) {
+					int w = dependencies[v][callEdge[depth]++];
+					if (order[w] == 0) {
+						order[w] = lowLink[w] = ++counter;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						depth++;
+						callNode[depth] = w;
+						callEdge[depth] = 0;
+					} else if (onStack[w]) {
+						lowLink[v] = Math.min(lowLink[v], order[w]);
+					}
+					continue;
+				}
+				if (lowLink[v] == order[v]) {
+					int start = stackSize;
+					do {
+						start--;
+					} while (stack[start] != v);
+					int[] component = new int[stackSize - start];
+					for (int i = start; i < stackSize; i++) {
+						component[i - start] = stack[i];
+						onStack[stack[i]] = false;
+						componentOf[stack[i]] = result.size();
+					}
+					stackSize = start;
+					result.add(component);
+				}
+				depth--;
+				if (depth >= 0) {
+					int parent = callNode[depth];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+				}
+			}
+		}
+		return result.toArray(new int[result.size()][]);
+	}
+
+}
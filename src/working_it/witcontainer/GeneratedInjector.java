@@ -0,0 +1,90 @@
+package working_it.witcontainer;
+
+/**
+ * Basisklasse der vom {@link working_it.witcontainer.processor.InjectProcessor}
+ * zur Compile-Zeit generierten Injectoren.
+ *
+ * Ein generierter Injector liefert den Injection-Plan seiner Klasse
+ * (Keys und Optional-Flags) und erzeugt Instanzen bzw. ruft die Setter auf
+ * und setzt die Felder per direktem Zugriff, so dass zur Laufzeit keine
+ * Reflection noetig ist.
+ * Generierte Injectoren haben den Namen der Klasse mit Suffix {@link #SUFFIX}.
+ *
+ */
+public abstract class GeneratedInjector implements Invoker {
+
+	/** Namens-Suffix der generierten Injectoren */
+	public static final String SUFFIX = "$$WitInjector";
+
+	/** Resource, in der die Klassen mit generiertem Injector aufgelistet sind */
+	public static final String INDEX_RESOURCE = "META-INF/wit-container/injectors";
+
+	private static final Object[] NO_KEYS = new Object[0];
+	private static final boolean[] NO_FLAGS = new boolean[0];
+
+	private final InjectionPoint[] arguments;
+	private final InjectionPoint[] points;
+
+	/**
+	 * Konstruktor fuer Klassen mit Default-Konstruktor
+	 *
+	 * @param keys Such-Keys der Injektionsstellen
+	 * @param optional Optional-Flags der Injektionsstellen
+	 */
+	protected GeneratedInjector(Object[] keys, boolean[] optional) {
+		this(NO_KEYS, NO_FLAGS, keys, optional);
+	}
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param argumentKeys Such-Keys der Konstruktor-Argumente
+	 * @param argumentOptional Optional-Flags der Konstruktor-Argumente
+	 * @param keys Such-Keys der Injektionsstellen
+	 * @param optional Optional-Flags der Injektionsstellen
+	 */
+	protected GeneratedInjector(Object[] argumentKeys, boolean[] argumentOptional, Object[] keys, boolean[] optional) {
+		this(argumentKeys, argumentOptional, new Class<?>[argumentKeys.length], keys, optional, new Class<?>[keys.length]);
+	}
+
+	/**
+	 * Konstruktor fuer Klassen mit verzoegerten Injektionsstellen
+	 *
+	 * @param argumentKeys Such-Keys der Konstruktor-Argumente
+	 * @param argumentOptional Optional-Flags der Konstruktor-Argumente
+	 * @param argumentLazy Lazy-Typen der Konstruktor-Argumente (null-Elemente fuer direkte Injection)
+	 * @param keys Such-Keys der Injektionsstellen
+	 * @param optional Optional-Flags der Injektionsstellen
+	 * @param lazy Lazy-Typen der Injektionsstellen (null-Elemente fuer direkte Injection)
+	 * @see InjectionPoint#getLazyType()
+	 */
+	protected GeneratedInjector(Object[] argumentKeys, boolean[] argumentOptional, Class<?>[] argumentLazy,
+			Object[] keys, boolean[] optional, Class<?>[] lazy) {
+		super();
+		arguments = toPoints(argumentKeys, argumentOptional, argumentLazy);
+		points = toPoints(keys, optional, lazy);
+	}
+
+	private static InjectionPoint[] toPoints(Object[] keys, boolean[] optional, Class<?>[] lazy) {
+		InjectionPoint[] result = new InjectionPoint[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			result[i] = new InjectionPoint(null, keys[i], optional[i], lazy[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return die Konstruktor-Argumente, Index entsprechend {@link #newInstance(Object[])}
+	 */
+	public InjectionPoint[] getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * @return die Injektionsstellen, Index entsprechend {@link #inject(Object, int, Object)}
+	 */
+	public InjectionPoint[] getPoints() {
+		return points;
+	}
+
+}
@@ -0,0 +1,93 @@
+package working_it.witcontainer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Auffinden der zur Compile-Zeit generierten Injectoren.
+ *
+ * Je ClassLoader wird einmalig der Index {@link GeneratedInjector#INDEX_RESOURCE}
+ * gelesen; nur fuer dort aufgefuehrte Klassen wird der Injector geladen.
+ * Fuer alle anderen Klassen wird null geliefert (Rueckfall auf Reflection).
+ *
+ */
+final class GeneratedInjectors {
+
+	/** Index je ClassLoader (Namen der Klassen mit generiertem Injector) */
+	private static final Map<ClassLoader, Set<String>> INDICES =
+			Collections.synchronizedMap(new WeakHashMap<ClassLoader, Set<String>>());
+
+	private GeneratedInjectors() {
+	}
+
+	/**
+	 * liefert den generierten Injector zur Klasse
+	 *
+	 * @param type Implementierungs-Klasse
+	 * @return Injector oder null, wenn keiner generiert wurde
+	 */
+	static GeneratedInjector find(Class<?> type) {
+		ClassLoader loader = type.getClassLoader();
+		if (loader == null || !index(loader).contains(type.getName())) {
+			return null;
+		}
+		try {
+			Class<?> injectorClass = Class.forName(type.getName() + GeneratedInjector.SUFFIX, true, loader);
+			return (GeneratedInjector) injectorClass.getConstructor().newInstance();
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			// z.B. veralteter Injector zu geaenderter Klasse
+			return null;
+		}
+	}
+
+	private static Set<String> index(ClassLoader loader) {
+		Set<String> index = INDICES.get(loader);
+		if (index == null) {
+			index = readIndex(loader, GeneratedInjector.INDEX_RESOURCE);
+			INDICES.put(loader, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Lesen eines Index generierter Klassen (ein Klassen-Name je Zeile)
+	 *
+	 * @param loader der ClassLoader
+	 * @param resource Name der Resource
+	 * @return die Namen aus allen gefundenen Resourcen
+	 */
+	static Set<String> readIndex(ClassLoader loader, String resource) {
+		Set<String> index = new HashSet<String>();
+		try {
+			Enumeration<URL> resources = loader.getResources(resource);
+			while (resources.hasMoreElements()) {
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(resources.nextElement().openStream(), "UTF-8"));
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (line.length() > 0 && !line.startsWith("#"))
+							index.add(line);
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} catch (IOException e) {
+			// ohne Index wird auf Reflection zurueckgegriffen
+		}
+		return index;
+	}
+
+}
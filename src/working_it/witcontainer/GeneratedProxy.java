@@ -0,0 +1,123 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Basisklasse der vom {@link working_it.witcontainer.processor.ProxyProcessor}
+ * zur Compile-Zeit generierten Proxys fuer {@link Interceptable}-Interfaces.
+ *
+ * Je Methode des Interfaces erzeugt der generierte Proxy eine {@link Invocation},
+ * deren generiertes proceed die Methode des Ziels direkt aufruft. Der erste
+ * Interceptor wird im generierten Proxy aufgerufen, so dass diese Aufruf-Stelle
+ * je Interface nur einen Interceptor-Typ sieht.
+ * Generierte Proxys haben den Namen des Interfaces mit Suffix {@link #SUFFIX}
+ * und einen Konstruktor (Object, Interceptor[]).
+ *
+ */
+public abstract class GeneratedProxy {
+
+	/** Namens-Suffix der generierten Proxys */
+	public static final String SUFFIX = "$$WitProxy";
+
+	/** Resource, in der die Interfaces mit generiertem Proxy aufgelistet sind */
+	public static final String INDEX_RESOURCE = "META-INF/wit-container/proxies";
+
+	/** das Ziel der Aufrufe */
+	protected final Object target;
+
+	/** die Interceptoren in Aufruf-Reihenfolge */
+	protected final Interceptor[] interceptors;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param target das Ziel der Aufrufe
+	 * @param interceptors die Interceptoren in Aufruf-Reihenfolge
+	 */
+	protected GeneratedProxy(Object target, Interceptor[] interceptors) {
+		super();
+		this.target = target;
+		this.interceptors = interceptors;
+	}
+
+	/**
+	 * liefert die Methoden des Interfaces, Index entsprechend dem generierten proceed
+	 *
+	 * @param type das Interface
+	 * @param names Namen der Methoden
+	 * @param parameterTypes Parameter-Typen der Methoden
+	 * @return die Methoden
+	 */
+	protected static Method[] methods(Class<?> type, String[] names, Class<?>[][] parameterTypes) {
+		Method[] methods = new Method[names.length];
+		for (int i = 0; i < names.length; i++) {
+			try {
+				methods[i] = type.getMethod(names[i], parameterTypes[i]);
+			} catch (NoSuchMethodException e) {
+				// Proxy passt nicht zum Interface (veraltet)
+				throw new IllegalStateException("proxy of " + type.getName() + " is outdated", e);
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * @param last die Invocation, welche die Methode des Ziels aufruft
+	 * @return die Invocation fuer den Rest der Kette hinter dem ersten Interceptor
+	 */
+	protected final Invocation rest(Invocation last) {
+		return Invocation.rest(interceptors, last);
+	}
+
+	/**
+	 * Pruefen des Ergebnisses einer Methode mit primitivem Rueckgabe-Typ
+	 *
+	 * @param result das Ergebnis der Interceptor-Kette
+	 * @param method die aufgerufene Methode
+	 * @return das Ergebnis
+	 * @throws IllegalStateException wenn ein Interceptor null geliefert hat
+	 */
+	protected static Object primitive(Object result, Method method) {
+		if (result == null) {
+			throw new IllegalStateException("interceptor returned null for " + method.getReturnType() + " "
+					+ method.getDeclaringClass().getName() + "." + method.getName());
+		}
+		return result;
+	}
+
+	/**
+	 * Weiterwerfen einer Exception aus der Interceptor-Kette: unchecked bzw.
+	 * von der Methode deklarierte Exceptions unveraendert, sonst verpackt
+	 * in einer UndeclaredThrowableException
+	 *
+	 * @param e die Exception
+	 * @param method die aufgerufene Methode
+	 * @return nie, die Exception wird geworfen
+	 */
+	protected static RuntimeException rethrow(Throwable e, Method method) {
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		for (Class<?> declared : method.getExceptionTypes()) {
+			if (declared.isInstance(e)) {
+				throw GeneratedProxy.<RuntimeException>sneaky(e);
+			}
+		}
+		throw new UndeclaredThrowableException(e);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Throwable> T sneaky(Throwable e) throws T {
+		throw (T) e;
+	}
+
+	@Override
+	public String toString() {
+		return "intercepted " + target;
+	}
+
+}
@@ -0,0 +1,186 @@
+package working_it.witcontainer;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unveraenderliche Map der Implementierungen einer {@link MapBinding},
+ * optimiert fuer das Dispatchen auf dem Hot-Path.
+ *
+ * Sind alle Keys Konstanten desselben Enums, erfolgt der Zugriff per
+ * Ordinal-Index in ein Array, sind alle Keys nicht negative Integer in einem
+ * kleinen Bereich, per Array-Index. Alle anderen Keys werden ueber eine
+ * Tabelle mit offener Adressierung gesucht. Kein Zugriff erzeugt Objekte.
+ * Die Iterations-Reihenfolge entspricht der Reihenfolge der Bindung.
+ *
+ * @param <K> Typ der Keys
+ * @param <V> Typ der Implementierungen
+ */
+public final class IndexedMap<K, V> extends AbstractMap<K, V> {
+
+	private final Object[] keys;
+	private final Object[] values;
+
+	/** Enum aller Keys oder null */
+	private final Class<?> enumType;
+	/** Werte je Ordinal, wenn alle Keys Konstanten von enumType sind */
+	private final Object[] byOrdinal;
+	/** Werte je Index, wenn alle Keys kleine, nicht negative Integer sind */
+	private final Object[] byIndex;
+	/** Tabelle fuer alle anderen Keys */
+	private final BindTable table;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param map Keys und Werte (keine null-Werte), in Iterations-Reihenfolge
+	 */
+	IndexedMap(Map<?, ?> map) {
+		super();
+		int size = map.size();
+		keys = new Object[size];
+		values = new Object[size];
+		Class<?> commonEnum = null;
+		boolean allEnum = size > 0;
+		boolean allIndex = size > 0;
+		int maxIndex = -1;
+		int i = 0;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			Object key = entry.getKey();
+			keys[i] = key;
+			values[i] = entry.getValue();
+			i++;
+			if (key instanceof Enum) {
+				Class<?> type = ((Enum<?>) key).getDeclaringClass();
+				if (commonEnum == null) {
+					commonEnum = type;
+				}
+				allEnum &= (type == commonEnum);
+			} else {
+				allEnum = false;
+			}
+			if (key instanceof Integer && ((Integer) key).intValue() >= 0) {
+				maxIndex = Math.max(maxIndex, ((Integer) key).intValue());
+			} else {
+				allIndex = false;
+			}
+		}
+		// nur, wenn das Array nicht wesentlich groesser als die Map wird
+		allIndex &= maxIndex < size * 4 + 16;
+
+		if (allEnum) {
+			enumType = commonEnum;
+			byOrdinal = new Object[commonEnum.getEnumConstants().length];
+			for (int k = 0; k < size; k++) {
+				byOrdinal[((Enum<?>) keys[k]).ordinal()] = values[k];
+			}
+		} else {
+			enumType = null;
+			byOrdinal = null;
+		}
+		if (allIndex) {
+			byIndex = new Object[maxIndex + 1];
+			for (int k = 0; k < size; k++) {
+				byIndex[((Integer) keys[k]).intValue()] = values[k];
+			}
+		} else {
+			byIndex = null;
+		}
+		table = (allEnum || allIndex) ? null : new BindTable(new LinkedHashMap<Object, Object>(map));
+	}
+
+	/**
+	 * liefert die Implementierung zur Enum-Konstante per Ordinal-Index
+	 *
+	 * @param key die Enum-Konstante
+	 * @return die Implementierung oder null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(Enum<?> key) {
+		if (byOrdinal != null && key != null && key.getDeclaringClass() == enumType) {
+			return (V) byOrdinal[key.ordinal()];
+		}
+		return get((Object) key);
+	}
+
+	/**
+	 * liefert die Implementierung zum Integer-Key, ohne Boxing,
+	 * sofern alle Keys kleine, nicht negative Integer sind
+	 *
+	 * @param index der Key
+	 * @return die Implementierung oder null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int index) {
+		if (byIndex != null) {
+			return (index >= 0 && index < byIndex.length) ? (V) byIndex[index] : null;
+		}
+		return get(Integer.valueOf(index));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		if (byOrdinal != null) {
+			return (key instanceof Enum && ((Enum<?>) key).getDeclaringClass() == enumType)
+					? (V) byOrdinal[((Enum<?>) key).ordinal()] : null;
+		}
+		if (byIndex != null) {
+			return (key instanceof Integer) ? get(((Integer) key).intValue()) : null;
+		}
+		return (V) table.lookup(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new Iterator<Map.Entry<K, V>>() {
+					private int next;
+
+					public boolean hasNext() {
+						return next < keys.length;
+					}
+
+					@SuppressWarnings("unchecked")
+					public Map.Entry<K, V> next() {
+						if (next >= keys.length) {
+							throw new NoSuchElementException();
+						}
+						int i = next++;
+						return new AbstractMap.SimpleImmutableEntry<K, V>((K) keys[i], (V) values[i]);
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return keys.length;
+			}
+		};
+	}
+
+}
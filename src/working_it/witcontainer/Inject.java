@@ -6,12 +6,26 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * definiert einen Setter als DI
+ * definiert einen Setter, ein Feld oder einen Konstruktor als DI.
+ * 
+ * Setter muessen genau einen Parameter haben, Felder duerfen weder static
+ * noch final sein. Pro Klasse darf hoechstens ein Konstruktor markiert sein;
+ * die Keys seiner Parameter ergeben sich aus deren Typ bzw. aus einer
+ * @Inject-Annotation am Parameter (value/optional).
+ * 
+ * Ist der Typ {@link Provider}&lt;T&gt; bzw. java.util.function.Supplier&lt;T&gt;,
+ * wird ein Provider injected, der die Instance zum Key T (bzw. value)
+ * erst bei get liefert. Rohe Typen (Provider ohne Typ-Argument) sowie
+ * Bindungen an eine Provider- bzw. Supplier-Instance werden dagegen direkt
+ * injected. Mit lazy=true wird fuer einen Interface-Typ ein
+ * Proxy injected, der die Instance erst beim ersten Methoden-Aufruf holt.
+ * Solche Abhaengigkeiten werden bei der Erzeugung nicht mit aufgebaut und
+ * brechen Zyklen auf.
  * 
  * @author bernd ledig
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.CONSTRUCTOR, ElementType.PARAMETER})
 public @interface Inject {
 	
 	/**
@@ -25,4 +39,12 @@ public @interface Inject {
 	 * @return
 	 */
 	boolean optional() default false;
+
+	/**
+	 * Parameter, welcher definiert, dass statt der Instance ein Proxy
+	 * injected wird, der die Instance erst beim ersten Aufruf erzeugt.
+	 * Nur fuer Interface-Typen.
+	 * @return
+	 */
+	boolean lazy() default false;
 }
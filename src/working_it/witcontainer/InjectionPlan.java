@@ -0,0 +1,268 @@
+package working_it.witcontainer;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Vorkompilierter Injection-Plan einer Implementierungs-Klasse.
+ * Enthaelt den zu verwendenden Konstruktor samt Argument-Keys sowie
+ * alle per @Inject markierten Setter und Felder samt Such-Key und Optional-Flag.
+ *
+ * Der Plan wird pro Klasse nur einmal ermittelt und von allen
+ * Container-Instanzen gemeinsam genutzt. Existiert ein zur Compile-Zeit
+ * generierter Injector, wird dessen Plan verwendet, ansonsten wird die
+ * Klasse per Reflection untersucht.
+ *
+ */
+public final class InjectionPlan {
+
+	/** Cache der Plaene je Klasse, gemeinsam fuer alle Container */
+	private static final ClassValue<InjectionPlan> PLANS = new ClassValue<InjectionPlan>() {
+		@Override
+		protected InjectionPlan computeValue(Class<?> type) {
+			GeneratedInjector injector = GeneratedInjectors.find(type);
+			if (injector != null) {
+				return new InjectionPlan(type, null, injector.getArguments(), injector.getPoints(), injector);
+			}
+			return reflect(type);
+		}
+	};
+
+	private final Class<?> implClass;
+	private final Constructor<?> constructor;
+	private final InjectionPoint[] arguments;
+	private final InjectionPoint[] points;
+	private final GeneratedInjector generatedInjector;
+
+	private InjectionPlan(Class<?> implClass, Constructor<?> constructor, InjectionPoint[] arguments,
+			InjectionPoint[] points, GeneratedInjector generatedInjector) {
+		super();
+		this.implClass = implClass;
+		this.constructor = constructor;
+		this.arguments = arguments;
+		this.points = points;
+		this.generatedInjector = generatedInjector;
+	}
+
+	/**
+	 * liefert den (gecachten) Injection-Plan zur angegebenen Klasse
+	 *
+	 * @param implClass Implementierungs-Klasse
+	 * @return der Plan
+	 * @throws ServiceCreationException wenn ein Setter nicht genau einen Parameter hat,
+	 *  ein Feld static oder final ist oder kein passender Konstruktor existiert
+	 */
+	public static InjectionPlan forClass(Class<?> implClass) {
+		return PLANS.get(implClass);
+	}
+
+	/**
+	 * ermittelt den Injection-Plan per Reflection, ohne generierte Injectoren
+	 * und ohne Cache
+	 *
+	 * @param implClass Implementierungs-Klasse
+	 * @return der Plan
+	 */
+	static InjectionPlan reflect(Class<?> implClass) {
+		Constructor<?> constructor = findConstructor(implClass);
+		List<InjectionPoint> points = new ArrayList<InjectionPoint>();
+		scanSetters(implClass, points);
+		scanFields(implClass, implClass, points);
+		return new InjectionPlan(implClass, constructor, scanArguments(constructor),
+				points.toArray(new InjectionPoint[points.size()]), null);
+	}
+
+	/**
+	 * @return die Implementierungs-Klasse
+	 */
+	public Class<?> getImplClass() {
+		return implClass;
+	}
+
+	/**
+	 * @return der zu verwendende Konstruktor (null bei generierten Injectoren)
+	 */
+	public Constructor<?> getConstructor() {
+		return constructor;
+	}
+
+	/**
+	 * @return die Argumente des Konstruktors (nicht veraendern!)
+	 */
+	public InjectionPoint[] getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * @return die Injektionsstellen (nicht veraendern!)
+	 */
+	public InjectionPoint[] getPoints() {
+		return points;
+	}
+
+	/**
+	 * @return der zur Compile-Zeit generierte Injector oder null
+	 */
+	public GeneratedInjector getGeneratedInjector() {
+		return generatedInjector;
+	}
+
+	/**
+	 * Ermitteln des Konstruktors: der per @Inject markierte,
+	 * sonst der public Default-Konstruktor
+	 *
+	 * @param clazz zu untersuchende Klasse
+	 * @return der Konstruktor
+	 */
+	private static Constructor<?> findConstructor(Class<?> clazz) {
+		Constructor<?> injectConstructor = null;
+		for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+			if (constructor.getAnnotation(Inject.class) == null)
+				continue;
+			if (injectConstructor != null) {
+				throw new ServiceCreationException(clazz, "more than one @Inject constructor");
+			}
+			injectConstructor = constructor;
+		}
+		if (injectConstructor != null) {
+			return injectConstructor;
+		}
+		try {
+			return clazz.getConstructor();
+		} catch (NoSuchMethodException e) {
+			throw new ServiceCreationException(clazz, "no public default constructor and no @Inject constructor");
+		}
+	}
+
+	/**
+	 * Ermitteln der Argumente des Konstruktors, der Such-Key ist entweder der
+	 * Value der @Inject-Annotation am Parameter oder die Parameterklasse
+	 *
+	 * @param constructor der Konstruktor
+	 * @return Argumente
+	 */
+	private static InjectionPoint[] scanArguments(Constructor<?> constructor) {
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		Type[] genericTypes = constructor.getGenericParameterTypes();
+		Annotation[][] annotations = constructor.getParameterAnnotations();
+		InjectionPoint[] arguments = new InjectionPoint[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			Inject anno = null;
+			// bei inneren Klassen fehlen evtl. die Annotationen des impliziten Parameters
+			int offset = parameterTypes.length - annotations.length;
+			if (i >= offset) {
+				for (Annotation annotation : annotations[i - offset]) {
+					if (annotation instanceof Inject)
+						anno = (Inject) annotation;
+				}
+			}
+			// bei inneren Klassen fehlt evtl. auch der generische Typ des impliziten Parameters
+			Type genericType = (genericTypes.length == parameterTypes.length) ? genericTypes[i] : parameterTypes[i];
+			arguments[i] = point(constructor, parameterTypes[i], genericType, anno);
+		}
+		return arguments;
+	}
+
+	/**
+	 * Ermitteln aller Setter, die durch die Annotation @Inject markiert sind
+	 *
+	 * @param clazz zu untersuchende Klasse
+	 * @param points Liste, an welche die Injektionsstellen angehaengt werden
+	 */
+	private static void scanSetters(Class<?> clazz, List<InjectionPoint> points) {
+		for (Method method : clazz.getMethods()) {
+			Inject anno = method.getAnnotation(Inject.class);
+			if (anno==null)
+				continue;
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			if (parameterTypes.length!=1) {
+				throw new ServiceCreationException(clazz, method);
+			}
+			points.add(point(method, parameterTypes[0], method.getGenericParameterTypes()[0], anno));
+		}
+	}
+
+	/**
+	 * Ermitteln aller Felder (auch private und geerbte), die durch die
+	 * Annotation @Inject markiert sind, Felder der Oberklassen zuerst
+	 *
+	 * @param implClass Implementierungs-Klasse (fuer Fehlermeldungen)
+	 * @param clazz zu untersuchende Klasse
+	 * @param points Liste, an welche die Injektionsstellen angehaengt werden
+	 */
+	private static void scanFields(Class<?> implClass, Class<?> clazz, List<InjectionPoint> points) {
+		if (clazz == null || clazz == Object.class) {
+			return;
+		}
+		scanFields(implClass, clazz.getSuperclass(), points);
+		for (Field field : clazz.getDeclaredFields()) {
+			Inject anno = field.getAnnotation(Inject.class);
+			if (anno==null)
+				continue;
+			if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+				throw new ServiceCreationException(implClass,
+						"@Inject field " + field.getName() + " must not be static or final");
+			}
+			points.add(point(field, field.getType(), field.getGenericType(), anno));
+		}
+	}
+
+	/**
+	 * Ermitteln der Injektionsstelle: Such-Key ist entweder der Value der
+	 * @Inject-Annotation oder die Klasse, bei Provider&lt;T&gt; bzw.
+	 * Supplier&lt;T&gt; die Klasse T. Verzoegert wird nur bei Provider bzw.
+	 * Supplier mit Typ-Argument, rohe Typen werden direkt injected.
+	 *
+	 * @param member der Setter, das Feld bzw. der Konstruktor
+	 * @param type Typ des Parameters bzw. Feldes
+	 * @param genericType generischer Typ des Parameters bzw. Feldes
+	 * @param anno die Annotation oder null
+	 * @return die Injektionsstelle
+	 */
+	private static InjectionPoint point(Member member, Class<?> type, Type genericType, Inject anno) {
+		Object key = (anno != null && anno.value().length() > 0) ? anno.value() : null;
+		boolean optional = anno != null && anno.optional();
+		if ((type == Provider.class || type == Supplier.class) && genericType instanceof ParameterizedType) {
+			if (key == null) {
+				key = typeArgument(genericType);
+			}
+			if (key == null) {
+				throw new ServiceCreationException(member.getDeclaringClass(),
+						"key of lazy injection " + member.getName() + " not determinable, use @Inject(value)");
+			}
+			return new InjectionPoint(member, key, optional, type);
+		}
+		if (anno != null && anno.lazy()) {
+			if (!type.isInterface()) {
+				throw new ServiceCreationException(member.getDeclaringClass(),
+						"lazy injection " + member.getName() + " requires an interface type");
+			}
+			return new InjectionPoint(member, (key != null) ? key : type, optional, type);
+		}
+		return new InjectionPoint(member, (key != null) ? key : type, optional);
+	}
+
+	/**
+	 * @return die (rohe) Klasse des Typ-Arguments oder null
+	 */
+	private static Class<?> typeArgument(Type genericType) {
+		if (!(genericType instanceof ParameterizedType)) {
+			return null;
+		}
+		Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+		if (argument instanceof ParameterizedType) {
+			argument = ((ParameterizedType) argument).getRawType();
+		}
+		return (argument instanceof Class) ? (Class<?>) argument : null;
+	}
+
+}
@@ -0,0 +1,98 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+/**
+ * Eine einzelne, per @Inject markierte Injektionsstelle (Setter, Feld
+ * oder Konstruktor-Parameter) mit bereits ermitteltem Such-Key und Optional-Flag.
+ * Bei verzoegerter Injection ist zusaetzlich der Lazy-Typ gesetzt:
+ * {@link Provider}, java.util.function.Supplier oder das Interface des Proxys.
+ *
+ */
+public final class InjectionPoint {
+
+	private final Member member;
+	private final Object key;
+	private final boolean optional;
+	private final Class<?> lazyType;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param member der Setter, das Feld bzw. der Konstruktor (bei Konstruktor-Parametern)
+	 * @param key Such-Key der zu injectenden Instance
+	 * @param optional true, wenn die Injection optional ist
+	 */
+	public InjectionPoint(Member member, Object key, boolean optional) {
+		this(member, key, optional, null);
+	}
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param member der Setter, das Feld bzw. der Konstruktor (bei Konstruktor-Parametern)
+	 * @param key Such-Key der zu injectenden Instance
+	 * @param optional true, wenn die Injection optional ist
+	 * @param lazyType Typ des verzoegerten Zugriffs oder null
+	 */
+	public InjectionPoint(Member member, Object key, boolean optional, Class<?> lazyType) {
+		super();
+		this.member = member;
+		this.key = key;
+		this.optional = optional;
+		this.lazyType = lazyType;
+	}
+
+	/**
+	 * @return der Setter, das Feld bzw. der Konstruktor (null bei generierten Injectoren)
+	 */
+	public Member getMember() {
+		return member;
+	}
+
+	/**
+	 * @return der Setter (null bei Feldern, Konstruktor-Parametern und generierten Injectoren)
+	 */
+	public Method getMethod() {
+		return (member instanceof Method) ? (Method) member : null;
+	}
+
+	/**
+	 * @return das Feld (null bei Settern, Konstruktor-Parametern und generierten Injectoren)
+	 */
+	public Field getField() {
+		return (member instanceof Field) ? (Field) member : null;
+	}
+
+	/**
+	 * @return Such-Key der zu injectenden Instance
+	 */
+	public Object getKey() {
+		return key;
+	}
+
+	/**
+	 * @return true, wenn die Injection optional ist
+	 */
+	public boolean isOptional() {
+		return optional;
+	}
+
+	/**
+	 * @return Provider.class, Supplier.class bzw. das Interface des Proxys,
+	 *  null, wenn die Instance direkt injected wird
+	 */
+	public Class<?> getLazyType() {
+		return lazyType;
+	}
+
+	/**
+	 * @return true, wenn die Instance erst bei Bedarf erzeugt wird
+	 */
+	public boolean isLazy() {
+		return lazyType != null;
+	}
+
+}
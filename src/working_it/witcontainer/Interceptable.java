@@ -0,0 +1,24 @@
+package working_it.witcontainer;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Markiert ein Interface, zu dem der
+ * {@link working_it.witcontainer.processor.ProxyProcessor} zur Compile-Zeit
+ * einen Proxy fuer {@link Interceptor}en generiert.
+ *
+ * Der generierte Proxy ruft am Ende der Interceptor-Kette die Methode des
+ * Ziels direkt auf. Ohne generierten Proxy wird ein java.lang.reflect.Proxy
+ * verwendet, der das Ziel per Reflection aufruft.
+ *
+ * @see BindObject#intercept(Interceptor...)
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Interceptable {
+}
@@ -0,0 +1,144 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Erzeugen der Proxys fuer Bindungen mit {@link Interceptor}en.
+ *
+ * Zu Interfaces mit generiertem Proxy (siehe {@link Interceptable}) wird
+ * dieser verwendet, sonst ein java.lang.reflect.Proxy, dessen Invocation
+ * das Ziel per Reflection aufruft.
+ *
+ */
+final class Interception {
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	/** Index je ClassLoader (Namen der Interfaces mit generiertem Proxy) */
+	private static final Map<ClassLoader, Set<String>> INDICES =
+			Collections.synchronizedMap(new WeakHashMap<ClassLoader, Set<String>>());
+
+	/** Konstruktor des generierten Proxys je Interface, null wenn keiner generiert wurde */
+	private static final ClassValue<Constructor<?>> PROXIES = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			return findProxy(type);
+		}
+	};
+
+	private Interception() {
+	}
+
+	/**
+	 * Erzeugen des Proxys
+	 *
+	 * @param target das Ziel der Aufrufe
+	 * @param type das Interface des Proxys
+	 * @param interceptors die Interceptoren in Aufruf-Reihenfolge
+	 * @return der Proxy
+	 */
+	static Object wrap(Object target, Class<?> type, Interceptor[] interceptors) {
+		Constructor<?> constructor = PROXIES.get(type);
+		if (constructor != null) {
+			try {
+				return constructor.newInstance(target, interceptors);
+			} catch (ReflectiveOperationException e) {
+				throw new ServiceCreationException(type, e);
+			}
+		}
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new Handler(target, interceptors));
+	}
+
+	/**
+	 * @return das Ziel des Proxys bzw. das Object selbst, wenn es kein Proxy ist
+	 */
+	static Object unwrap(Object instance) {
+		if (instance instanceof GeneratedProxy) {
+			return ((GeneratedProxy) instance).target;
+		}
+		if (instance != null && Proxy.isProxyClass(instance.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(instance);
+			if (handler instanceof Handler)
+				return ((Handler) handler).target;
+		}
+		return instance;
+	}
+
+	private static Constructor<?> findProxy(Class<?> type) {
+		ClassLoader loader = type.getClassLoader();
+		if (loader == null || !index(loader).contains(type.getName())) {
+			return null;
+		}
+		try {
+			Class<?> proxyClass = Class.forName(type.getName() + GeneratedProxy.SUFFIX, true, loader);
+			return proxyClass.getConstructor(Object.class, Interceptor[].class);
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			// z.B. veralteter Proxy zu geaendertem Interface
+			return null;
+		}
+	}
+
+	private static Set<String> index(ClassLoader loader) {
+		Set<String> index = INDICES.get(loader);
+		if (index == null) {
+			index = GeneratedInjectors.readIndex(loader, GeneratedProxy.INDEX_RESOURCE);
+			INDICES.put(loader, index);
+		}
+		return index;
+	}
+
+
+	/**
+	 * Rueckfall ohne generierten Proxy
+	 */
+	private static final class Handler implements InvocationHandler {
+
+		final Object target;
+		final Interceptor[] interceptors;
+
+		Handler(Object target, Interceptor[] interceptors) {
+			this.target = target;
+			this.interceptors = interceptors;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				if (method.getName().equals("equals")) {
+					return Boolean.valueOf(proxy == args[0]);
+				}
+				if (method.getName().equals("hashCode")) {
+					return Integer.valueOf(System.identityHashCode(proxy));
+				}
+				return "intercepted " + target;
+			}
+			return Invocation.start(interceptors, new ReflectiveInvocation(target, method, (args != null) ? args : NO_ARGS));
+		}
+	}
+
+	private static final class ReflectiveInvocation extends Invocation {
+
+		ReflectiveInvocation(Object target, Method method, Object[] arguments) {
+			super(target, method, arguments);
+		}
+
+		@Override
+		public Object proceed() throws Throwable {
+			try {
+				return getMethod().invoke(getTarget(), getArguments());
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package working_it.witcontainer;
+
+/**
+ * Interceptor um die Methoden-Aufrufe der Instanzen einer Bindung,
+ * z.B. fuer Zeitmessung, Wiederholungen oder Caching:
+ *
+ * <pre>
+ * container.bind(ReportService.class).to(ReportServiceImpl.class)
+ *     .intercept(invocation -&gt; {
+ *         long start = System.nanoTime();
+ *         try {
+ *             return invocation.proceed();
+ *         } finally {
+ *             log(invocation.getMethod(), System.nanoTime() - start);
+ *         }
+ *     });
+ * </pre>
+ *
+ * @see BindObject#intercept(Interceptor...)
+ * @see Interceptable
+ */
+@FunctionalInterface
+public interface Interceptor {
+
+	/**
+	 * Aufruf einer Methode
+	 *
+	 * @param invocation der Aufruf, per {@link Invocation#proceed()} wird
+	 *  der naechste Interceptor bzw. die Methode des Ziels aufgerufen
+	 * @return das Ergebnis der Methode (bei void ignoriert)
+	 * @throws Throwable die Exception der Methode bzw. des Interceptors
+	 */
+	public Object intercept(Invocation invocation) throws Throwable;
+
+}
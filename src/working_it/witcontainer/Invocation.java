@@ -0,0 +1,110 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Method;
+
+/**
+ * Aufruf einer Methode ueber einen Proxy mit {@link Interceptor}en.
+ *
+ * Jeder Interceptor erhaelt eine eigene, unveraenderliche Invocation fuer den
+ * Rest der Kette; die letzte ruft die Methode des Ziels auf. Bei generierten
+ * Proxys (siehe {@link Interceptable}) ist diese generiert und ruft die Methode
+ * direkt auf. Da sich die Aufrufe der Kette nicht selbst rekursiv aufrufen,
+ * kann der JIT die gesamte Kette inlinen und die Invocation-Objekte
+ * wegoptimieren.
+ *
+ */
+public abstract class Invocation {
+
+	private final Object target;
+	private final Method method;
+	private final Object[] arguments;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param target das Ziel des Aufrufs
+	 * @param method die aufgerufene Methode des Interfaces
+	 * @param arguments die Argumente
+	 */
+	protected Invocation(Object target, Method method, Object[] arguments) {
+		super();
+		this.target = target;
+		this.method = method;
+		this.arguments = arguments;
+	}
+
+	/**
+	 * @return das Ziel des Aufrufs (die Instance der Bindung)
+	 */
+	public Object getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return die aufgerufene Methode des Interfaces
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return die Argumente; Aenderungen werden an das Ziel weitergegeben
+	 */
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Aufruf des naechsten Interceptors bzw. am Ende der Kette der Methode
+	 * des Ziels. Darf auch mehrfach aufgerufen werden, z.B. fuer Wiederholungen.
+	 *
+	 * @return das Ergebnis, bei void null
+	 * @throws Throwable die Exception der Methode bzw. eines Interceptors
+	 */
+	public abstract Object proceed() throws Throwable;
+
+	/**
+	 * Aufruf der Interceptor-Kette
+	 *
+	 * @param interceptors die Interceptoren, mindestens einer
+	 * @param last die Invocation, welche die Methode des Ziels aufruft
+	 * @return das Ergebnis
+	 * @throws Throwable die Exception der Methode bzw. eines Interceptors
+	 */
+	static Object start(Interceptor[] interceptors, Invocation last) throws Throwable {
+		return interceptors[0].intercept(rest(interceptors, last));
+	}
+
+	/**
+	 * @return die Invocation fuer den Rest der Kette hinter dem ersten Interceptor
+	 */
+	static Invocation rest(Interceptor[] interceptors, Invocation last) {
+		return (interceptors.length == 1) ? last : new Chain(interceptors, 1, last);
+	}
+
+
+	/**
+	 * Invocation innerhalb der Kette, ruft den Interceptor an ihrer Position auf
+	 */
+	private static final class Chain extends Invocation {
+
+		private final Interceptor[] interceptors;
+		private final int position;
+		private final Invocation last;
+
+		Chain(Interceptor[] interceptors, int position, Invocation last) {
+			super(last.getTarget(), last.getMethod(), last.getArguments());
+			this.interceptors = interceptors;
+			this.position = position;
+			this.last = last;
+		}
+
+		@Override
+		public Object proceed() throws Throwable {
+			int next = position + 1;
+			return interceptors[position].intercept(
+					(next == interceptors.length) ? last : new Chain(interceptors, next, last));
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+package working_it.witcontainer;
+
+/**
+ * Erzeugt Instanzen einer Implementierungs-Klasse und ruft deren
+ * @Inject-Setter auf bzw. setzt deren @Inject-Felder.
+ * Pro Klasse wird ein Invoker von der jeweiligen {@link InvokerFactory}
+ * einmalig erzeugt und gecacht.
+ *
+ */
+public interface Invoker {
+
+	/**
+	 * erzeugt eine neue Instance der Implementierungs-Klasse
+	 *
+	 * @param args aufgeloeste Argumente des Konstruktors entsprechend
+	 *  {@link InjectionPlan#getArguments()}, leer beim Default-Konstruktor
+	 * @return die neue Instance
+	 * @throws Exception
+	 */
+	public Object newInstance(Object[] args) throws Exception;
+
+	/**
+	 * ruft den Setter der Injektionsstelle mit dem angegebenen Index auf
+	 * bzw. setzt das Feld
+	 *
+	 * @param instance Instance, in welche injected wird
+	 * @param index Index der Injektionsstelle im {@link InjectionPlan}
+	 * @param value zu injectender Wert
+	 * @throws Exception
+	 */
+	public void inject(Object instance, int index, Object value) throws Exception;
+}
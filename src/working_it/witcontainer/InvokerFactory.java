@@ -0,0 +1,70 @@
+package working_it.witcontainer;
+
+/**
+ * Strategie zum Erzeugen der {@link Invoker}.
+ * Es stehen drei Implementierungen zur Verfuegung:
+ *  - REFLECTION: Constructor.newInstance / Method.invoke
+ *  - METHOD_HANDLE: per MethodHandle.invokeExact
+ *  - LAMBDA: per LambdaMetafactory generierte Supplier/BiConsumer (default)
+ *
+ * Die Invoker werden je Strategie und Klasse einmalig erzeugt und
+ * von allen Container-Instanzen gemeinsam genutzt.
+ * Existiert zur Klasse ein generierter Injector, wird unabhaengig von der
+ * Strategie immer dieser verwendet.
+ *
+ */
+public abstract class InvokerFactory {
+
+	public static final InvokerFactory REFLECTION = new ReflectionInvokerFactory();
+	public static final InvokerFactory METHOD_HANDLE = new MethodHandleInvokerFactory();
+	public static final InvokerFactory LAMBDA = new LambdaInvokerFactory();
+
+	/** Cache der Invoker je Klasse */
+	private final ClassValue<Invoker> invokers = new ClassValue<Invoker>() {
+		@Override
+		protected Invoker computeValue(Class<?> type) {
+			InjectionPlan plan = InjectionPlan.forClass(type);
+			if (plan.getGeneratedInjector() != null) {
+				return plan.getGeneratedInjector();
+			}
+			try {
+				return createInvoker(plan);
+			} catch (Exception e) {
+				return fallback(plan, e);
+			}
+		}
+	};
+
+	/**
+	 * liefert den (gecachten) Invoker zur angegebenen Klasse
+	 *
+	 * @param implClass Implementierungs-Klasse
+	 * @return der Invoker
+	 */
+	public final Invoker getInvoker(Class<?> implClass) {
+		return invokers.get(implClass);
+	}
+
+	/**
+	 * erzeugt den Invoker zum Injection-Plan
+	 *
+	 * @param plan Injection-Plan der Klasse
+	 * @return der Invoker
+	 * @throws Exception wenn die Klasse mit dieser Strategie nicht bedient werden kann
+	 */
+	protected abstract Invoker createInvoker(InjectionPlan plan) throws Exception;
+
+	/**
+	 * Rueckfallloesung, wenn {@link #createInvoker(InjectionPlan)} scheitert,
+	 * z.B. weil die Klasse nicht zugreifbar ist. Per default wird auf
+	 * Reflection zurueckgegriffen.
+	 *
+	 * @param plan Injection-Plan der Klasse
+	 * @param e aufgetretener Fehler
+	 * @return der Invoker
+	 */
+	protected Invoker fallback(InjectionPlan plan, Exception e) {
+		return REFLECTION.getInvoker(plan.getImplClass());
+	}
+
+}
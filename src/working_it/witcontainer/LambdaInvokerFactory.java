@@ -0,0 +1,151 @@
+package working_it.witcontainer;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Invoker-Strategie per LambdaMetafactory.
+ * Default-Konstruktor und Setter werden als Supplier bzw. BiConsumer generiert,
+ * so dass die Aufrufe vom JIT wie direkte Aufrufe behandelt werden koennen.
+ * Konstruktoren mit Argumenten und Felder, die sich nicht per LambdaMetafactory
+ * abbilden lassen, werden per MethodHandle aufgerufen.
+ *
+ */
+public class LambdaInvokerFactory extends InvokerFactory {
+
+	private static final MethodType SUPPLIER_FACTORY = MethodType.methodType(Supplier.class);
+	private static final MethodType SUPPLIER_GET = MethodType.methodType(Object.class);
+	private static final MethodType CONSUMER_FACTORY = MethodType.methodType(BiConsumer.class);
+	private static final MethodType CONSUMER_ACCEPT = MethodType.methodType(void.class, Object.class, Object.class);
+
+	@Override
+	protected Invoker createInvoker(InjectionPlan plan) throws Exception {
+		Class<?> implClass = plan.getImplClass();
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(implClass, MethodHandles.lookup());
+			Constructor<?> target = plan.getConstructor();
+			Supplier<?> constructor = null;
+			MethodHandle argsConstructor = null;
+			if (target.getParameterTypes().length == 0) {
+				constructor = createSupplier(lookup, target);
+			} else {
+				argsConstructor = MethodHandleInvokerFactory.spreadConstructor(lookup, target);
+			}
+
+			InjectionPoint[] points = plan.getPoints();
+			BiConsumer<Object, Object>[] setters = newSetters(points.length);
+			for (int i = 0; i < points.length; i++) {
+				if (points[i].getField() != null) {
+					setters[i] = new FieldSetter(MethodHandleInvokerFactory.setter(lookup, points[i]));
+				} else {
+					setters[i] = createConsumer(lookup, points[i].getMethod());
+				}
+			}
+			return new LambdaInvoker(constructor, argsConstructor, setters);
+		} catch (Exception e) {
+			throw e;
+		} catch (Throwable t) {
+			// z.B. LinkageError, wenn die Klasse nicht sichtbar ist
+			throw new UndeclaredThrowableException(t);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object>[] newSetters(int length) {
+		return (BiConsumer<Object, Object>[]) new BiConsumer<?, ?>[length];
+	}
+
+	private static Supplier<?> createSupplier(MethodHandles.Lookup lookup, Constructor<?> constructor) throws Throwable {
+		MethodHandle target = lookup.unreflectConstructor(constructor);
+		CallSite site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_FACTORY,
+				SUPPLIER_GET, target, MethodType.methodType(constructor.getDeclaringClass()));
+		return (Supplier<?>) site.getTarget().invokeExact();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> createConsumer(MethodHandles.Lookup lookup, Method method) throws Throwable {
+		MethodHandle target = lookup.unreflect(method);
+		MethodType instantiated = MethodType.methodType(void.class,
+				method.getDeclaringClass(), wrap(method.getParameterTypes()[0]));
+		CallSite site = LambdaMetafactory.metafactory(lookup, "accept", CONSUMER_FACTORY,
+				CONSUMER_ACCEPT, target, instantiated);
+		return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+	}
+
+	/**
+	 * liefert zu einem primitiven Typ die Wrapper-Klasse,
+	 * da der generierte BiConsumer nur Objekte entgegen nimmt
+	 */
+	private static Class<?> wrap(Class<?> type) {
+		return MethodType.methodType(type).wrap().returnType();
+	}
+
+
+	/**
+	 * Setzen eines Feldes per MethodHandle
+	 */
+	private static final class FieldSetter implements BiConsumer<Object, Object> {
+
+		private final MethodHandle setter;
+
+		FieldSetter(MethodHandle setter) {
+			this.setter = setter.asType(CONSUMER_ACCEPT);
+		}
+
+		public void accept(Object instance, Object value) {
+			try {
+				setter.invokeExact(instance, value);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		}
+	}
+
+
+	private static final class LambdaInvoker implements Invoker {
+
+		/** Default-Konstruktor, sonst null */
+		private final Supplier<?> constructor;
+		/** Konstruktor mit Argumenten, sonst null */
+		private final MethodHandle argsConstructor;
+		private final BiConsumer<Object, Object>[] setters;
+
+		LambdaInvoker(Supplier<?> constructor, MethodHandle argsConstructor, BiConsumer<Object, Object>[] setters) {
+			this.constructor = constructor;
+			this.argsConstructor = argsConstructor;
+			this.setters = setters;
+		}
+
+		public Object newInstance(Object[] args) throws Exception {
+			if (constructor != null) {
+				return constructor.get();
+			}
+			try {
+				return (Object) argsConstructor.invokeExact(args);
+			} catch (Exception e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		}
+
+		public void inject(Object instance, int index, Object value) {
+			setters[index].accept(instance, value);
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package working_it.witcontainer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Einfaches, thread-sicheres Latenz-Histogramm mit Zweierpotenz-Buckets
+ * (Bucket i enthaelt Werte kleiner 2^i Nanosekunden).
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(new LongBinaryOperator() {
+		public long applyAsLong(long left, long right) {
+			return Math.max(left, right);
+		}
+	}, 0);
+
+	/**
+	 * Erfassen eines Messwertes
+	 *
+	 * @param nanos Dauer in Nanosekunden
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		count.increment();
+		total.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * @return Anzahl der Messwerte
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return Summe aller Messwerte in Nanosekunden
+	 */
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	/**
+	 * @return groesster Messwert in Nanosekunden
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * @return Mittelwert in Nanosekunden
+	 */
+	public long getMeanNanos() {
+		long n = getCount();
+		return (n == 0) ? 0 : getTotalNanos() / n;
+	}
+
+	/**
+	 * liefert eine Obergrenze fuer das angegebene Perzentil
+	 *
+	 * @param percentile Perzentil zwischen 0 und 100
+	 * @return Obergrenze des Buckets in Nanosekunden, in dem das Perzentil liegt
+	 */
+	public long getPercentileNanos(double percentile) {
+		long n = getCount();
+		if (n == 0) {
+			return 0;
+		}
+		long limit = (long) Math.ceil(n * percentile / 100.0);
+		long sum = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			sum += buckets.get(i);
+			if (sum >= limit) {
+				return Math.min((i >= 63) ? Long.MAX_VALUE : (1L << i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + " mean=" + getMeanNanos() + "ns p50<=" + getPercentileNanos(50)
+				+ "ns p99<=" + getPercentileNanos(99) + "ns max=" + getMaxNanos() + "ns";
+	}
+
+}
@@ -0,0 +1,77 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Verzoegerter Zugriff auf die Instance einer Bindung, injected anstelle
+ * der Instance bei Provider- bzw. Supplier-Parametern und lazy-Proxys
+ * (siehe {@link Inject#lazy()}).
+ *
+ * Als Provider bzw. Supplier liefert jedes get die aktuelle Instance der
+ * Bindung (bei Singletons also immer dieselbe). Als Proxy wird die Instance
+ * beim ersten Methoden-Aufruf geholt und danach direkt verwendet;
+ * equals und hashCode beziehen sich auf den Proxy selbst.
+ *
+ */
+final class LazyInstance implements Provider<Object>, Supplier<Object>, InvocationHandler {
+
+	private final BindObject target;
+
+	/** beim Proxy die beim ersten Aufruf geholte Instance */
+	private volatile Object instance;
+
+	private LazyInstance(BindObject target) {
+		super();
+		this.target = target;
+	}
+
+	/**
+	 * Erzeugen des verzoegerten Zugriffs
+	 *
+	 * @param lazyType Provider.class, Supplier.class oder das Interface des Proxys
+	 * @param target Bindung, deren Instance geliefert wird
+	 * @return der Provider, Supplier bzw. Proxy
+	 */
+	static Object create(Class<?> lazyType, BindObject target) {
+		LazyInstance lazy = new LazyInstance(target);
+		if (lazyType == Provider.class || lazyType == Supplier.class) {
+			return lazy;
+		}
+		return Proxy.newProxyInstance(lazyType.getClassLoader(), new Class<?>[] {lazyType}, lazy);
+	}
+
+	public Object get() {
+		return target.getInstance();
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			if (method.getName().equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if (method.getName().equals("hashCode")) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+		}
+		Object current = instance;
+		if (current == null) {
+			current = target.getInstance();
+			instance = current;
+		}
+		try {
+			return method.invoke(current, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "lazy " + target.getKey();
+	}
+
+}
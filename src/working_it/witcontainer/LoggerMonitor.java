@@ -44,4 +44,11 @@ public class LoggerMonitor implements Monitor {
 		log.log(level , message);
 	}
 
+	/**
+	 * Meldungen werden nur erzeugt, wenn der Logger das Log-Level ausgibt
+	 */
+	public boolean isEnabled() {
+		return log.isLoggable(level);
+	}
+
 }
@@ -0,0 +1,101 @@
+package working_it.witcontainer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Multi-Bindung mehrerer Implementierungen unter einem Key, jeweils
+ * zugeordnet zu einem Map-Key, z.B. Message-Handler je Nachrichten-Typ:
+ *
+ * <pre>
+ * container.bindMap("handlers")
+ *     .put(MessageType.ORDER, OrderHandler.class)
+ *     .put(MessageType.INVOICE, InvoiceHandler.class);
+ * ...
+ * &#64;Inject("handlers")
+ * public void setHandlers(IndexedMap&lt;MessageType, Handler&gt; handlers)
+ * ...
+ * handlers.get(message.getType()).handle(message);
+ * </pre>
+ *
+ * Injected bzw. per getInstance geliefert wird eine unveraenderliche
+ * {@link IndexedMap}; bei Enum- bzw. kleinen Integer-Keys erfolgt der
+ * Zugriff per Array-Index, ohne Objekte zu erzeugen und ohne String-Hashing.
+ *
+ * Alle Beitraege muessen vor dem ersten Zugriff hinzugefuegt werden.
+ *
+ * @see WitContainer#bindMap(Object)
+ */
+public final class MapBinding extends MultiBinding {
+
+	private final List<Object> mapKeys = new ArrayList<Object>();
+
+	MapBinding(WitContainer container, Object key) {
+		super(container, key);
+	}
+
+	/**
+	 * Hinzufuegen einer Implementierungs-Klasse, die als Singleton erzeugt wird
+	 *
+	 * @param mapKey Key in der Map
+	 * @param implClass die Implementierungs-Klasse
+	 * @return this
+	 * @throws DuplicateBindException wenn der Map-Key bereits vergeben ist
+	 */
+	public MapBinding put(Object mapKey, Class<?> implClass) {
+		checkMapKey(mapKey);
+		bindElement(mapKey).to(implClass);
+		mapKeys.add(mapKey);
+		return this;
+	}
+
+	/**
+	 * Hinzufuegen einer fertigen Instance
+	 *
+	 * @param mapKey Key in der Map
+	 * @param instance die Instance
+	 * @return this
+	 * @throws DuplicateBindException wenn der Map-Key bereits vergeben ist
+	 */
+	public MapBinding put(Object mapKey, Object instance) {
+		checkMapKey(mapKey);
+		bindElement(mapKey).to(instance);
+		mapKeys.add(mapKey);
+		return this;
+	}
+
+	/**
+	 * Hinzufuegen der Instance einer bereits vorhandenen Bindung
+	 *
+	 * @param mapKey Key in der Map
+	 * @param boundKey Key der Bindung
+	 * @return this
+	 * @throws DuplicateBindException wenn der Map-Key bereits vergeben ist
+	 */
+	public MapBinding putKey(Object mapKey, Object boundKey) {
+		checkMapKey(mapKey);
+		addElementKey(boundKey);
+		mapKeys.add(mapKey);
+		return this;
+	}
+
+	private void checkMapKey(Object mapKey) {
+		if (mapKey == null || mapKeys.contains(mapKey))
+			throw new DuplicateBindException(new Key(key, mapKey));
+	}
+
+	/**
+	 * Aufbau der Map, wird je Container nur einmal aufgerufen
+	 */
+	public Object get() {
+		Object[] instances = resolveAll();
+		Map<Object, Object> map = new LinkedHashMap<Object, Object>(instances.length * 2);
+		for (int i = 0; i < instances.length; i++) {
+			map.put(mapKeys.get(i), instances[i]);
+		}
+		return new IndexedMap<Object, Object>(map);
+	}
+
+}
@@ -0,0 +1,182 @@
+package working_it.witcontainer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Begrenzter Cache der Ergebnisse einer {@link Cached}-Methode.
+ *
+ * Die Eintraege sind nach dem Hash des Keys auf mehrere Stripes verteilt,
+ * jeder mit eigenem Lock und eigenem Anteil an der maximalen Groesse.
+ * Parallele Zugriffe auf verschiedene Stripes blockieren sich daher nicht,
+ * dafuer wird je Stripe verdraengt (LRU bzw. LFU naeherungsweise ueber
+ * den ganzen Cache). Abgelaufene Eintraege werden beim Lesen ignoriert
+ * und beim naechsten put fuer den Key ersetzt bzw. bevorzugt verdraengt.
+ *
+ * Das Ergebnis wird ausserhalb des Locks berechnet; rufen mehrere Threads
+ * gleichzeitig mit denselben Argumenten auf, wird es ggf. mehrfach berechnet.
+ *
+ */
+final class MethodCache {
+
+	/** Ergebnis von {@link #get(Object)}, wenn kein gueltiger Eintrag existiert */
+	static final Object MISS = new Object();
+
+	/** hoechstens so viele Stripes ... */
+	private static final int MAX_STRIPES = 16;
+	/** ... und mindestens so viele Eintraege je Stripe */
+	private static final int MIN_STRIPE_SIZE = 8;
+
+	/** Zeitquelle der Eintraege */
+	private static final LongSupplier NANO_TIME = new LongSupplier() {
+		public long getAsLong() {
+			return System.nanoTime();
+		}
+	};
+
+	private final Stripe[] stripes;
+	private final boolean lfu;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param cached die Parameter des Caches
+	 */
+	MethodCache(Cached cached) {
+		this(cached.maxSize(), cached.eviction(), cached.ttlMillis() * 1000000L, NANO_TIME);
+	}
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param maxSize maximale Anzahl Eintraege, mindestens 1
+	 * @param eviction Verdraengungs-Strategie
+	 * @param ttlNanos Gueltigkeit eines Eintrags, 0 fuer unbegrenzt
+	 * @param clock Zeitquelle in Nanosekunden
+	 */
+	MethodCache(int maxSize, Cached.Eviction eviction, long ttlNanos, LongSupplier clock) {
+		super();
+		if (maxSize < 1)
+			throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+		int count = Math.max(1, Integer.highestOneBit(Math.min(MAX_STRIPES, maxSize / MIN_STRIPE_SIZE)));
+		stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			// der Rest der Division wird auf die ersten Stripes verteilt
+			stripes[i] = new Stripe(maxSize / count + ((i < maxSize % count) ? 1 : 0));
+		}
+		this.lfu = eviction == Cached.Eviction.LFU;
+		this.ttlNanos = ttlNanos;
+		this.clock = clock;
+	}
+
+	/**
+	 * @param key Key des Eintrags
+	 * @return der gecachte Wert (auch null) bzw. {@link #MISS}
+	 */
+	Object get(Object key) {
+		Stripe stripe = stripe(key);
+		synchronized (stripe) {
+			Entry entry = stripe.map.get(key);
+			if (entry == null || isExpired(entry)) {
+				return MISS;
+			}
+			entry.hits++;
+			return entry.value;
+		}
+	}
+
+	/**
+	 * Eintragen eines Wertes, verdraengt bei vollem Stripe einen Eintrag
+	 *
+	 * @param key Key des Eintrags
+	 * @param value der Wert, auch null
+	 * @return Anzahl der verdraengten bzw. ersetzten abgelaufenen Eintraege
+	 */
+	int put(Object key, Object value) {
+		long expires = (ttlNanos > 0) ? clock.getAsLong() + ttlNanos : 0;
+		Stripe stripe = stripe(key);
+		synchronized (stripe) {
+			Entry previous = stripe.map.put(key, new Entry(value, expires));
+			if (previous != null) {
+				return isExpired(previous) ? 1 : 0;
+			}
+			if (stripe.map.size() <= stripe.capacity) {
+				return 0;
+			}
+			stripe.map.remove(victim(stripe));
+			return 1;
+		}
+	}
+
+	/**
+	 * @return Anzahl der Eintraege, inkl. abgelaufener
+	 */
+	int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.map.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * liefert den zu verdraengenden Key: einen abgelaufenen, sonst nach Strategie.
+	 * Die Map ist nach letztem Zugriff sortiert, der neue Eintrag steht am Ende.
+	 */
+	private Object victim(Stripe stripe) {
+		Iterator<Map.Entry<Object, Entry>> it = stripe.map.entrySet().iterator();
+		Map.Entry<Object, Entry> victim = it.next();
+		if (!lfu && !isExpired(victim.getValue())) {
+			return victim.getKey();
+		}
+		for (int remaining = stripe.map.size() - 2; remaining > 0 && !isExpired(victim.getValue()); remaining--) {
+			Map.Entry<Object, Entry> candidate = it.next();
+			if (isExpired(candidate.getValue()) || (lfu && candidate.getValue().hits < victim.getValue().hits)) {
+				victim = candidate;
+			}
+		}
+		return victim.getKey();
+	}
+
+	private boolean isExpired(Entry entry) {
+		return entry.expires != 0 && clock.getAsLong() - entry.expires >= 0;
+	}
+
+	private Stripe stripe(Object key) {
+		int h = key.hashCode();
+		return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+	}
+
+
+	private static final class Stripe {
+
+		final int capacity;
+		/** in Zugriffs-Reihenfolge, der am laengsten nicht gelesene zuerst */
+		final LinkedHashMap<Object, Entry> map;
+
+		Stripe(int capacity) {
+			this.capacity = capacity;
+			this.map = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+		}
+	}
+
+	private static final class Entry {
+
+		final Object value;
+		/** Ablauf-Zeitpunkt in Nanosekunden, 0 fuer unbegrenzt */
+		final long expires;
+		int hits;
+
+		Entry(Object value, long expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package working_it.witcontainer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Invoker-Strategie per MethodHandle.invokeExact.
+ * Die Konstruktor-Argumente werden per Spreader aus dem Array uebergeben.
+ *
+ */
+public class MethodHandleInvokerFactory extends InvokerFactory {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	@Override
+	protected Invoker createInvoker(InjectionPlan plan) throws Exception {
+		Class<?> implClass = plan.getImplClass();
+		MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(implClass, MethodHandles.lookup());
+		MethodHandle constructor = spreadConstructor(lookup, plan.getConstructor());
+
+		InjectionPoint[] points = plan.getPoints();
+		MethodHandle[] setters = new MethodHandle[points.length];
+		for (int i = 0; i < points.length; i++) {
+			setters[i] = setter(lookup, points[i]).asType(SETTER_TYPE);
+		}
+		return new MethodHandleInvoker(constructor, setters);
+	}
+
+	/**
+	 * liefert den Konstruktor als MethodHandle (Object[])Object
+	 */
+	static MethodHandle spreadConstructor(MethodHandles.Lookup lookup, Constructor<?> constructor) throws IllegalAccessException {
+		MethodHandle target = lookup.unreflectConstructor(constructor);
+		return target.asSpreader(Object[].class, constructor.getParameterTypes().length).asType(CONSTRUCTOR_TYPE);
+	}
+
+	/**
+	 * liefert den Setter bzw. den Feld-Zugriff der Injektionsstelle
+	 */
+	static MethodHandle setter(MethodHandles.Lookup lookup, InjectionPoint point) throws IllegalAccessException {
+		if (point.getField() != null) {
+			return lookup.unreflectSetter(point.getField());
+		}
+		return lookup.unreflect(point.getMethod());
+	}
+
+
+	private static final class MethodHandleInvoker implements Invoker {
+
+		private final MethodHandle constructor;
+		private final MethodHandle[] setters;
+
+		MethodHandleInvoker(MethodHandle constructor, MethodHandle[] setters) {
+			this.constructor = constructor;
+			this.setters = setters;
+		}
+
+		public Object newInstance(Object[] args) throws Exception {
+			try {
+				return (Object) constructor.invokeExact(args);
+			} catch (Exception e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		}
+
+		public void inject(Object instance, int index, Object value) throws Exception {
+			try {
+				setters[index].invokeExact(instance, value);
+			} catch (Exception e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,227 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Monitor-Implementierung, die die Ereignisse des Containers im Speicher
+ * auswertet: Zaehler und Latenz-Histogramme je Key.
+ * Text-Meldungen werden ignoriert.
+ *
+ */
+public class MetricsMonitor implements Monitor {
+
+	private final Map<Object, Metrics> metrics = new ConcurrentHashMap<Object, Metrics>();
+
+	private static final Function<Object, Metrics> NEW_METRICS = new Function<Object, Metrics>() {
+		public Metrics apply(Object key) {
+			return new Metrics();
+		}
+	};
+
+	/**
+	 * Text-Meldungen werden nicht ausgewertet
+	 */
+	public void log(String message) {
+	}
+
+	/**
+	 * liefert die Metriken zum Key, legt sie ggf. an
+	 *
+	 * @param key Key der Bindung
+	 * @return Metriken
+	 */
+	public Metrics getMetrics(Object key) {
+		Metrics m = metrics.get(key);
+		if (m == null) {
+			m = metrics.computeIfAbsent(key, NEW_METRICS);
+		}
+		return m;
+	}
+
+	/**
+	 * @return alle bisher erfassten Metriken je Key
+	 */
+	public Map<Object, Metrics> getAllMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Zuruecksetzen aller Metriken
+	 */
+	public void reset() {
+		metrics.clear();
+	}
+
+	public void onBind(Object key) {
+		getMetrics(key).binds.increment();
+	}
+
+	public void onResolveEnd(Object key, int level, long nanos) {
+		getMetrics(key).resolve.record(nanos);
+	}
+
+	public void onCacheHit(Object key, int level) {
+		getMetrics(key).cacheHits.increment();
+	}
+
+	public void onCreate(Object key, Class<?> implClass, int level) {
+		getMetrics(key).creations.increment();
+	}
+
+	public void onConstruct(Object key, Class<?> implClass, int level, long nanos) {
+		getMetrics(key).construct.record(nanos);
+	}
+
+	public void onInject(Object key, Object dependencyKey, int level, long nanos) {
+		getMetrics(key).inject.record(nanos);
+	}
+
+	public void onStart(Object key, int level, long nanos) {
+		getMetrics(key).start.record(nanos);
+	}
+
+	public void onProviderGet(Object key, Object provider, Object provided, int level, long nanos) {
+		getMetrics(key).providerGet.record(nanos);
+	}
+
+	public void onStop(Object key, long nanos) {
+		getMetrics(key).stop.record(nanos);
+	}
+
+	public void onMethodCacheHit(Object key, Method method) {
+		getMetrics(key).methodCacheHits.increment();
+	}
+
+	public void onMethodCacheMiss(Object key, Method method, long nanos) {
+		getMetrics(key).methodCacheMiss.record(nanos);
+	}
+
+	public void onMethodCacheEviction(Object key, Method method, int count) {
+		getMetrics(key).methodCacheEvictions.add(count);
+	}
+
+	/**
+	 * liefert einen Bericht ueber alle Keys
+	 *
+	 * @return Bericht, eine Zeile pro Key und Messgroesse
+	 */
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Object, Metrics> entry : metrics.entrySet()) {
+			sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return report();
+	}
+
+
+	/**
+	 * Metriken zu einem Key
+	 */
+	public static class Metrics {
+
+		private final LongAdder binds = new LongAdder();
+		private final LongAdder cacheHits = new LongAdder();
+		private final LongAdder creations = new LongAdder();
+		private final LatencyHistogram resolve = new LatencyHistogram();
+		private final LatencyHistogram construct = new LatencyHistogram();
+		private final LatencyHistogram inject = new LatencyHistogram();
+		private final LatencyHistogram start = new LatencyHistogram();
+		private final LatencyHistogram providerGet = new LatencyHistogram();
+		private final LatencyHistogram stop = new LatencyHistogram();
+		private final LongAdder methodCacheHits = new LongAdder();
+		private final LongAdder methodCacheEvictions = new LongAdder();
+		private final LatencyHistogram methodCacheMiss = new LatencyHistogram();
+
+		public long getBinds() {
+			return binds.sum();
+		}
+
+		public long getCacheHits() {
+			return cacheHits.sum();
+		}
+
+		public long getCreations() {
+			return creations.sum();
+		}
+
+		/** Gesamtdauer je Aufloesung inkl. Abhaengigkeiten */
+		public LatencyHistogram getResolve() {
+			return resolve;
+		}
+
+		/** Dauer der Konstruktor-Aufrufe */
+		public LatencyHistogram getConstruct() {
+			return construct;
+		}
+
+		/** Dauer je Setter-Injection inkl. Aufloesen der Abhaengigkeit */
+		public LatencyHistogram getInject() {
+			return inject;
+		}
+
+		/** Dauer der start-Aufrufe */
+		public LatencyHistogram getStart() {
+			return start;
+		}
+
+		/** Dauer der Provider.get-Aufrufe */
+		public LatencyHistogram getProviderGet() {
+			return providerGet;
+		}
+
+		/** Dauer der stop- bzw. close-Aufrufe */
+		public LatencyHistogram getStop() {
+			return stop;
+		}
+
+		/** Anzahl der aus dem Cache gelieferten Ergebnisse von {@link Cached}-Methoden */
+		public long getMethodCacheHits() {
+			return methodCacheHits.sum();
+		}
+
+		/** Anzahl der verdraengten bzw. abgelaufenen Eintraege der Caches */
+		public long getMethodCacheEvictions() {
+			return methodCacheEvictions.sum();
+		}
+
+		/** Dauer der Aufrufe von {@link Cached}-Methoden ohne Treffer, Anzahl = Fehlschlaege */
+		public LatencyHistogram getMethodCacheMiss() {
+			return methodCacheMiss;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append("creations=").append(getCreations()).append(" cacheHits=").append(getCacheHits());
+			append(sb, "resolve", resolve);
+			append(sb, "construct", construct);
+			append(sb, "inject", inject);
+			append(sb, "start", start);
+			append(sb, "providerGet", providerGet);
+			append(sb, "stop", stop);
+			if (getMethodCacheHits() > 0 || methodCacheMiss.getCount() > 0) {
+				// die Anzahl der Fehlschlaege steht im Histogramm
+				sb.append("\n  methodCache: hits=").append(getMethodCacheHits())
+						.append(" evictions=").append(getMethodCacheEvictions());
+				append(sb, "methodCacheMiss", methodCacheMiss);
+			}
+			return sb.toString();
+		}
+
+		private static void append(StringBuilder sb, String name, LatencyHistogram histogram) {
+			if (histogram.getCount() > 0) {
+				sb.append("\n  ").append(name).append(": ").append(histogram);
+			}
+		}
+	}
+
+}
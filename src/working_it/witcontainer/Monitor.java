@@ -1,8 +1,17 @@
 package working_it.witcontainer;
 
+import java.lang.reflect.Method;
+
 /**
  * Interface fuer Monitoring des Injection-Prozesses
  *
+ * Der Container meldet strukturierte Ereignisse (on...-Methoden) mit Zeiten
+ * in Nanosekunden. Die default-Implementierungen setzen die Ereignisse in
+ * Text-Meldungen um, so dass einfache Monitore wie {@link ConsoleMonitor}
+ * oder {@link LoggerMonitor} nur {@link #log(String)} implementieren.
+ * Der Meldungstext wird dabei erst zusammengesetzt, wenn der Monitor
+ * per {@link #isEnabled()} Meldungen annimmt. Ist der Monitor nicht aktiv,
+ * werden auch keine Ereignisse gemeldet und keine Zeiten gemessen.
  *
  * @author Bernd Ledig
  *
@@ -10,4 +19,176 @@ package working_it.witcontainer;
 public interface Monitor {
 
 	public void log(String message);
+
+	/**
+	 * liefert, ob der Monitor ueberhaupt Meldungen ausgibt.
+	 * Ist dies nicht der Fall, werden keine Meldungstexte erzeugt.
+	 *
+	 * @return true, wenn Meldungen ausgegeben werden
+	 */
+	public default boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Protokolliert eine Meldung mit einem Parameter.
+	 * Jedes "{}" im Text wird durch den naechsten Parameter ersetzt.
+	 *
+	 * @param level Aufruf-Level (wird als Praefix ausgegeben)
+	 * @param message Meldungstext mit Platzhaltern
+	 * @param arg Parameter
+	 */
+	public default void log(int level, String message, Object arg) {
+		if (isEnabled())
+			log(MonitorFormat.format(level, message, arg, null));
+	}
+
+	/**
+	 * Protokolliert eine Meldung mit zwei Parametern.
+	 * Jedes "{}" im Text wird durch den naechsten Parameter ersetzt.
+	 *
+	 * @param level Aufruf-Level (wird als Praefix ausgegeben)
+	 * @param message Meldungstext mit Platzhaltern
+	 * @param arg1 erster Parameter
+	 * @param arg2 zweiter Parameter
+	 */
+	public default void log(int level, String message, Object arg1, Object arg2) {
+		if (isEnabled())
+			log(MonitorFormat.format(level, message, arg1, arg2));
+	}
+
+	/**
+	 * Ereignis: Key wurde gebunden
+	 *
+	 * @param key gebundener Key
+	 */
+	public default void onBind(Object key) {
+	}
+
+	/**
+	 * Ereignis: Aufloesen eines Keys beginnt
+	 *
+	 * @param key aufzuloesender Key
+	 * @param level Aufruf-Level
+	 */
+	public default void onResolveStart(Object key, int level) {
+	}
+
+	/**
+	 * Ereignis: Aufloesen eines Keys ist beendet
+	 *
+	 * @param key aufgeloester Key
+	 * @param level Aufruf-Level
+	 * @param nanos Gesamtdauer inkl. Erzeugung aller Abhaengigkeiten
+	 */
+	public default void onResolveEnd(Object key, int level, long nanos) {
+	}
+
+	/**
+	 * Ereignis: Instance existierte bereits
+	 *
+	 * @param key aufgeloester Key
+	 * @param level Aufruf-Level
+	 */
+	public default void onCacheHit(Object key, int level) {
+	}
+
+	/**
+	 * Ereignis: Instance wird neu erzeugt
+	 *
+	 * @param key Key der Instance
+	 * @param implClass Implementierungs-Klasse
+	 * @param level Aufruf-Level
+	 */
+	public default void onCreate(Object key, Class<?> implClass, int level) {
+		log(level, "Creating instance for key={} with implementation {}", key, implClass);
+	}
+
+	/**
+	 * Ereignis: Konstruktor wurde ausgefuehrt
+	 *
+	 * @param key Key der Instance
+	 * @param implClass Implementierungs-Klasse
+	 * @param level Aufruf-Level
+	 * @param nanos Dauer des Konstruktor-Aufrufs
+	 */
+	public default void onConstruct(Object key, Class<?> implClass, int level, long nanos) {
+	}
+
+	/**
+	 * Ereignis: eine Abhaengigkeit wurde injected
+	 *
+	 * @param key Key der Instance, in welche injected wurde
+	 * @param dependencyKey Key der injecteten Abhaengigkeit
+	 * @param level Aufruf-Level
+	 * @param nanos Dauer inkl. Aufloesen der Abhaengigkeit
+	 */
+	public default void onInject(Object key, Object dependencyKey, int level, long nanos) {
+		log(level, "Injected dependency {} into {}", dependencyKey, key);
+	}
+
+	/**
+	 * Ereignis: start-Methode wurde aufgerufen
+	 *
+	 * @param key Key der Instance
+	 * @param level Aufruf-Level
+	 * @param nanos Dauer des start-Aufrufs
+	 */
+	public default void onStart(Object key, int level, long nanos) {
+		log(level, "Called start on {}", key);
+	}
+
+	/**
+	 * Ereignis: stop- bzw. close-Methode wurde aufgerufen
+	 *
+	 * @param key Key der Instance
+	 * @param nanos Dauer des stop-Aufrufs
+	 */
+	public default void onStop(Object key, long nanos) {
+		log(0, "Called stop on {} ({} ns)", key, Long.valueOf(nanos));
+	}
+
+	/**
+	 * Ereignis: get eines Providers wurde aufgerufen
+	 *
+	 * @param key Key der Bindung
+	 * @param provider der Provider
+	 * @param provided gelieferte Instance
+	 * @param level Aufruf-Level
+	 * @param nanos Dauer des get-Aufrufs
+	 */
+	public default void onProviderGet(Object key, Object provider, Object provided, int level, long nanos) {
+		log(level, "{} is a provider, provide: {}", provider.getClass(), (provided!=null) ? provided.getClass() : null);
+	}
+
+	/**
+	 * Ereignis: Ergebnis einer {@link Cached}-Methode wurde aus dem Cache geliefert
+	 *
+	 * @param key Key der Bindung
+	 * @param method die aufgerufene Methode des Interfaces
+	 */
+	public default void onMethodCacheHit(Object key, Method method) {
+	}
+
+	/**
+	 * Ereignis: Ergebnis einer {@link Cached}-Methode war nicht im Cache
+	 * und wurde berechnet
+	 *
+	 * @param key Key der Bindung
+	 * @param method die aufgerufene Methode des Interfaces
+	 * @param nanos Dauer des Aufrufs
+	 */
+	public default void onMethodCacheMiss(Object key, Method method, long nanos) {
+	}
+
+	/**
+	 * Ereignis: Eintraege des Caches einer {@link Cached}-Methode wurden
+	 * verdraengt bzw. abgelaufene ersetzt
+	 *
+	 * @param key Key der Bindung
+	 * @param method die Methode des Interfaces
+	 * @param count Anzahl der Eintraege
+	 */
+	public default void onMethodCacheEviction(Object key, Method method, int count) {
+	}
 }
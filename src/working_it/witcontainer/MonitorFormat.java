@@ -0,0 +1,66 @@
+package working_it.witcontainer;
+
+/**
+ * Helper zum Zusammensetzen der Monitor-Meldungen.
+ * Wird nur aufgerufen, wenn der Monitor die Meldung auch ausgibt.
+ *
+ */
+final class MonitorFormat {
+
+	/** vorberechnete Level-Praefixe "#---# " */
+	private static final String[] PREFIXES = new String[32];
+
+	static {
+		StringBuilder sb = new StringBuilder();
+		for (int level = 0; level < PREFIXES.length; level++) {
+			PREFIXES[level] = "#"+sb+"# ";
+			sb.append('-');
+		}
+	}
+
+	private MonitorFormat() {
+	}
+
+	/**
+	 * liefert das Level-Praefix
+	 *
+	 * @param level Aufruf-Level
+	 * @return Praefix
+	 */
+	static String levelPrefix(int level) {
+		if (level < 0) {
+			return "";
+		}
+		if (level < PREFIXES.length) {
+			return PREFIXES[level];
+		}
+		StringBuilder sb = new StringBuilder(level + 3).append('#');
+		while(--level>=0) sb.append('-');
+		return sb.append("# ").toString();
+	}
+
+	/**
+	 * Setzt die Meldung zusammen, die Platzhalter "{}" werden der Reihe nach
+	 * durch arg1 und arg2 ersetzt.
+	 *
+	 * @param level Aufruf-Level (kleiner 0: ohne Praefix)
+	 * @param message Meldungstext mit Platzhaltern
+	 * @param arg1 erster Parameter
+	 * @param arg2 zweiter Parameter
+	 * @return fertige Meldung
+	 */
+	static String format(int level, String message, Object arg1, Object arg2) {
+		StringBuilder sb = new StringBuilder(message.length() + 64);
+		sb.append(levelPrefix(level));
+		int start = 0;
+		int argIndex = 0;
+		int pos;
+		while ((pos = message.indexOf("{}", start)) >= 0 && argIndex < 2) {
+			sb.append(message, start, pos).append(argIndex == 0 ? arg1 : arg2);
+			argIndex++;
+			start = pos + 2;
+		}
+		return sb.append(message, start, message.length()).toString();
+	}
+
+}
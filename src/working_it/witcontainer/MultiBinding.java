@@ -0,0 +1,107 @@
+package working_it.witcontainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gemeinsame Basis von {@link SetBinding} und {@link MapBinding}.
+ *
+ * Eine Multi-Bindung ist selbst der Provider ihrer Collection: sie ist unter
+ * einem internen Key als Konstante gebunden, der eigentliche Key per
+ * {@link ProviderPolicy#CACHED} an diesen Provider. Die Collection wird also
+ * beim ersten Zugriff einmal aufgebaut, danach ist jeder Zugriff ein
+ * einfacher Resolver-Aufruf.
+ * Beitraege mit Implementierungs-Klasse werden als eigene Singleton-Bindungen
+ * unter internen Keys gebunden und damit auch von validate/startAll erfasst.
+ *
+ */
+abstract class MultiBinding implements Provider<Object> {
+
+	final WitContainer container;
+	final Object key;
+	/** Keys der Beitraege in Reihenfolge der Bindung */
+	final List<Object> elementKeys = new ArrayList<Object>();
+
+	MultiBinding(WitContainer container, Object key) {
+		super();
+		this.container = container;
+		this.key = key;
+	}
+
+	/**
+	 * Binden der Multi-Bindung im Container
+	 */
+	void register() {
+		Object providerKey = new Key(key, null);
+		container.bind(providerKey).to(this);
+		container.bind(key).toProvider(providerKey, ProviderPolicy.CACHED);
+	}
+
+	/**
+	 * bindet einen neuen Beitrag unter einem internen Key
+	 *
+	 * @param element Unterscheidungsmerkmal des Beitrags (Index bzw. Map-Key)
+	 * @return das BindObject des Beitrags
+	 */
+	BindObject bindElement(Object element) {
+		Key elementKey = new Key(key, element);
+		BindObject bindObject = container.bind(elementKey);
+		elementKeys.add(elementKey);
+		return bindObject;
+	}
+
+	/**
+	 * fuegt einen bereits gebundenen Key als Beitrag hinzu
+	 */
+	void addElementKey(Object boundKey) {
+		if (container.isFrozen())
+			throw new ContainerFrozenException(key);
+		elementKeys.add(boundKey);
+	}
+
+	/**
+	 * liefert die Instanzen aller Beitraege in Reihenfolge der Bindung
+	 */
+	Object[] resolveAll() {
+		Object[] instances = new Object[elementKeys.size()];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = container.getInstance(elementKeys.get(i));
+		}
+		return instances;
+	}
+
+
+	/**
+	 * Interner Key der Beitraege bzw. des Providers (element==null)
+	 */
+	static final class Key {
+
+		private final Object key;
+		private final Object element;
+
+		Key(Object key, Object element) {
+			this.key = key;
+			this.element = element;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return key.equals(other.key) && (element == null ? other.element == null : element.equals(other.element));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * key.hashCode() + (element == null ? 0 : element.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "[" + (element == null ? "" : element) + "]";
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package working_it.witcontainer;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Scope, der teure Instanzen ueber einen begrenzten, lock-freien Pool
+ * wiederverwendet. Ist der Pool leer, wird eine neue Instance erzeugt.
+ * Nach Gebrauch wird die Instance per {@link #release(Object)} zurueckgegeben;
+ * implementiert sie {@link Resettable}, wird sie dabei zurueckgesetzt.
+ * Ist der Pool voll, wird die Instance verworfen.
+ *
+ * Ein PooledScope darf nur fuer eine einzige Bindung verwendet werden.
+ *
+ */
+public class PooledScope implements Scope {
+
+	private final AtomicReferenceArray<Object> slots;
+	private final int mask;
+	private final AtomicReference<BindObject> owner = new AtomicReference<BindObject>();
+
+	/**
+	 * Konstruktor
+	 *
+	 * @param capacity maximale Anzahl gepoolter Instanzen
+	 */
+	public PooledScope(int capacity) {
+		super();
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		slots = new AtomicReferenceArray<Object>(size);
+		mask = size - 1;
+	}
+
+	public Object getInstance(BindObject bindObject) {
+		if (owner.get() != bindObject && !owner.compareAndSet(null, bindObject)) {
+			throw new ServiceCreationException(bindObject.getKey(), "PooledScope is already used by key=" + owner.get().getKey());
+		}
+		Object instance = poll();
+		return (instance != null) ? instance : bindObject.newInstance();
+	}
+
+	/**
+	 * Rueckgabe einer Instance an den Pool
+	 *
+	 * @param instance die nicht mehr benoetigte Instance
+	 */
+	public void release(Object instance) {
+		if (instance instanceof Resettable) {
+			((Resettable) instance).reset();
+		}
+		int start = probe();
+		for (int i = 0; i <= mask; i++) {
+			int index = (start + i) & mask;
+			if (slots.get(index) == null && slots.compareAndSet(index, null, instance)) {
+				return;
+			}
+		}
+		// Pool ist voll, Instance wird verworfen
+	}
+
+	/**
+	 * @return Anzahl der derzeit gepoolten Instanzen
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i <= mask; i++) {
+			if (slots.get(i) != null)
+				size++;
+		}
+		return size;
+	}
+
+	private Object poll() {
+		int start = probe();
+		for (int i = 0; i <= mask; i++) {
+			int index = (start + i) & mask;
+			Object instance = slots.get(index);
+			if (instance != null && slots.compareAndSet(index, instance, null)) {
+				return instance;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Start-Slot je Thread, damit sich parallele Threads nicht um dieselben Slots streiten
+	 */
+	private int probe() {
+		return (int) Thread.currentThread().getId() & mask;
+	}
+
+}
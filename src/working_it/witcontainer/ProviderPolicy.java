@@ -0,0 +1,99 @@
+package working_it.witcontainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caching-Verhalten einer Provider-Bindung: legt fest, wann
+ * {@link Provider#get()} aufgerufen und wann das zuletzt gelieferte
+ * Object wiederverwendet wird.
+ *
+ * Beim ersten Zugriff wird die Policy zusammen mit der Provider-Instance
+ * in ein spezialisiertes Resolver-Object uebersetzt, danach ist jeder
+ * Zugriff auf die Bindung ein einziger virtueller Aufruf.
+ * Zugriffe, die aus dem Cache bedient werden, werden nicht an den Monitor gemeldet.
+ *
+ * @see BindObject#toProvider(Object, ProviderPolicy)
+ */
+public final class ProviderPolicy {
+
+	private static final int ALWAYS_NEW_KIND = 0;
+	private static final int CACHED_KIND = 1;
+	private static final int TTL_KIND = 2;
+	private static final int PER_THREAD_KIND = 3;
+
+	/**
+	 * Provider.get bei jedem Zugriff (default)
+	 */
+	public static final ProviderPolicy ALWAYS_NEW = new ProviderPolicy(ALWAYS_NEW_KIND, 0);
+
+	/**
+	 * Provider.get nur beim ersten Zugriff, danach immer dasselbe Object
+	 */
+	public static final ProviderPolicy CACHED = new ProviderPolicy(CACHED_KIND, 0);
+
+	/**
+	 * Provider.get einmal je Thread
+	 */
+	public static final ProviderPolicy PER_THREAD = new ProviderPolicy(PER_THREAD_KIND, 0);
+
+	private final int kind;
+	private final long ttlNanos;
+
+	private ProviderPolicy(int kind, long ttlNanos) {
+		super();
+		this.kind = kind;
+		this.ttlNanos = ttlNanos;
+	}
+
+	/**
+	 * Provider.get beim ersten Zugriff und jeweils nach Ablauf der angegebenen Zeit
+	 *
+	 * @param ttl Gueltigkeitsdauer des gelieferten Objects
+	 * @param unit Einheit der Gueltigkeitsdauer
+	 * @return die Policy
+	 */
+	public static ProviderPolicy ttl(long ttl, TimeUnit unit) {
+		if (ttl <= 0) {
+			throw new IllegalArgumentException("ttl must be positive: " + ttl);
+		}
+		return new ProviderPolicy(TTL_KIND, unit.toNanos(ttl));
+	}
+
+	/**
+	 * Uebersetzen der Policy in den Resolver einer Bindung
+	 *
+	 * @param provider die Provider-Instance
+	 * @param key Key der Bindung (fuer den Monitor)
+	 * @param monitor Monitor der Bindung oder null
+	 * @return der Resolver
+	 */
+	ProviderResolver compile(Provider<?> provider, Object key, Monitor monitor) {
+		switch (kind) {
+		case CACHED_KIND:
+			return new ProviderResolver.Cached(provider, key, monitor);
+		case TTL_KIND:
+			return new ProviderResolver.Ttl(provider, key, monitor, ttlNanos);
+		case PER_THREAD_KIND:
+			return new ProviderResolver.PerThread(provider, key, monitor);
+		default:
+			if (monitor == null) {
+				return new ProviderResolver.Direct(provider);
+			}
+			return new ProviderResolver.Monitored(provider, key, monitor);
+		}
+	}
+
+	@Override
+	public String toString() {
+		switch (kind) {
+		case CACHED_KIND:
+			return "CACHED";
+		case TTL_KIND:
+			return "TTL(" + ttlNanos + "ns)";
+		case PER_THREAD_KIND:
+			return "PER_THREAD";
+		default:
+			return "ALWAYS_NEW";
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package working_it.witcontainer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Spezialisierter Zugriff auf eine Provider-Bindung,
+ * erzeugt aus der {@link ProviderPolicy} der Bindung.
+ *
+ */
+abstract class ProviderResolver {
+
+	/** Platzhalter fuer einen noch nicht bzw. mit null belegten Cache */
+	private static final Object NULL = new Object();
+
+	final Provider<?> provider;
+
+	ProviderResolver(Provider<?> provider) {
+		super();
+		this.provider = provider;
+	}
+
+	/**
+	 * liefert das Object zur Bindung
+	 *
+	 * @return das Object des Providers
+	 */
+	abstract Object get();
+
+	/**
+	 * Freigeben der gecachten Objekte beim dispose der Bindung,
+	 * der Resolver wird danach nicht mehr verwendet
+	 */
+	void release() {
+	}
+
+	/** Zeitquelle der TTL-Resolver */
+	private static final LongSupplier NANO_TIME = new LongSupplier() {
+		public long getAsLong() {
+			return System.nanoTime();
+		}
+	};
+
+	/**
+	 * Aufruf von Provider.get, meldet den Aufruf an den Monitor
+	 */
+	static Object fetch(Provider<?> provider, Object key, Monitor monitor) {
+		if (monitor == null || !monitor.isEnabled()) {
+			return provider.get();
+		}
+		long start = System.nanoTime();
+		Object object = provider.get();
+		monitor.onProviderGet(key, provider, object, ResolutionContext.current().depth(), System.nanoTime() - start);
+		return object;
+	}
+
+	static Object mask(Object object) {
+		return (object == null) ? NULL : object;
+	}
+
+	static Object unmask(Object object) {
+		return (object == NULL) ? null : object;
+	}
+
+	/**
+	 * ALWAYS_NEW ohne Monitor
+	 */
+	static final class Direct extends ProviderResolver {
+
+		Direct(Provider<?> provider) {
+			super(provider);
+		}
+
+		Object get() {
+			return provider.get();
+		}
+	}
+
+	/**
+	 * ALWAYS_NEW mit Monitor
+	 */
+	static final class Monitored extends ProviderResolver {
+
+		private final Object key;
+		private final Monitor monitor;
+
+		Monitored(Provider<?> provider, Object key, Monitor monitor) {
+			super(provider);
+			this.key = key;
+			this.monitor = monitor;
+		}
+
+		Object get() {
+			return fetch(provider, key, monitor);
+		}
+	}
+
+	/**
+	 * CACHED: Provider.get genau einmal
+	 */
+	static final class Cached extends ProviderResolver {
+
+		private final Object key;
+		private final Monitor monitor;
+		private volatile Object value;
+
+		Cached(Provider<?> provider, Object key, Monitor monitor) {
+			super(provider);
+			this.key = key;
+			this.monitor = monitor;
+		}
+
+		Object get() {
+			Object current = value;
+			if (current == null) {
+				synchronized (this) {
+					current = value;
+					if (current == null) {
+						current = mask(fetch(provider, key, monitor));
+						value = current;
+					}
+				}
+			}
+			return unmask(current);
+		}
+	}
+
+	/**
+	 * TTL: Provider.get nach Ablauf der Gueltigkeitsdauer erneut
+	 */
+	static final class Ttl extends ProviderResolver {
+
+		private final Object key;
+		private final Monitor monitor;
+		private final long ttlNanos;
+		private final LongSupplier clock;
+		private volatile Entry entry;
+
+		Ttl(Provider<?> provider, Object key, Monitor monitor, long ttlNanos) {
+			this(provider, key, monitor, ttlNanos, NANO_TIME);
+		}
+
+		/**
+		 * @param clock Zeitquelle in Nanosekunden
+		 */
+		Ttl(Provider<?> provider, Object key, Monitor monitor, long ttlNanos, LongSupplier clock) {
+			super(provider);
+			this.key = key;
+			this.monitor = monitor;
+			this.ttlNanos = ttlNanos;
+			this.clock = clock;
+		}
+
+		Object get() {
+			Entry current = entry;
+			if (current == null || clock.getAsLong() - current.expires >= 0) {
+				synchronized (this) {
+					current = entry;
+					if (current == null || clock.getAsLong() - current.expires >= 0) {
+						Object object = mask(fetch(provider, key, monitor));
+						current = new Entry(object, clock.getAsLong() + ttlNanos);
+						entry = current;
+					}
+				}
+			}
+			return unmask(current.value);
+		}
+
+		private static final class Entry {
+			final Object value;
+			final long expires;
+
+			Entry(Object value, long expires) {
+				this.value = value;
+				this.expires = expires;
+			}
+		}
+	}
+
+	/**
+	 * PER_THREAD: Provider.get einmal je Thread. Die Objekte liegen je Thread
+	 * in einem Holder, die zusaetzlich in holders gehalten werden, damit
+	 * {@link #release()} die Objekte aller Threads freigeben kann.
+	 */
+	static final class PerThread extends ProviderResolver {
+
+		private final Object key;
+		private final Monitor monitor;
+		private final ThreadLocal<Object[]> values = new ThreadLocal<Object[]>();
+		private final Queue<Object[]> holders = new ConcurrentLinkedQueue<Object[]>();
+
+		PerThread(Provider<?> provider, Object key, Monitor monitor) {
+			super(provider);
+			this.key = key;
+			this.monitor = monitor;
+		}
+
+		Object get() {
+			Object[] holder = values.get();
+			if (holder == null) {
+				holder = new Object[1];
+				values.set(holder);
+				holders.add(holder);
+			}
+			Object current = holder[0];
+			if (current == null) {
+				current = mask(fetch(provider, key, monitor));
+				holder[0] = current;
+			}
+			return unmask(current);
+		}
+
+		@Override
+		void release() {
+			values.remove();
+			for (Object[] holder; (holder = holders.poll()) != null; ) {
+				holder[0] = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invoker-Strategie per Reflection (Constructor.newInstance / Method.invoke / Field.set)
+ *
+ */
+public class ReflectionInvokerFactory extends InvokerFactory {
+
+	@Override
+	protected Invoker createInvoker(InjectionPlan plan) throws Exception {
+		Constructor<?> constructor = plan.getConstructor();
+		if (!Modifier.isPublic(constructor.getModifiers()))
+			constructor.setAccessible(true);
+		InjectionPoint[] points = plan.getPoints();
+		Method[] setters = new Method[points.length];
+		Field[] fields = new Field[points.length];
+		for (int i = 0; i < points.length; i++) {
+			setters[i] = points[i].getMethod();
+			fields[i] = points[i].getField();
+			if (fields[i] != null)
+				fields[i].setAccessible(true);
+		}
+		return new ReflectionInvoker(constructor, setters, fields);
+	}
+
+	@Override
+	protected Invoker fallback(InjectionPlan plan, Exception e) {
+		// es gibt keine weitere Rueckfallloesung
+		throw new ServiceCreationException(plan.getImplClass(), e);
+	}
+
+
+	private static final class ReflectionInvoker implements Invoker {
+
+		private final Constructor<?> constructor;
+		private final Method[] setters;
+		private final Field[] fields;
+
+		ReflectionInvoker(Constructor<?> constructor, Method[] setters, Field[] fields) {
+			this.constructor = constructor;
+			this.setters = setters;
+			this.fields = fields;
+		}
+
+		public Object newInstance(Object[] args) throws Exception {
+			return constructor.newInstance(args);
+		}
+
+		public void inject(Object instance, int index, Object value) throws Exception {
+			Method setter = setters[index];
+			if (setter != null) {
+				setter.invoke(instance, value);
+			} else {
+				fields[index].set(instance, value);
+			}
+		}
+	}
+
+}
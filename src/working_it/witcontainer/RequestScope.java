@@ -0,0 +1,64 @@
+package working_it.witcontainer;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Scope mit einer Instance je Request.
+ * Ein Request wird im aktuellen Thread per {@link #begin()} gestartet
+ * und per {@link #end()} beendet:
+ *
+ * <pre>
+ * Scopes.REQUEST.begin();
+ * try {
+ *     ...
+ * } finally {
+ *     Scopes.REQUEST.end();
+ * }
+ * </pre>
+ *
+ */
+public class RequestScope implements Scope {
+
+	private final ThreadLocal<Map<BindObject, Object>> instances = new ThreadLocal<Map<BindObject, Object>>();
+
+	/**
+	 * Beginn eines Requests im aktuellen Thread
+	 */
+	public void begin() {
+		instances.set(new IdentityHashMap<BindObject, Object>());
+	}
+
+	/**
+	 * Ende des Requests im aktuellen Thread, die Instanzen werden freigegeben
+	 */
+	public void end() {
+		instances.remove();
+	}
+
+	/**
+	 * @return true, wenn im aktuellen Thread ein Request aktiv ist
+	 */
+	public boolean isActive() {
+		return instances.get() != null;
+	}
+
+	public Object getInstance(BindObject bindObject) {
+		Map<BindObject, Object> map = instances.get();
+		if (map == null) {
+			throw new ServiceCreationException(bindObject.getKey(), "no active request");
+		}
+		Object instance = map.get(bindObject);
+		if (instance == null) {
+			instance = bindObject.newInstance();
+			map.put(bindObject, instance);
+		}
+		return instance;
+	}
+
+	@Override
+	public String toString() {
+		return "REQUEST";
+	}
+
+}
@@ -0,0 +1,15 @@
+package working_it.witcontainer;
+
+/**
+ * Klassen, die dieses Interface implementieren, werden bei Rueckgabe
+ * an einen {@link PooledScope} zurueckgesetzt, bevor sie wiederverwendet werden.
+ *
+ */
+public interface Resettable {
+
+	/**
+	 * Zuruecksetzen der Instance, bevor sie an den Pool zurueckgegeben wird
+	 *
+	 */
+	public void reset();
+}
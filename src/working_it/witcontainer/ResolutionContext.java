@@ -0,0 +1,115 @@
+package working_it.witcontainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aufloesungs-Kontext eines Threads: der Stack der Bindungen, deren
+ * Instanzen der Thread gerade erzeugt.
+ *
+ * Die Tiefe des Stacks ist das Aufruf-Level fuer den Monitor, es muss daher
+ * nicht mehr durch alle Aufrufe durchgereicht werden. Wird eine Bindung
+ * erneut betreten, waehrend sie noch erzeugt wird (Konstruktor-Zyklus bzw.
+ * Zyklus nicht-singleton Bindungen), wird eine {@link DependencyCycleException}
+ * mit dem vollstaendigen Pfad geworfen, anstatt bis zum StackOverflowError
+ * zu rekursieren.
+ *
+ * Der Kontext wird je Thread einmal angelegt und wiederverwendet, Betreten
+ * und Verlassen erzeugen keine Objekte.
+ *
+ */
+final class ResolutionContext {
+
+	/**
+	 * ab dieser Tiefe werden die Abhaengigkeiten einer Bindung iterativ
+	 * vorab erzeugt, siehe {@link BindObject}
+	 */
+	static final int ITERATIVE_DEPTH = 64;
+
+	private static final ThreadLocal<ResolutionContext> CURRENT = new ThreadLocal<ResolutionContext>() {
+		@Override
+		protected ResolutionContext initialValue() {
+			return new ResolutionContext();
+		}
+	};
+
+	private BindObject[] stack = new BindObject[16];
+	private int depth;
+
+	private ResolutionContext() {
+		super();
+	}
+
+	/**
+	 * @return der Kontext des aktuellen Threads
+	 */
+	static ResolutionContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * @return Anzahl der gerade erzeugten Bindungen (Aufruf-Level)
+	 */
+	int depth() {
+		return depth;
+	}
+
+	/**
+	 * Betreten einer Bindung vor der Erzeugung ihrer Instance
+	 *
+	 * @param bindObject die Bindung
+	 * @return das Aufruf-Level der Bindung
+	 * @throws DependencyCycleException wenn die Bindung bereits erzeugt wird
+	 */
+	int enter(BindObject bindObject) {
+		if (contains(bindObject)) {
+			throw cycle(bindObject);
+		}
+		if (depth == stack.length) {
+			BindObject[] grown = new BindObject[depth * 2];
+			System.arraycopy(stack, 0, grown, 0, depth);
+			stack = grown;
+		}
+		stack[depth] = bindObject;
+		return depth++;
+	}
+
+	/**
+	 * Verlassen der zuletzt betretenen Bindung
+	 */
+	void exit() {
+		stack[--depth] = null;
+	}
+
+	/**
+	 * @return true, wenn die Bindung gerade erzeugt wird
+	 */
+	boolean contains(BindObject bindObject) {
+		for (int i = depth - 1; i >= 0; i--) {
+			if (stack[i] == bindObject) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Erzeugen der Exception zum Zyklus, der mit der angegebenen Bindung endet
+	 *
+	 * @param bindObject die erneut angeforderte Bindung
+	 * @return die Exception mit dem Pfad vom ersten Auftreten bis zur Bindung
+	 */
+	DependencyCycleException cycle(BindObject bindObject) {
+		int start = depth - 1;
+		while (start > 0 && stack[start] != bindObject) {
+			start--;
+		}
+		List<Object> path = new ArrayList<Object>(depth - start + 1);
+		for (int i = start; i < depth; i++) {
+			path.add(stack[i].getKey());
+		}
+		path.add(bindObject.getKey());
+		return new DependencyCycleException(path);
+	}
+
+}
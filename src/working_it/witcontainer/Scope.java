@@ -0,0 +1,20 @@
+package working_it.witcontainer;
+
+/**
+ * Scope einer Bindung: legt fest, wann eine neue Instance erzeugt
+ * und wann eine vorhandene wiederverwendet wird.
+ * Die eingebauten Scopes stehen in {@link Scopes} zur Verfuegung.
+ *
+ * @see BindObject#inScope(Scope)
+ */
+public interface Scope {
+
+	/**
+	 * liefert die Instance zum BindObject innerhalb dieses Scopes.
+	 * Neue Instanzen werden per {@link BindObject#newInstance()} erzeugt.
+	 *
+	 * @param bindObject die Bindung
+	 * @return die Instance
+	 */
+	public Object getInstance(BindObject bindObject);
+}
@@ -0,0 +1,61 @@
+package working_it.witcontainer;
+
+/**
+ * Die eingebauten Scopes
+ *
+ */
+public final class Scopes {
+
+	/**
+	 * Eine Instance je Container (default)
+	 */
+	public static final Scope SINGLETON = new Scope() {
+		public Object getInstance(BindObject bindObject) {
+			return bindObject.getSingleton();
+		}
+
+		@Override
+		public String toString() {
+			return "SINGLETON";
+		}
+	};
+
+	/**
+	 * Bei jedem Zugriff eine neue Instance
+	 */
+	public static final Scope PROTOTYPE = new Scope() {
+		public Object getInstance(BindObject bindObject) {
+			return bindObject.newInstance();
+		}
+
+		@Override
+		public String toString() {
+			return "PROTOTYPE";
+		}
+	};
+
+	/**
+	 * Eine Instance je Thread. Die Instanzen werden per
+	 * {@link WitContainer#dispose()} bzw. {@link WitContainer#close()}
+	 * fuer alle Threads freigegeben.
+	 */
+	public static final Scope THREAD = new Scope() {
+		public Object getInstance(BindObject bindObject) {
+			return bindObject.getThreadInstance();
+		}
+
+		@Override
+		public String toString() {
+			return "THREAD";
+		}
+	};
+
+	/**
+	 * Eine Instance je Request, siehe {@link RequestScope#begin()}
+	 */
+	public static final RequestScope REQUEST = new RequestScope();
+
+	private Scopes() {
+	}
+
+}
@@ -0,0 +1,78 @@
+package working_it.witcontainer;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * Multi-Bindung mehrerer Implementierungen unter einem Key, z.B. Plugins:
+ *
+ * <pre>
+ * container.bindSet("handlers").add(XmlHandler.class).add(JsonHandler.class);
+ * container.bindSet(Handler[].class).add(XmlHandler.class).add(JsonHandler.class);
+ * </pre>
+ *
+ * Injected bzw. per getInstance geliefert wird ein unveraenderliches Set der
+ * Instanzen in Reihenfolge der Bindung. Ist der Key eine Array-Klasse, wird
+ * statt dessen ein Array dieses Typs geliefert (nicht veraendern!), so dass
+ * z.B. <code>@Inject public void setHandlers(Handler[] handlers)</code>
+ * ohne Angabe eines Keys funktioniert.
+ *
+ * Alle Beitraege muessen vor dem ersten Zugriff hinzugefuegt werden.
+ *
+ * @see WitContainer#bindSet(Object)
+ */
+public final class SetBinding extends MultiBinding {
+
+	SetBinding(WitContainer container, Object key) {
+		super(container, key);
+	}
+
+	/**
+	 * Hinzufuegen einer Implementierungs-Klasse, die als Singleton erzeugt wird
+	 *
+	 * @param implClass die Implementierungs-Klasse
+	 * @return this
+	 */
+	public SetBinding add(Class<?> implClass) {
+		bindElement(Integer.valueOf(elementKeys.size())).to(implClass);
+		return this;
+	}
+
+	/**
+	 * Hinzufuegen einer fertigen Instance
+	 *
+	 * @param instance die Instance
+	 * @return this
+	 */
+	public SetBinding add(Object instance) {
+		bindElement(Integer.valueOf(elementKeys.size())).to(instance);
+		return this;
+	}
+
+	/**
+	 * Hinzufuegen der Instance einer bereits vorhandenen Bindung
+	 *
+	 * @param boundKey Key der Bindung
+	 * @return this
+	 */
+	public SetBinding addKey(Object boundKey) {
+		addElementKey(boundKey);
+		return this;
+	}
+
+	/**
+	 * Aufbau des Sets bzw. Arrays, wird je Container nur einmal aufgerufen
+	 */
+	public Object get() {
+		Object[] instances = resolveAll();
+		if (key instanceof Class && ((Class<?>) key).isArray()) {
+			Object array = Array.newInstance(((Class<?>) key).getComponentType(), instances.length);
+			System.arraycopy(instances, 0, array, 0, instances.length);
+			return array;
+		}
+		return Collections.unmodifiableSet(new LinkedHashSet<Object>(Arrays.asList(instances)));
+	}
+
+}
@@ -0,0 +1,17 @@
+package working_it.witcontainer;
+
+/**
+ * Klassen, die dieses Interface implementieren, stellen eine stop-Methode bereit,
+ * die beim Schliessen des Containers ({@link WitContainer#close()}) aufgerufen wird,
+ * nachdem alle von ihnen abhaengigen Instanzen beendet sind.
+ * Alternativ wird bei Instanzen, die {@link AutoCloseable} implementieren, close aufgerufen.
+ *
+ */
+public interface Stoppable {
+
+	/**
+	 * Called on close of the container
+	 *
+	 */
+	public void stop();
+}
@@ -1,34 +1,102 @@
 package working_it.witcontainer;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Sehr schnelle und minimalistische IoC -Container-Implementierung
  * basierend auf Injection per Annotations.
  * Derzeit gelten folgende Praemisse:
- *  - Nur Setter-Injection mit nur einem Parameter
- *  - erzeugte Instancen sind Singletons 
+ *  - Setter-Injection (nur ein Parameter), Feld- und Konstruktor-Injection
+ *  - erzeugte Instancen sind Singletons, andere Scopes (Prototype, Thread,
+ *    Request, Pool) per {@link BindObject#inScope(Scope)}
  *  - Unterstuetzt Provider
  *  
  * thread-sicher im Bereich der Erzeugung (sprich getInstance).
  * Alle bind-Aufrufe sind nicht thread-sicher, da davon ausgegangen wird,
  * dass das Binden von einen einzelnen Prozess gemacht wird.
+ * Soll parallel gebunden werden, ist der Container mit concurrentBind=true
+ * zu erzeugen.
+ * 
+ * Nach dem Binden kann der Container per {@link #freeze()} eingefroren werden,
+ * danach erfolgen die Zugriffe ueber eine unveraenderliche, auf Lesen optimierte
+ * Tabelle und weitere bind-Aufrufe werden abgewiesen.
+ *
+ * Per {@link #build()} werden alle Bindungen vorab geprueft, die Keys der
+ * Injektionsstellen direkt zu den Ziel-Bindungen aufgeloest und der
+ * Container eingefroren.
+ *
+ * Per {@link #createChild()} lassen sich Kind-Container erzeugen, z.B. je
+ * Mandant oder Request. Ein Kind sucht zuerst in den eigenen Bindungen und
+ * dann im Eltern-Container; dessen Singletons werden gemeinsam genutzt.
+ * {@link #dispose()} gibt nur die eigenen Instanzen des Kindes frei.
+ *
+ * Per {@link #close()} werden die erzeugten Singletons in umgekehrter
+ * Abhaengigkeits-Reihenfolge beendet ({@link Stoppable} bzw. {@link AutoCloseable}).
  *
  * @author Bernd Ledig, Thorsten Fehre
  *
  */
-public class WitContainer {
+public class WitContainer implements AutoCloseable {
+	
+	/** Timeout je Instance in Sekunden fuer {@link #close()} */
+	public static final long DEFAULT_STOP_TIMEOUT = 30;
+	
+	/**  uebergeordneter Container oder null   */
+	private final WitContainer parent;
 	
 	/**  Map mit den BindObjects   */
 	private final Map<Object, BindObject> bindObjects;
 	
+	/** true, wenn parallel gebunden werden darf */
+	private final boolean concurrentBind;
+	
+	/**  Lese-Tabelle nach dem freeze, bis dahin null   */
+	private volatile BindTable frozenTable;
+	
 	
 	/**
 	 * optionaler Monitor, welcher die Erzeugung protokolliert
 	 */
 	private Monitor monitor;
 	
+	/**
+	 * Erzeugungs-Reihenfolge der Singletons fuer {@link ContainerSnapshot},
+	 * null solange nicht aufgezeichnet wird
+	 */
+	private volatile Queue<BindObject> creationOrder;
+	
+	/**
+	 * Strategie zum Erzeugen der Instancen und Aufrufen der Setter
+	 */
+	private InvokerFactory invokerFactory = InvokerFactory.LAMBDA;
+	
+	/**
+	 * per Klassen-Namen gebundene Class-Keys (siehe {@link #bindClassName(String)}),
+	 * null solange es keine gibt
+	 */
+	private volatile Map<String, BindObject> classNameBindings;
+	
 
 	/**
 	 * Erzeugt einen IoC-Container mit default Einstellungen
@@ -36,7 +104,26 @@ public class WitContainer {
 	 */
 	public WitContainer() {
 		super();
+		parent = null;
+		bindObjects = new HashMap<Object, BindObject>();
+		concurrentBind = false;
+	}
+
+	/**
+	 * Erzeugt einen Kind-Container zum angegebenen Eltern-Container.
+	 * Monitor und Invoker-Strategie werden vom Eltern-Container uebernommen.
+	 * Die Erzeugung ist billig, die interne HashMap legt ihre Tabelle
+	 * erst beim ersten bind an.
+	 *
+	 * @param parent der Eltern-Container
+	 */
+	public WitContainer(WitContainer parent) {
+		super();
+		this.parent = parent;
 		bindObjects = new HashMap<Object, BindObject>();
+		concurrentBind = false;
+		monitor = parent.getMonitor();
+		invokerFactory = parent.getInvokerFactory();
 	}
 
 	/**
@@ -45,20 +132,64 @@ public class WitContainer {
 	 * @param initialCapacity Initial-Groesse der internen HashMap fuer Klassen/Instancen
 	 */
 	public WitContainer(int initialCapacity) {
+		this(initialCapacity, false);
+	}
+
+	/**
+	 * Erzeugt einen IoC-Container
+	 *
+	 * @param initialCapacity Initial-Groesse der internen HashMap fuer Klassen/Instancen
+	 * @param concurrentBind true, wenn bind von mehreren Threads parallel aufgerufen werden darf
+	 */
+	public WitContainer(int initialCapacity, boolean concurrentBind) {
 		super();
-		bindObjects = new HashMap<Object, BindObject>(initialCapacity);
+		this.parent = null;
+		this.concurrentBind = concurrentBind;
+		if (concurrentBind) {
+			bindObjects = new ConcurrentHashMap<Object, BindObject>(initialCapacity);
+		} else {
+			bindObjects = new HashMap<Object, BindObject>(initialCapacity);
+		}
+	}
+
+	/**
+	 * Erzeugt einen Kind-Container zu diesem Container
+	 *
+	 * @return der Kind-Container
+	 * @see #WitContainer(WitContainer)
+	 */
+	public WitContainer createChild() {
+		return new WitContainer(this);
+	}
+
+	/**
+	 * @return der Eltern-Container oder null
+	 */
+	public WitContainer getParent() {
+		return parent;
 	}
 
 	/**
-	 * Binden  einer Implementierungs-Klasse per Object-Key
+	 * Binden  einer Implementierungs-Klasse per Object-Key.
+	 * In einem Kind-Container darf ein Key des Eltern-Containers
+	 * neu gebunden werden, die lokale Bindung hat dann Vorrang.
 	 *
 	 * @param key  zum Auffinden der Implementierung
 	 */
 	public BindObject bind(Object key) {
-		if(bindObjects.containsKey(key))
-			throw new DuplicateBindException(key);
+		if(frozenTable!=null)
+			throw new ContainerFrozenException(key);
 		BindObject bindObject = new BindObject(key, this);
-		bindObjects.put(key, bindObject);
+		if (concurrentBind) {
+			if (((ConcurrentHashMap<Object, BindObject>) bindObjects).putIfAbsent(key, bindObject)!=null)
+				throw new DuplicateBindException(key);
+		} else {
+			if(bindObjects.containsKey(key))
+				throw new DuplicateBindException(key);
+			bindObjects.put(key, bindObject);
+		}
+		if (monitor!=null && monitor.isEnabled())
+			monitor.onBind(key);
 		return bindObject;
 	}
 	
@@ -74,7 +205,58 @@ public class WitContainer {
 		bindObject.to(implClass);
 		return bindObject;
 	}
-	
+
+	/**
+	 * Binden eines Class-Keys per Klassen-Namen, ohne die Klasse zu laden.
+	 * Die Bindung wird bei der Suche nach einem Class-Key gefunden, zu dem es
+	 * keine direkte Bindung gibt und dessen Name uebereinstimmt.
+	 * Wird z.B. von {@link BindingModule} verwendet.
+	 *
+	 * @param className voll qualifizierter (binaerer) Name der Key-Klasse
+	 * @return das BindObject
+	 */
+	public BindObject bindClassName(String className) {
+		BindObject bindObject = bind(new ClassName(className));
+		synchronized (this) {
+			Map<String, BindObject> names = classNameBindings;
+			if (names==null) {
+				names = new ConcurrentHashMap<String, BindObject>();
+				classNameBindings = names;
+			}
+			names.put(className, bindObject);
+		}
+		return bindObject;
+	}
+
+	/**
+	 * Binden mehrerer Implementierungen unter einem Key,
+	 * geliefert wird ein unveraenderliches Set bzw. bei einer
+	 * Array-Klasse als Key ein Array der Instanzen.
+	 *
+	 * @param key Key der Multi-Bindung
+	 * @return die Multi-Bindung zum Hinzufuegen der Implementierungen
+	 * @see SetBinding
+	 */
+	public SetBinding bindSet(Object key) {
+		SetBinding binding = new SetBinding(this, key);
+		binding.register();
+		return binding;
+	}
+
+	/**
+	 * Binden mehrerer Implementierungen unter einem Key, jeweils
+	 * zugeordnet zu einem Map-Key, geliefert wird eine {@link IndexedMap}.
+	 *
+	 * @param key Key der Multi-Bindung
+	 * @return die Multi-Bindung zum Hinzufuegen der Implementierungen
+	 * @see MapBinding
+	 */
+	public MapBinding bindMap(Object key) {
+		MapBinding binding = new MapBinding(this, key);
+		binding.register();
+		return binding;
+	}
+
 	
 	/**
 	 * liefert zum angegebenen Key die konkrete instancierte
@@ -84,7 +266,11 @@ public class WitContainer {
 	 * @return
 	 */
 	public Object getInstance(Object key) {
-		return getInstance(key, 0);
+		BindObject bindObject = findBindObject(key);
+		if(bindObject==null) {
+			throw new ServiceNotBoundException(key);
+		}
+		return bindObject.getInstance();
 	}
 
 	/**
@@ -93,31 +279,505 @@ public class WitContainer {
 	 * wobei die Interface-Klasse auch die Implementierungsklasse sein darf,
 	 * wenn z.B. dies kein Inteface hat.
 	 *
+	 * Im eingefrorenen Container erfolgt die Suche ueber eine Identitaets-Tabelle
+	 * der Class-Keys; bereits erzeugte Singletons und Konstanten werden dann
+	 * ohne weitere Pruefungen geliefert, sofern kein Monitor aktiv ist.
+	 *
 	 * @param <T> Type der Interface-Klasse
 	 * @param key die Klasse als Key fuer die zugehoerige Instance
 	 * @return
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T getInstance(Class <T> key) {
-		T instance = (T) getInstance((Object) key);
-		return instance;
+		BindObject bindObject = findByClass(key);
+		if (bindObject==null) {
+			throw new ServiceNotBoundException(key);
+		}
+		Monitor m = monitor;
+		if (m==null || !m.isEnabled()) {
+			Object ready = bindObject.getReady();
+			if (ready!=null)
+				return (T) ready;
+		}
+		return (T) bindObject.getInstance();
 	}
 
 	/**
-	 * liefert zum angegebenen Key die konkrete instancierte
-	 * Object-Instance
+	 * wie {@link #findBindObject(Object)}, im eingefrorenen Container per Identitaets-Tabelle
+	 *
+	 * @param key Class-Key
+	 * @return das BindObject oder null, wenn der Key nicht gebunden ist
+	 */
+	BindObject findByClass(Class<?> key) {
+		BindTable table = frozenTable;
+		BindObject bindObject = (table!=null) ? table.getByClass(key) : bindObjects.get(key);
+		if (bindObject==null) {
+			Map<String, BindObject> names = classNameBindings;
+			if (names!=null)
+				bindObject = names.get(key.getName());
+			if (bindObject==null && parent!=null)
+				return parent.findByClass(key);
+		}
+		return bindObject;
+	}
+
+	/**
+	 * liefert das BindObject zum Key, zuerst aus den eigenen Bindungen,
+	 * dann aus dem Eltern-Container
 	 *
 	 * @param key
-	 * @return
+	 * @return das BindObject oder null, wenn der Key nicht gebunden ist
 	 */
-	protected Object getInstance(Object key, int level) {
-		BindObject bindObject = bindObjects.get(key);
-		if(bindObject==null) {
-			throw new ServiceNotBoundException(key);
+	BindObject findBindObject(Object key) {
+		BindTable table = frozenTable;
+		BindObject bindObject = (table!=null) ? table.get(key) : bindObjects.get(key);
+		if (bindObject==null) {
+			Map<String, BindObject> names = classNameBindings;
+			if (names!=null && key instanceof Class)
+				bindObject = names.get(((Class<?>) key).getName());
+			if (bindObject==null && parent!=null)
+				return parent.findBindObject(key);
 		}
-		return bindObject.getInstance(level);
+		return bindObject;
 	}
 
+	/**
+	 * Key einer per {@link #bindClassName(String)} gebundenen Klasse
+	 */
+	private static final class ClassName {
+
+		private final String name;
+
+		ClassName(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof ClassName) && name.equals(((ClassName) obj).name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return "class " + name;
+		}
+	}
+
+	/**
+	 * Erzeugt und startet alle noch nicht erzeugten Singletons vorab,
+	 * anstatt erst beim ersten getInstance.
+	 * Dazu wird aus den Injection-Plaenen der Abhaengigkeits-Graph ermittelt;
+	 * voneinander unabhaengige Instanzen werden parallel per Executor erzeugt,
+	 * jede Instanz wartet nur auf ihre eigenen Abhaengigkeiten.
+	 * Zyklische Abhaengigkeiten werden gemeinsam in einem Task erzeugt.
+	 * Die Methode kehrt zurueck, wenn alle Instanzen erzeugt sind.
+	 *
+	 * @param executor Executor fuer die Erzeugung
+	 * @throws ContainerLifecycleException mit allen aufgetretenen Fehlern;
+	 *  Instanzen, deren Abhaengigkeiten fehlschlugen, werden nicht mehr erzeugt
+	 */
+	public void startAll(Executor executor) {
+		List<BindObject> pending = new ArrayList<BindObject>();
+		for (BindObject bindObject : bindObjects.values()) {
+			if (bindObject.needsCreation())
+				pending.add(bindObject);
+		}
+		final DependencyGraph graph = new DependencyGraph(pending, this);
+		final Map<Object, Throwable> failures = new ConcurrentHashMap<Object, Throwable>();
+		int[][] components = graph.getComponents();
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[components.length];
+
+		// Tarjan liefert die Komponenten in Abhaengigkeits-Reihenfolge,
+		// die Futures der Abhaengigkeiten existieren also bereits
+		for (int c = 0; c < components.length; c++) {
+			final int[] component = components[c];
+			List<CompletableFuture<?>> deps = new ArrayList<CompletableFuture<?>>();
+			for (int node : component) {
+				for (int dep : graph.getDependencies(node)) {
+					CompletableFuture<?> depFuture = futures[graph.getComponentOf(dep)];
+					if (graph.getComponentOf(dep)!=c && !deps.contains(depFuture))
+						deps.add(depFuture);
+				}
+			}
+			Runnable task = new Runnable() {
+				public void run() {
+					RuntimeException failure = null;
+					for (int node : component) {
+						BindObject bindObject = graph.getNode(node);
+						try {
+							bindObject.ensureCreated();
+						} catch (RuntimeException e) {
+							failures.put(bindObject.getKey(), e);
+							failure = e;
+						}
+					}
+					if (failure!=null)
+						throw failure;
+				}
+			};
+			if (deps.isEmpty()) {
+				futures[c] = CompletableFuture.runAsync(task, executor);
+			} else {
+				futures[c] = CompletableFuture.allOf(deps.toArray(new CompletableFuture<?>[deps.size()]))
+						.thenRunAsync(task, executor);
+			}
+		}
+
+		int skipped = 0;
+		for (int c = 0; c < components.length; c++) {
+			try {
+				futures[c].join();
+			} catch (CompletionException e) {
+				skipped += countSkipped(graph, components[c], failures);
+			} catch (CancellationException e) {
+				skipped += countSkipped(graph, components[c], failures);
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new ContainerLifecycleException("startAll failed, "
+					+ skipped + " dependent instance(s) not created", failures);
+		}
+	}
+
+	/**
+	 * liefert die Anzahl Knoten der Komponente, die wegen fehlgeschlagener
+	 * Abhaengigkeiten nicht erzeugt wurden
+	 */
+	private static int countSkipped(DependencyGraph graph, int[] component, Map<Object, Throwable> failures) {
+		for (int node : component) {
+			if (failures.containsKey(graph.getNode(node).getKey()))
+				return 0;
+		}
+		return component.length;
+	}
+
+	/**
+	 * Prueft alle eigenen Bindungen in einem Durchgang, ohne Instanzen zu erzeugen:
+	 * fehlende Implementierungen, fehlerhafte Injection-Plaene, nicht gebundene
+	 * Keys sowie Zyklen, die nicht aufgeloest werden koennen.
+	 * Zyklen ueber Singleton-Setter sind erlaubt und werden nur an den
+	 * Monitor gemeldet; Zyklen nur aus Providern bzw. Bindungen mit
+	 * anderem Scope wuerden endlos rekursiv erzeugen und sind ebenso Fehler
+	 * wie Zyklen ueber Konstruktor-Argumente.
+	 *
+	 * @throws ContainerValidationException mit allen gefundenen Fehlern
+	 */
+	public void validate() {
+		Map<Object, List<String>> problems = new LinkedHashMap<Object, List<String>>();
+		List<BindObject> all = new ArrayList<BindObject>(bindObjects.values());
+		for (BindObject bindObject : all) {
+			List<String> list = new ArrayList<String>(0);
+			bindObject.validate(list);
+			if (!list.isEmpty())
+				problems.put(bindObject.getKey(), list);
+		}
+
+		DependencyGraph graph = new DependencyGraph(all, this);
+		for (int[] component : graph.getComponents()) {
+			if (!isCycle(graph, component))
+				continue;
+			List<Object> keys = new ArrayList<Object>(component.length);
+			boolean resolvable = false;
+			for (int node : component) {
+				keys.add(graph.getNode(node).getKey());
+				resolvable |= graph.getNode(node).supportsPartial();
+			}
+			resolvable &= !hasConstructorEdge(graph, component);
+			if (resolvable) {
+				if (monitor!=null && monitor.isEnabled())
+					monitor.log(0, "Cycle {} resolved by injecting partial instances", keys);
+				continue;
+			}
+			for (Object key : keys) {
+				List<String> list = problems.get(key);
+				if (list==null) {
+					list = new ArrayList<String>(1);
+					problems.put(key, list);
+				}
+				list.add("unresolvable cycle "+keys);
+			}
+		}
+		if (!problems.isEmpty())
+			throw new ContainerValidationException(problems);
+	}
+
+	/**
+	 * @return true, wenn ein Knoten der Komponente ueber ein Konstruktor-Argument
+	 *  von einem Knoten derselben Komponente abhaengt
+	 */
+	private boolean hasConstructorEdge(DependencyGraph graph, int[] component) {
+		for (int node : component) {
+			Object[] argumentKeys;
+			try {
+				argumentKeys = graph.getNode(node).getArgumentKeys();
+			} catch (RuntimeException e) {
+				// fehlerhafter Plan, wurde bereits gemeldet
+				continue;
+			}
+			for (Object argumentKey : argumentKeys) {
+				BindObject target = findBindObject(argumentKey);
+				for (int other : component) {
+					if (graph.getNode(other)==target)
+						return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true, wenn die Komponente einen Zyklus bildet
+	 */
+	private static boolean isCycle(DependencyGraph graph, int[] component) {
+		if (component.length > 1)
+			return true;
+		for (int dep : graph.getDependencies(component[0])) {
+			if (dep==component[0])
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Abschluss des Bindens: prueft alle Bindungen per {@link #validate()},
+	 * loest die Keys aller Injektionsstellen und Provider direkt zu den
+	 * Ziel-Bindungen auf und friert den Container ein.
+	 * Danach erfolgt das Injecten ohne Suche im Container.
+	 * Bei Kind-Containern muss der Eltern-Container bereits vollstaendig gebunden sein.
+	 *
+	 * @return this
+	 * @throws ContainerValidationException mit allen gefundenen Fehlern
+	 */
+	public synchronized WitContainer build() {
+		if (frozenTable==null) {
+			validate();
+			for (BindObject bindObject : bindObjects.values()) {
+				bindObject.link();
+			}
+			freeze();
+		}
+		return this;
+	}
+
+	/**
+	 * @return die eigenen Bindungen (ohne die des Eltern-Containers)
+	 */
+	Collection<BindObject> getBindObjects() {
+		return bindObjects.values();
+	}
+
+	/**
+	 * Beginn der Aufzeichnung der Erzeugungs-Reihenfolge
+	 */
+	synchronized void recordCreations() {
+		if (creationOrder==null)
+			creationOrder = new ConcurrentLinkedQueue<BindObject>();
+	}
+
+	/**
+	 * Meldung einer fertig erzeugten Singleton-Instance
+	 *
+	 * @param bindObject die Bindung
+	 */
+	void created(BindObject bindObject) {
+		Queue<BindObject> order = creationOrder;
+		if (order!=null)
+			order.add(bindObject);
+	}
+
+	/**
+	 * @return die bisher aufgezeichnete Erzeugungs-Reihenfolge (leer, wenn nicht aufgezeichnet wird)
+	 */
+	List<BindObject> getCreationOrder() {
+		Queue<BindObject> order = creationOrder;
+		return (order!=null) ? new ArrayList<BindObject>(order) : new ArrayList<BindObject>(0);
+	}
+
+	/**
+	 * Gibt die Singleton-Instanzen der eigenen Bindungen (sowie deren Instanzen
+	 * im Scope {@link Scopes#THREAD} in allen Threads) frei, beim naechsten
+	 * getInstance werden sie neu erzeugt. Konstanten bleiben erhalten,
+	 * Instanzen des Eltern-Containers sind nicht betroffen.
+	 * Darf nicht parallel zu getInstance auf diesem Container aufgerufen werden.
+	 */
+	public void dispose() {
+		for (BindObject bindObject : bindObjects.values()) {
+			bindObject.release();
+		}
+	}
+
+	/**
+	 * Beenden aller erzeugten Singletons, wie {@link #close(Executor, long, TimeUnit)}
+	 * mit eigenen Daemon-Threads und {@link #DEFAULT_STOP_TIMEOUT} je Instance.
+	 *
+	 * @throws ContainerLifecycleException mit allen aufgetretenen Fehlern
+	 */
+	public void close() {
+		ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "wit-container-stop");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			close(executor, DEFAULT_STOP_TIMEOUT, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Beendet alle erzeugten Singletons der eigenen Bindungen in umgekehrter
+	 * Abhaengigkeits-Reihenfolge: eine Instance wird erst beendet, wenn alle
+	 * von ihr abhaengigen Instanzen beendet sind. Voneinander unabhaengige
+	 * Instanzen werden parallel per Executor beendet, Instanzen eines Zyklus
+	 * nacheinander. Aufgerufen wird {@link Stoppable#stop()} bzw.
+	 * {@link AutoCloseable#close()}, die Dauer je Instance wird per
+	 * {@link Monitor#onStop(Object, long)} gemeldet.
+	 * Fehlgeschlagene bzw. zu lange laufende Aufrufe halten das Beenden der
+	 * uebrigen Instanzen nicht auf. Laeuft ein stop-Aufruf nach dem Timeout
+	 * weiter, werden die Instanzen, von denen die Instance (transitiv) abhaengt,
+	 * nicht beendet und mit einer TimeoutException gemeldet. Danach sind alle
+	 * Instanzen freigegeben (siehe {@link #dispose()}).
+	 * Darf nicht parallel zu getInstance auf diesem Container aufgerufen werden.
+	 *
+	 * @param executor Executor fuer die stop-Aufrufe
+	 * @param timeout maximale Dauer je Instance ab Beginn ihres stop-Aufrufs
+	 * @param unit Einheit des Timeouts
+	 * @throws ContainerLifecycleException mit allen aufgetretenen Fehlern
+	 *  (bei Ueberschreitung des Timeouts bzw. nicht beendeten Abhaengigkeiten
+	 *  eine TimeoutException)
+	 */
+	public void close(final Executor executor, final long timeout, final TimeUnit unit) {
+		List<BindObject> created = new ArrayList<BindObject>();
+		for (BindObject bindObject : bindObjects.values()) {
+			if (bindObject.isCreated())
+				created.add(bindObject);
+		}
+		DependencyGraph graph = new DependencyGraph(created, this);
+		final Map<Object, Throwable> failures = new ConcurrentHashMap<Object, Throwable>();
+		int[][] components = graph.getComponents();
+
+		// je Komponente die Komponenten, die von ihr abhaengen
+		List<List<Integer>> dependents = new ArrayList<List<Integer>>(components.length);
+		for (int c = 0; c < components.length; c++) {
+			dependents.add(new ArrayList<Integer>(0));
+		}
+		for (int c = 0; c < components.length; c++) {
+			for (int node : components[c]) {
+				for (int dep : graph.getDependencies(node)) {
+					List<Integer> list = dependents.get(graph.getComponentOf(dep));
+					if (graph.getComponentOf(dep)!=c && !list.contains(c))
+						list.add(c);
+				}
+			}
+		}
+
+		// Tarjan liefert die Komponenten in Abhaengigkeits-Reihenfolge, rueckwaerts
+		// existieren also die Futures aller abhaengigen Komponenten bereits.
+		// Jedes Future liefert, ob alle Instanzen rechtzeitig beendet wurden
+		List<CompletableFuture<Boolean>> stopped = new ArrayList<CompletableFuture<Boolean>>(
+				Collections.<CompletableFuture<Boolean>>nCopies(components.length, null));
+		for (int c = components.length-1; c >= 0; c--) {
+			List<Integer> list = dependents.get(c);
+			final CompletableFuture<?>[] gates = new CompletableFuture<?>[list.size()];
+			for (int d = 0; d < gates.length; d++) {
+				gates[d] = stopped.get(list.get(d));
+			}
+			CompletableFuture<Boolean> done = CompletableFuture.allOf(gates).thenApply(new Function<Void, Boolean>() {
+				public Boolean apply(Void v) {
+					for (CompletableFuture<?> gate : gates) {
+						if (gate.join()!=Boolean.TRUE)
+							return Boolean.FALSE;
+					}
+					return Boolean.TRUE;
+				}
+			});
+			for (int node : components[c]) {
+				final BindObject bindObject = graph.getNode(node);
+				done = done.thenCompose(new Function<Boolean, CompletionStage<Boolean>>() {
+					public CompletionStage<Boolean> apply(Boolean inTime) {
+						if (!inTime.booleanValue()) {
+							// eine abhaengige Instance laeuft noch, die Reihenfolge ist nicht mehr gewahrt
+							failures.put(bindObject.getKey(),
+									new TimeoutException("not stopped, a dependent instance did not stop in time"));
+							return CompletableFuture.completedFuture(Boolean.FALSE);
+						}
+						return stop(bindObject, executor, timeout, unit, failures);
+					}
+				});
+			}
+			stopped.set(c, done);
+		}
+		CompletableFuture.allOf(stopped.toArray(new CompletableFuture<?>[stopped.size()])).join();
+		dispose();
+		if (!failures.isEmpty()) {
+			throw new ContainerLifecycleException("close failed", failures);
+		}
+	}
+
+	/**
+	 * Beenden einer Instance per Executor, Fehler werden in failures gesammelt.
+	 * Der Timeout laeuft erst ab Beginn des stop-Aufrufs, die Wartezeit in
+	 * der Warteschlange des Executors zaehlt nicht mit.
+	 *
+	 * @return Future, das immer normal abgeschlossen wird: false, wenn der
+	 *  stop-Aufruf nach dem Timeout noch laeuft
+	 */
+	private CompletableFuture<Boolean> stop(final BindObject bindObject, Executor executor, final long timeout,
+			final TimeUnit unit, final Map<Object, Throwable> failures) {
+		final CompletableFuture<Void> finished = new CompletableFuture<Void>();
+		Runnable task = new Runnable() {
+			public void run() {
+				finished.orTimeout(timeout, unit);
+				long start = System.nanoTime();
+				try {
+					bindObject.stop();
+				} catch (Throwable e) {
+					finished.completeExceptionally(e);
+					return;
+				}
+				if (monitor!=null && monitor.isEnabled())
+					monitor.onStop(bindObject.getKey(), System.nanoTime()-start);
+				finished.complete(null);
+			}
+		};
+		executor.execute(task);
+		return finished.handle(new BiFunction<Void, Throwable, Boolean>() {
+			public Boolean apply(Void v, Throwable t) {
+				if (t==null)
+					return Boolean.TRUE;
+				failures.put(bindObject.getKey(), t);
+				return Boolean.valueOf(!(t instanceof TimeoutException));
+			}
+		});
+	}
+
+	/**
+	 * Einfrieren des Containers nach Abschluss des Bindens.
+	 * Die Bindungen werden in eine unveraenderliche, auf Lesen optimierte
+	 * Tabelle uebernommen, weitere bind-Aufrufe fuehren zur
+	 * {@link ContainerFrozenException}.
+	 * Darf erst aufgerufen werden, wenn alle bind-Aufrufe abgeschlossen sind.
+	 */
+	public synchronized void freeze() {
+		if (frozenTable==null) {
+			frozenTable = new BindTable(bindObjects);
+		}
+	}
+
+	/**
+	 * @return true, wenn der Container eingefroren ist
+	 */
+	public boolean isFrozen() {
+		return frozenTable!=null;
+	}
 
 	/**
 	 * @param monitor the monitor to set
@@ -129,4 +789,18 @@ public class WitContainer {
 	public Monitor getMonitor() {
 		return monitor;
 	}
+
+	/**
+	 * Setzen der Strategie zum Erzeugen der Instancen und Aufrufen der Setter
+	 * (default: {@link InvokerFactory#LAMBDA})
+	 *
+	 * @param invokerFactory the invokerFactory to set
+	 */
+	public void setInvokerFactory(InvokerFactory invokerFactory) {
+		this.invokerFactory = invokerFactory;
+	}
+
+	public InvokerFactory getInvokerFactory() {
+		return invokerFactory;
+	}
 }
@@ -0,0 +1,104 @@
+package working_it.witcontainer.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Index der generierten Klassen eines Processors (ein Klassen-Name je Zeile).
+ *
+ * Bei inkrementellem Uebersetzen sieht der Processor nur die geaenderten
+ * Klassen; die Eintraege des bisherigen Index werden daher uebernommen,
+ * sofern die generierte Klasse noch existiert und die Klasse in diesem
+ * Lauf nicht ohne Generierung uebersetzt wurde.
+ *
+ */
+final class GeneratedIndex {
+
+	private GeneratedIndex() {
+	}
+
+	/**
+	 * Schreiben des Index
+	 *
+	 * @param env Umgebung des Processors
+	 * @param resource Name der Resource im Class-Output
+	 * @param suffix Namens-Suffix der generierten Klassen
+	 * @param processor Name des Processors (fuer den Kommentar)
+	 * @param generated in diesem Lauf generierte Klassen (binaere Namen)
+	 * @param processed in diesem Lauf uebersetzte Klassen (binaere Namen)
+	 */
+	static void write(ProcessingEnvironment env, String resource, String suffix, String processor,
+			Set<String> generated, Set<String> processed) {
+		Filer filer = env.getFiler();
+		Set<String> names = new TreeSet<String>(generated);
+		Set<String> previous = read(filer, resource);
+		for (String name : previous) {
+			if (!processed.contains(name) && exists(filer, name.replace('.', '/') + suffix + ".class")) {
+				names.add(name);
+			}
+		}
+		if (names.isEmpty() && previous.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+			Writer writer = index.openWriter();
+			try {
+				writer.write("# Generiert durch " + processor + "\n");
+				for (String name : names) {
+					writer.write(name + "\n");
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			env.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not write " + resource + ": " + e);
+		}
+	}
+
+	/**
+	 * @return die Namen des bisherigen Index, leer wenn keiner existiert
+	 */
+	private static Set<String> read(Filer filer, String resource) {
+		Set<String> names = new TreeSet<String>();
+		try {
+			Reader in = filer.getResource(StandardLocation.CLASS_OUTPUT, "", resource).openReader(true);
+			BufferedReader reader = new BufferedReader(in);
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (line.length() > 0 && !line.startsWith("#"))
+						names.add(line);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// noch kein Index vorhanden
+		}
+		return names;
+	}
+
+	private static boolean exists(Filer filer, String path) {
+		try {
+			InputStream in = filer.getResource(StandardLocation.CLASS_OUTPUT, "", path).openInputStream();
+			in.close();
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,422 @@
+package working_it.witcontainer.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import working_it.witcontainer.GeneratedInjector;
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Provider;
+
+/**
+ * Annotation-Processor, der zur Compile-Zeit fuer jede Klasse mit
+ * @Inject-Konstruktor, -Settern oder -Feldern (auch geerbten) einen
+ * Injector generiert, sowie den Index {@link GeneratedInjector#INDEX_RESOURCE}
+ * dieser Klassen.
+ *
+ * Der generierte Injector erzeugt die Instanz per new, ruft die Setter
+ * direkt auf und setzt die Felder direkt; der Container verwendet ihn
+ * anstelle der Reflection.
+ * Fehlerhafte Setter (nicht genau ein Parameter), static oder final Felder
+ * mehrere @Inject-Konstruktoren, lazy-Injection ohne Interface-Typ sowie
+ * Provider bzw. Supplier ohne ermittelbaren Key fuehren zu einem Compile-Fehler.
+ * Fuer Klassen mit private @Inject-Feldern (auch in Oberklassen), fuer den
+ * Injector nicht zugreifbaren Feldern bzw. private @Inject-Konstruktor
+ * wird kein Injector generiert, hier verwendet der Container Reflection.
+ *
+ * Wird ueber META-INF/services automatisch von javac gefunden.
+ *
+ */
+@SupportedAnnotationTypes("*")
+public class InjectProcessor extends AbstractProcessor {
+
+	private static final String PROVIDER = Provider.class.getName();
+	private static final String SUPPLIER = "java.util.function.Supplier";
+
+	/** Klassen, zu denen ein Injector generiert wurde */
+	private final Set<String> generated = new TreeSet<String>();
+
+	/** alle in diesem Lauf uebersetzten Klassen */
+	private final Set<String> processed = new TreeSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			writeIndex();
+			return false;
+		}
+		for (Element element : roundEnv.getElementsAnnotatedWith(Inject.class)) {
+			if (element.getKind() == ElementKind.METHOD) {
+				checkSetter(element);
+			} else if (element.getKind() == ElementKind.FIELD) {
+				checkField(element);
+			}
+		}
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			processType(type);
+		}
+		return false;
+	}
+
+	/**
+	 * Pruefen eines @Inject-Setters, Fehler werden als Compile-Fehler gemeldet
+	 */
+	private void checkSetter(Element element) {
+		ExecutableElement method = (ExecutableElement) element;
+		if (method.getParameters().size() != 1) {
+			error(method, "@Inject method " + method.getSimpleName() + " must have exactly one parameter");
+		} else if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+			warning(method, "@Inject method " + method.getSimpleName() + " is not public and will be ignored");
+		} else if (method.getModifiers().contains(Modifier.STATIC)) {
+			error(method, "@Inject method " + method.getSimpleName() + " must not be static");
+		}
+	}
+
+	/**
+	 * Pruefen eines @Inject-Feldes, Fehler werden als Compile-Fehler gemeldet
+	 */
+	private void checkField(Element field) {
+		if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)) {
+			error(field, "@Inject field " + field.getSimpleName() + " must not be static or final");
+		} else if (field.getModifiers().contains(Modifier.PRIVATE)) {
+			warning(field, "@Inject field " + field.getSimpleName() + " is private, no injector is generated");
+		}
+	}
+
+	/**
+	 * Generieren des Injectors zum Typ (und rekursiv zu dessen inneren Typen)
+	 */
+	private void processType(TypeElement type) {
+		processed.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+		for (TypeElement inner : ElementFilter.typesIn(type.getEnclosedElements())) {
+			processType(inner);
+		}
+		ExecutableElement constructor = null;
+		for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (candidate.getAnnotation(Inject.class) == null) {
+				continue;
+			}
+			if (constructor != null) {
+				error(candidate, "only one @Inject constructor allowed in " + type.getSimpleName());
+				return;
+			}
+			constructor = candidate;
+		}
+		if (!isInstantiable(type, constructor)) {
+			return;
+		}
+		List<VariableElement> fields = new ArrayList<VariableElement>();
+		for (VariableElement field : declaredFields(type)) {
+			if (field.getAnnotation(Inject.class) == null) {
+				continue;
+			}
+			if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)
+					|| !isAccessible(type, field)) {
+				// Fehler bzw. Warnung wurde bereits gemeldet, ggf. Reflection zur Laufzeit
+				return;
+			}
+			fields.add(field);
+		}
+		List<ExecutableElement> setters = new ArrayList<ExecutableElement>();
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			if (method.getAnnotation(Inject.class) == null || !method.getModifiers().contains(Modifier.PUBLIC)) {
+				continue;
+			}
+			if (method.getParameters().size() != 1 || method.getModifiers().contains(Modifier.STATIC)) {
+				// wurde bereits als Fehler gemeldet
+				return;
+			}
+			setters.add(method);
+		}
+		if (setters.isEmpty() && fields.isEmpty() && constructor == null) {
+			return;
+		}
+		try {
+			writeInjector(type, constructor, setters, fields);
+		} catch (IOException e) {
+			error(type, "could not generate injector: " + e);
+		}
+	}
+
+	/**
+	 * liefert die Felder der Klasse und aller Oberklassen, die der Oberklassen
+	 * zuerst (wie die Reflection zur Laufzeit). Anders als getAllMembers auch
+	 * die private und die verdeckten Felder der Oberklassen.
+	 */
+	private List<VariableElement> declaredFields(TypeElement type) {
+		List<VariableElement> fields = new ArrayList<VariableElement>();
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			TypeElement superType = (TypeElement) ((DeclaredType) superclass).asElement();
+			if (!superType.getQualifiedName().contentEquals(Object.class.getName())) {
+				fields.addAll(declaredFields(superType));
+			}
+		}
+		fields.addAll(ElementFilter.fieldsIn(type.getEnclosedElements()));
+		return fields;
+	}
+
+	/**
+	 * Felder sind fuer den Injector (im Package der Klasse) nur zugreifbar,
+	 * wenn sie public sind oder nicht private und im selben Package deklariert
+	 */
+	private boolean isAccessible(TypeElement type, Element member) {
+		if (member.getModifiers().contains(Modifier.PUBLIC)) {
+			return true;
+		}
+		if (member.getModifiers().contains(Modifier.PRIVATE)) {
+			return false;
+		}
+		return processingEnv.getElementUtils().getPackageOf(member).equals(
+				processingEnv.getElementUtils().getPackageOf(type));
+	}
+
+	/**
+	 * nur konkrete, nicht private Klassen mit nicht privatem @Inject-Konstruktor
+	 * oder public Default-Konstruktor
+	 */
+	private boolean isInstantiable(TypeElement type, ExecutableElement injectConstructor) {
+		if (type.getKind() != ElementKind.CLASS
+				|| type.getModifiers().contains(Modifier.ABSTRACT)
+				|| type.getModifiers().contains(Modifier.PRIVATE)
+				|| type.getSimpleName().toString().endsWith(GeneratedInjector.SUFFIX)) {
+			return false;
+		}
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+			return false;
+		}
+		if (injectConstructor != null) {
+			return !injectConstructor.getModifiers().contains(Modifier.PRIVATE);
+		}
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void writeInjector(TypeElement type, ExecutableElement constructor, List<ExecutableElement> setters,
+			List<VariableElement> fields) throws IOException {
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+				+ GeneratedInjector.SUFFIX;
+		String typeName = type.getQualifiedName().toString();
+
+		boolean anyLazy = false;
+		StringBuilder argumentKeys = new StringBuilder();
+		StringBuilder argumentOptional = new StringBuilder();
+		StringBuilder argumentLazy = new StringBuilder();
+		StringBuilder arguments = new StringBuilder();
+		if (constructor != null) {
+			List<? extends VariableElement> parameters = constructor.getParameters();
+			for (int i = 0; i < parameters.size(); i++) {
+				VariableElement parameter = parameters.get(i);
+				Inject inject = parameter.getAnnotation(Inject.class);
+				TypeMirror paramType = processingEnv.getTypeUtils().erasure(parameter.asType());
+				String separator = i > 0 ? ", " : "";
+				String lazy = lazy(parameter, inject, parameter.asType());
+				anyLazy |= lazy != null;
+				argumentKeys.append(separator).append(key(inject, keyType(parameter, inject, parameter.asType())));
+				argumentOptional.append(separator).append(inject != null && inject.optional());
+				argumentLazy.append(separator).append(lazy);
+				arguments.append(separator).append("(").append(boxed(paramType)).append(") args[").append(i).append("]");
+			}
+		}
+
+		StringBuilder keys = new StringBuilder();
+		StringBuilder optional = new StringBuilder();
+		StringBuilder lazyTypes = new StringBuilder();
+		StringBuilder cases = new StringBuilder();
+		for (int i = 0; i < setters.size(); i++) {
+			ExecutableElement setter = setters.get(i);
+			Inject inject = setter.getAnnotation(Inject.class);
+			VariableElement parameter = setter.getParameters().get(0);
+			TypeMirror paramType = processingEnv.getTypeUtils().erasure(parameter.asType());
+			String lazy = lazy(setter, inject, parameter.asType());
+			anyLazy |= lazy != null;
+			keys.append(i > 0 ? ", " : "").append(key(inject, keyType(setter, inject, parameter.asType())));
+			optional.append(i > 0 ? ", " : "").append(inject.optional());
+			lazyTypes.append(i > 0 ? ", " : "").append(lazy);
+			cases.append("\t\tcase ").append(i).append(": ((").append(typeName).append(") instance).")
+					.append(setter.getSimpleName()).append("((").append(boxed(paramType)).append(") value); break;\n");
+		}
+		for (int f = 0; f < fields.size(); f++) {
+			VariableElement field = fields.get(f);
+			int i = setters.size() + f;
+			Inject inject = field.getAnnotation(Inject.class);
+			TypeMirror fieldType = processingEnv.getTypeUtils().erasure(field.asType());
+			// Cast auf die deklarierende Klasse, falls das Feld verdeckt ist
+			String declaringType = ((TypeElement) field.getEnclosingElement()).getQualifiedName().toString();
+			String lazy = lazy(field, inject, field.asType());
+			anyLazy |= lazy != null;
+			keys.append(i > 0 ? ", " : "").append(key(inject, keyType(field, inject, field.asType())));
+			optional.append(i > 0 ? ", " : "").append(inject.optional());
+			lazyTypes.append(i > 0 ? ", " : "").append(lazy);
+			cases.append("\t\tcase ").append(i).append(": ((").append(declaringType).append(") instance).")
+					.append(field.getSimpleName()).append(" = (").append(boxed(fieldType)).append(") value; break;\n");
+		}
+
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+		try {
+			if (!packageName.isEmpty()) {
+				writer.write("package " + packageName + ";\n\n");
+			}
+			writer.write("/**\n * Generiert durch " + InjectProcessor.class.getName() + " - nicht aendern!\n */\n");
+			writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+			writer.write("public final class " + simpleName + " extends " + GeneratedInjector.class.getName() + " {\n\n");
+			writer.write("\tpublic " + simpleName + "() {\n");
+			if (anyLazy) {
+				writer.write("\t\tsuper(new Object[] {" + argumentKeys + "}, new boolean[] {" + argumentOptional
+						+ "}, new Class[] {" + argumentLazy + "},\n");
+				writer.write("\t\t\t\tnew Object[] {" + keys + "}, new boolean[] {" + optional
+						+ "}, new Class[] {" + lazyTypes + "});\n");
+			} else {
+				writer.write("\t\tsuper(new Object[] {" + argumentKeys + "}, new boolean[] {" + argumentOptional + "},\n");
+				writer.write("\t\t\t\tnew Object[] {" + keys + "}, new boolean[] {" + optional + "});\n");
+			}
+			writer.write("\t}\n\n");
+			writer.write("\tpublic Object newInstance(Object[] args) {\n");
+			writer.write("\t\treturn new " + typeName + "(" + arguments + ");\n");
+			writer.write("\t}\n\n");
+			writer.write("\tpublic void inject(Object instance, int index, Object value) {\n");
+			writer.write("\t\tswitch (index) {\n");
+			writer.write(cases.toString());
+			writer.write("\t\tdefault: throw new IndexOutOfBoundsException(\"index=\" + index);\n");
+			writer.write("\t\t}\n");
+			writer.write("\t}\n");
+			writer.write("}\n");
+		} finally {
+			writer.close();
+		}
+		generated.add(binaryName);
+	}
+
+	private void writeIndex() {
+		GeneratedIndex.write(processingEnv, GeneratedInjector.INDEX_RESOURCE, GeneratedInjector.SUFFIX,
+				InjectProcessor.class.getName(), generated, processed);
+	}
+
+	/**
+	 * liefert den Such-Key als Java-Ausdruck: Value der Annotation oder die Klasse
+	 */
+	private static String key(Inject inject, TypeMirror type) {
+		return (inject != null && inject.value().length() > 0) ? literal(inject.value()) : type + ".class";
+	}
+
+	/**
+	 * liefert den Typ, dessen Klasse der Such-Key ist: bei Provider&lt;T&gt;
+	 * bzw. Supplier&lt;T&gt; der Typ T, sonst der Typ selbst (jeweils ohne Generics)
+	 */
+	private TypeMirror keyType(Element element, Inject inject, TypeMirror type) {
+		TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+		if (!isLazyProvider(type)) {
+			return erased;
+		}
+		List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+		if (arguments.get(0).getKind() != TypeKind.DECLARED && arguments.get(0).getKind() != TypeKind.ARRAY) {
+			if (inject == null || inject.value().length() == 0)
+				error(element, "key of lazy injection " + element.getSimpleName() + " not determinable, use @Inject(value)");
+			return erased;
+		}
+		return processingEnv.getTypeUtils().erasure(arguments.get(0));
+	}
+
+	/**
+	 * liefert den Lazy-Typ als Java-Ausdruck (Provider, Supplier bzw. das
+	 * Interface des Proxys) oder null bei direkter Injection
+	 */
+	private String lazy(Element element, Inject inject, TypeMirror type) {
+		TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+		if (isLazyProvider(type)) {
+			return erased + ".class";
+		}
+		if (inject == null || !inject.lazy()) {
+			return null;
+		}
+		Element typeElement = processingEnv.getTypeUtils().asElement(type);
+		if (typeElement == null || typeElement.getKind() != ElementKind.INTERFACE) {
+			error(element, "lazy injection " + element.getSimpleName() + " requires an interface type");
+		}
+		return erased + ".class";
+	}
+
+	/**
+	 * verzoegert werden nur Provider bzw. Supplier mit Typ-Argument,
+	 * rohe Typen werden direkt injected
+	 */
+	private boolean isLazyProvider(TypeMirror type) {
+		String erased = processingEnv.getTypeUtils().erasure(type).toString();
+		return (erased.equals(PROVIDER) || erased.equals(SUPPLIER)) && type.getKind() == TypeKind.DECLARED
+				&& !((DeclaredType) type).getTypeArguments().isEmpty();
+	}
+
+	/**
+	 * liefert zu primitiven Typen den Wrapper-Typ fuer den Cast
+	 */
+	private String boxed(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		}
+		return type.toString();
+	}
+
+	private static String literal(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+			case '"': sb.append("\\\""); break;
+			case '\\': sb.append("\\\\"); break;
+			case '\n': sb.append("\\n"); break;
+			case '\r': sb.append("\\r"); break;
+			case '\t': sb.append("\\t"); break;
+			default:
+				if (c < 0x20 || c > 0x7e) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+	private void warning(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+	}
+
+}
@@ -0,0 +1,264 @@
+package working_it.witcontainer.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import working_it.witcontainer.GeneratedProxy;
+import working_it.witcontainer.Interceptable;
+import working_it.witcontainer.Interceptor;
+import working_it.witcontainer.Invocation;
+
+/**
+ * Annotation-Processor, der zur Compile-Zeit fuer jedes mit {@link Interceptable}
+ * markierte Interface einen Proxy generiert, sowie den Index
+ * {@link GeneratedProxy#INDEX_RESOURCE} dieser Interfaces.
+ *
+ * Jede Methode des Proxys erzeugt eine Invocation mit ihrem Index; deren
+ * generiertes proceed ruft per switch die Methode des Ziels direkt auf,
+ * ohne Reflection und ohne InvocationHandler. Die Signaturen geerbter
+ * Methoden werden als Member des Interfaces ermittelt, Typ-Argumente
+ * generischer Ober-Interfaces also eingesetzt.
+ * Markierte Klassen bzw. private Interfaces fuehren zu einem Compile-Fehler.
+ * Der Processor laeuft fuer alle Klassen, damit bei inkrementellem Uebersetzen
+ * Interfaces ohne @Interceptable aus dem Index fallen.
+ *
+ * Wird ueber META-INF/services automatisch von javac gefunden.
+ *
+ */
+@SupportedAnnotationTypes("*")
+public class ProxyProcessor extends AbstractProcessor {
+
+	/** Interfaces, zu denen ein Proxy generiert wurde */
+	private final Set<String> generated = new TreeSet<String>();
+
+	/** alle in diesem Lauf uebersetzten Klassen */
+	private final Set<String> processed = new TreeSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			writeIndex();
+			return false;
+		}
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			addProcessed(type);
+		}
+		for (Element element : roundEnv.getElementsAnnotatedWith(Interceptable.class)) {
+			if (element.getKind() != ElementKind.INTERFACE) {
+				error(element, "@Interceptable requires an interface");
+			} else if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				error(element, "@Interceptable interface " + element.getSimpleName() + " must not be private");
+			} else {
+				try {
+					writeProxy((TypeElement) element);
+				} catch (IOException e) {
+					error(element, "could not generate proxy: " + e);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * liefert die zu implementierenden Methoden (auch geerbte und default-Methoden),
+	 * je Signatur nur einmal
+	 */
+	private List<ExecutableElement> methods(TypeElement type) {
+		List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+		Set<String> signatures = new HashSet<String>();
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+					|| method.getModifiers().contains(Modifier.STATIC)
+					|| method.getModifiers().contains(Modifier.PRIVATE)) {
+				continue;
+			}
+			StringBuilder signature = new StringBuilder(method.getSimpleName()).append('(');
+			for (VariableElement parameter : method.getParameters()) {
+				signature.append(erasure(parameter.asType())).append(',');
+			}
+			if (signatures.add(signature.toString())) {
+				methods.add(method);
+			}
+		}
+		return methods;
+	}
+
+	private void writeProxy(TypeElement type) throws IOException {
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+				+ GeneratedProxy.SUFFIX;
+		String typeName = type.getQualifiedName().toString();
+		String interceptors = Interceptor.class.getName() + "[]";
+
+		List<ExecutableElement> methods = methods(type);
+		StringBuilder names = new StringBuilder();
+		StringBuilder parameterTypes = new StringBuilder();
+		StringBuilder implementations = new StringBuilder();
+		StringBuilder cases = new StringBuilder();
+		for (int i = 0; i < methods.size(); i++) {
+			ExecutableElement method = methods.get(i);
+			// Signatur aus Sicht des Interfaces, z.B. T find() aus Repo<String> als String find()
+			ExecutableType member = (ExecutableType) processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), method);
+			String separator = i > 0 ? ", " : "";
+			names.append(separator).append('"').append(method.getSimpleName()).append('"');
+			parameterTypes.append(separator).append('{');
+			StringBuilder parameters = new StringBuilder();
+			StringBuilder values = new StringBuilder();
+			StringBuilder arguments = new StringBuilder();
+			List<? extends VariableElement> params = method.getParameters();
+			for (int p = 0; p < params.size(); p++) {
+				TypeMirror paramType = erasure(member.getParameterTypes().get(p));
+				String paramSeparator = p > 0 ? ", " : "";
+				// zum Suchen der Methode per Reflection die Typen der Deklaration
+				parameterTypes.append(paramSeparator).append(erasure(params.get(p).asType())).append(".class");
+				if (method.isVarArgs() && p == params.size() - 1) {
+					parameters.append(paramSeparator).append(((ArrayType) paramType).getComponentType()).append("...");
+				} else {
+					parameters.append(paramSeparator).append(paramType);
+				}
+				parameters.append(" a").append(p);
+				values.append(paramSeparator).append('a').append(p);
+				arguments.append(paramSeparator).append('(').append(boxed(paramType)).append(") args[").append(p).append(']');
+			}
+			parameterTypes.append('}');
+
+			TypeMirror returnType = erasure(member.getReturnType());
+			boolean isVoid = returnType.getKind() == TypeKind.VOID;
+			implementations.append("\tpublic ").append(returnType).append(' ').append(method.getSimpleName())
+					.append('(').append(parameters).append(')');
+			List<? extends TypeMirror> thrown = member.getThrownTypes();
+			for (int t = 0; t < thrown.size(); t++) {
+				implementations.append(t == 0 ? " throws " : ", ").append(erasure(thrown.get(t)));
+			}
+			implementations.append(" {\n\t\ttry {\n\t\t\t");
+			String invoke = "invoke(new Call(target, " + i + ", new Object[] {" + values + "}))";
+			if (isVoid) {
+				implementations.append(invoke);
+			} else if (returnType.getKind().isPrimitive()) {
+				// null der Interceptoren nicht per NullPointerException beim Unboxing melden
+				implementations.append("return (").append(boxed(returnType)).append(") primitive(").append(invoke)
+						.append(", METHODS[").append(i).append("])");
+			} else {
+				implementations.append("return (").append(boxed(returnType)).append(") ").append(invoke);
+			}
+			implementations.append(";\n");
+			implementations.append("\t\t} catch (Throwable e) {\n\t\t\tthrow rethrow(e, METHODS[").append(i)
+					.append("]);\n\t\t}\n\t}\n\n");
+
+			cases.append("\t\t\tcase ").append(i).append(": ");
+			String call = "((" + typeName + ") getTarget())." + method.getSimpleName() + "(" + arguments + ")";
+			if (isVoid) {
+				cases.append(call).append("; return null;\n");
+			} else {
+				cases.append("return ").append(call).append(";\n");
+			}
+		}
+
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+		try {
+			if (!packageName.isEmpty()) {
+				writer.write("package " + packageName + ";\n\n");
+			}
+			writer.write("/**\n * Generiert durch " + ProxyProcessor.class.getName() + " - nicht aendern!\n */\n");
+			writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+			writer.write("public final class " + simpleName + " extends " + GeneratedProxy.class.getName()
+					+ " implements " + typeName + " {\n\n");
+			writer.write("\tprivate static final java.lang.reflect.Method[] METHODS = methods(" + typeName + ".class,\n");
+			writer.write("\t\t\tnew String[] {" + names + "},\n");
+			writer.write("\t\t\tnew Class[][] {" + parameterTypes + "});\n\n");
+			writer.write("\tpublic " + simpleName + "(Object target, " + interceptors + " interceptors) {\n");
+			writer.write("\t\tsuper(target, interceptors);\n");
+			writer.write("\t}\n\n");
+			writer.write(implementations.toString());
+			// Aufruf des ersten Interceptors, je Interface eine eigene Aufruf-Stelle
+			writer.write("\tprivate Object invoke(Call call) throws Throwable {\n");
+			writer.write("\t\treturn interceptors[0].intercept(rest(call));\n");
+			writer.write("\t}\n\n");
+			writer.write("\tprivate static final class Call extends " + Invocation.class.getName() + " {\n\n");
+			writer.write("\t\tprivate final int index;\n\n");
+			writer.write("\t\tCall(Object target, int index, Object[] arguments) {\n");
+			writer.write("\t\t\tsuper(target, METHODS[index], arguments);\n");
+			writer.write("\t\t\tthis.index = index;\n");
+			writer.write("\t\t}\n\n");
+			writer.write("\t\tpublic Object proceed() throws Throwable {\n");
+			writer.write("\t\t\tObject[] args = getArguments();\n");
+			writer.write("\t\t\tswitch (index) {\n");
+			writer.write(cases.toString());
+			writer.write("\t\t\tdefault: throw new IndexOutOfBoundsException(\"index=\" + index);\n");
+			writer.write("\t\t\t}\n");
+			writer.write("\t\t}\n");
+			writer.write("\t}\n");
+			writer.write("}\n");
+		} finally {
+			writer.close();
+		}
+		generated.add(binaryName);
+	}
+
+	private void writeIndex() {
+		GeneratedIndex.write(processingEnv, GeneratedProxy.INDEX_RESOURCE, GeneratedProxy.SUFFIX,
+				ProxyProcessor.class.getName(), generated, processed);
+	}
+
+	/**
+	 * merkt die Klasse samt inneren Klassen als in diesem Lauf uebersetzt
+	 */
+	private void addProcessed(TypeElement type) {
+		processed.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+		for (TypeElement inner : ElementFilter.typesIn(type.getEnclosedElements())) {
+			addProcessed(inner);
+		}
+	}
+
+	private TypeMirror erasure(TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type);
+	}
+
+	/**
+	 * liefert zu primitiven Typen den Wrapper-Typ fuer den Cast
+	 */
+	private String boxed(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+		}
+		return type.toString();
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+}
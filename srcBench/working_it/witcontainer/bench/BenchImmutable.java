@@ -0,0 +1,28 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * unveraenderliche Bean mit Konstruktor-Injection (Vergleich zu {@link BenchNode})
+ *
+ */
+public class BenchImmutable {
+
+	private final BenchLeaf leaf;
+	private final String name;
+
+	@Inject
+	public BenchImmutable(BenchLeaf leaf, @Inject("bench_name") String name) {
+		this.leaf = leaf;
+		this.name = name;
+	}
+
+	public BenchLeaf getLeaf() {
+		return leaf;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
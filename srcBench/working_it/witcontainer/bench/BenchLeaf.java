@@ -0,0 +1,9 @@
+package working_it.witcontainer.bench;
+
+/**
+ * Bean ohne Abhaengigkeiten
+ *
+ */
+public class BenchLeaf {
+
+}
@@ -0,0 +1,15 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Provider;
+
+/**
+ * Provider, der bei jedem get eine neue Instance liefert
+ *
+ */
+public class BenchLeafProvider implements Provider<BenchLeaf> {
+
+	public BenchLeaf get() {
+		return new BenchLeaf();
+	}
+
+}
@@ -0,0 +1,32 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Bean mit zwei Settern, Knoten der Benchmark-Graphen
+ *
+ */
+public class BenchNode {
+
+	private BenchLeaf leaf;
+	private String name;
+
+	@Inject
+	public void setLeaf(BenchLeaf leaf) {
+		this.leaf = leaf;
+	}
+
+	@Inject("bench_name")
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public BenchLeaf getLeaf() {
+		return leaf;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,22 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Bean mit genau einem Setter (Vergleich zu {@link BenchWide})
+ *
+ */
+public class BenchOne {
+
+	private BenchLeaf leaf;
+
+	@Inject
+	public void setLeaf(BenchLeaf leaf) {
+		this.leaf = leaf;
+	}
+
+	public BenchLeaf getLeaf() {
+		return leaf;
+	}
+
+}
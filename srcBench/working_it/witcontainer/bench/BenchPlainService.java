@@ -0,0 +1,11 @@
+package working_it.witcontainer.bench;
+
+/**
+ * Interface ohne generierten Proxy (Rueckfall auf java.lang.reflect.Proxy)
+ *
+ */
+public interface BenchPlainService {
+
+	public int add(int a, int b);
+
+}
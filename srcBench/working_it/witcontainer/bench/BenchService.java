@@ -0,0 +1,14 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Interceptable;
+
+/**
+ * Interface mit generiertem Proxy
+ *
+ */
+@Interceptable
+public interface BenchService {
+
+	public int add(int a, int b);
+
+}
@@ -0,0 +1,13 @@
+package working_it.witcontainer.bench;
+
+/**
+ * Implementierung fuer die Interceptor-Benchmarks
+ *
+ */
+public class BenchServiceImpl implements BenchService, BenchPlainService {
+
+	public int add(int a, int b) {
+		return a + b;
+	}
+
+}
@@ -0,0 +1,19 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Startable;
+
+/**
+ * Knoten mit blockierendem start (z.B. Connection-Pool)
+ *
+ */
+public class BenchSlowNode extends BenchNode implements Startable {
+
+	public void start() {
+		try {
+			Thread.sleep(20);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
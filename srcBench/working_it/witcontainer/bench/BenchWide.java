@@ -0,0 +1,52 @@
+package working_it.witcontainer.bench;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Bean mit vier Settern (Vergleich zu {@link BenchOne})
+ *
+ */
+public class BenchWide {
+
+	private BenchLeaf leaf;
+	private BenchNode node;
+	private String name;
+	private Integer size;
+
+	@Inject
+	public void setLeaf(BenchLeaf leaf) {
+		this.leaf = leaf;
+	}
+
+	@Inject
+	public void setNode(BenchNode node) {
+		this.node = node;
+	}
+
+	@Inject("bench_name")
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	@Inject("bench_size")
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public BenchLeaf getLeaf() {
+		return leaf;
+	}
+
+	public BenchNode getNode() {
+		return node;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+}
@@ -0,0 +1,84 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import working_it.witcontainer.WitContainer;
+
+/**
+ * Erstes getInstance auf allen Beans eines frisch gebundenen Containers.
+ * Die Injection-Plaene und Invoker der Klassen sind dabei bereits gecacht,
+ * gemessen wird also die Erzeugung im "kalten" Container,
+ * wahlweise nach {@link WitContainer#build()} mit vorab aufgeloesten Keys.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColdGraphBenchmark {
+
+	@Param({"10", "1000", "10000"})
+	public int beans;
+
+	@Param({"false", "true"})
+	public boolean built;
+
+	private String[] keys;
+	private WitContainer container;
+
+	@Setup(Level.Trial)
+	public void prepareKeys() {
+		keys = new String[beans];
+		for (int i = 0; i < beans; i++) {
+			keys[i] = "node" + i;
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void bind() {
+		container = new WitContainer(beans + 2);
+		container.bind("bench_name").to("bench");
+		container.bind(BenchLeaf.class).to(BenchLeaf.class);
+		for (String key : keys) {
+			container.bind(key).to(BenchNode.class);
+		}
+		if (built) {
+			container.build();
+		}
+	}
+
+	@Benchmark
+	public void coldGetInstance(Blackhole bh) {
+		for (String key : keys) {
+			bh.consume(container.getInstance(key));
+		}
+	}
+
+	@Benchmark
+	public void plainNew(Blackhole bh) {
+		BenchLeaf leaf = new BenchLeaf();
+		for (int i = 0; i < keys.length; i++) {
+			BenchNode node = new BenchNode();
+			node.setLeaf(leaf);
+			node.setName("bench");
+			bh.consume(node);
+		}
+	}
+
+}
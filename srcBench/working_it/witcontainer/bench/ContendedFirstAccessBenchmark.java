@@ -0,0 +1,100 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import working_it.witcontainer.WitContainer;
+
+/**
+ * Mehrere Threads greifen gleichzeitig zum ersten Mal auf dieselben
+ * Singletons zu. Gemessen wird die Zeit, bis alle Threads ihre
+ * Instancen erhalten haben. Mit slowStart blockiert das start jedes
+ * Singletons 20ms, alle anderen Threads muessen darauf warten.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContendedFirstAccessBenchmark {
+
+	private static final int BEANS = 10;
+
+	@Param({"2", "8", "1000"})
+	public int threads;
+
+	@Param({"false", "true"})
+	public boolean slowStart;
+
+	private ExecutorService executor;
+	private WitContainer container;
+	private CountDownLatch startSignal;
+	private Future<?>[] futures;
+
+	@Setup(Level.Trial)
+	public void startThreads() {
+		executor = Executors.newFixedThreadPool(threads);
+		futures = new Future<?>[threads];
+	}
+
+	@TearDown(Level.Trial)
+	public void stopThreads() {
+		executor.shutdownNow();
+	}
+
+	@Setup(Level.Invocation)
+	public void bind() {
+		container = new WitContainer();
+		container.bind("bench_name").to("bench");
+		container.bind(BenchLeaf.class).to(BenchLeaf.class);
+		for (int i = 0; i < BEANS; i++) {
+			container.bind("node" + i).to(slowStart ? BenchSlowNode.class : BenchNode.class);
+		}
+		final WitContainer c = container;
+		final CountDownLatch signal = new CountDownLatch(1);
+		startSignal = signal;
+		for (int t = 0; t < threads; t++) {
+			futures[t] = executor.submit(new Runnable() {
+				public void run() {
+					try {
+						signal.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (int i = 0; i < BEANS; i++) {
+						c.getInstance("node" + i);
+					}
+				}
+			});
+		}
+	}
+
+	@Benchmark
+	public void contendedGetInstance() throws Exception {
+		startSignal.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import working_it.witcontainer.InvokerFactory;
+import working_it.witcontainer.Scopes;
+import working_it.witcontainer.WitContainer;
+
+/**
+ * Kosten je Setter: Prototype-Beans mit einem bzw. vier Settern je
+ * Invoker-Strategie, im Vergleich zu new plus Setter-Aufrufen.
+ * Die Differenz BenchWide - BenchOne geteilt durch drei ergibt
+ * die Kosten eines einzelnen Setters. BenchImmutable (Konstruktor mit zwei
+ * Argumenten) im Vergleich zu BenchNode (zwei Setter).
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionBenchmark {
+
+	@Param({"REFLECTION", "METHOD_HANDLE", "LAMBDA"})
+	public String invoker;
+
+	private WitContainer container;
+	private BenchLeaf leaf;
+	private BenchNode node;
+
+	@Setup
+	public void setup() throws Exception {
+		container = new WitContainer();
+		container.setInvokerFactory((InvokerFactory) InvokerFactory.class.getField(invoker).get(null));
+		container.bind("bench_name").to("bench");
+		container.bind("bench_size").to(Integer.valueOf(42));
+		container.bind(BenchLeaf.class).to(BenchLeaf.class);
+		container.bind(BenchNode.class).to(BenchNode.class);
+		container.bind(BenchOne.class).to(BenchOne.class).inScope(Scopes.PROTOTYPE);
+		container.bind(BenchWide.class).to(BenchWide.class).inScope(Scopes.PROTOTYPE);
+		container.bind("node").to(BenchNode.class).inScope(Scopes.PROTOTYPE);
+		container.bind(BenchImmutable.class).to(BenchImmutable.class).inScope(Scopes.PROTOTYPE);
+		leaf = container.getInstance(BenchLeaf.class);
+		node = container.getInstance(BenchNode.class);
+	}
+
+	@Benchmark
+	public Object oneSetter() {
+		return container.getInstance(BenchOne.class);
+	}
+
+	@Benchmark
+	public Object fourSetters() {
+		return container.getInstance(BenchWide.class);
+	}
+
+	@Benchmark
+	public Object twoSetters() {
+		return container.getInstance("node");
+	}
+
+	@Benchmark
+	public Object twoConstructorArgs() {
+		return container.getInstance(BenchImmutable.class);
+	}
+
+	@Benchmark
+	public Object plainNewOne() {
+		BenchOne one = new BenchOne();
+		one.setLeaf(leaf);
+		return one;
+	}
+
+	@Benchmark
+	public Object plainNewWide() {
+		BenchWide wide = new BenchWide();
+		wide.setLeaf(leaf);
+		wide.setNode(node);
+		wide.setName("bench");
+		wide.setSize(Integer.valueOf(42));
+		return wide;
+	}
+
+}
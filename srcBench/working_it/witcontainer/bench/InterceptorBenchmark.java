@@ -0,0 +1,66 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import working_it.witcontainer.Interceptor;
+import working_it.witcontainer.WitContainer;
+
+/**
+ * Aufruf einer Methode ueber den generierten Proxy bzw. den
+ * java.lang.reflect.Proxy mit einem durchreichenden Interceptor,
+ * im Vergleich zum direkten Aufruf.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorBenchmark {
+
+	private BenchService direct;
+	private BenchService generated;
+	private BenchPlainService reflective;
+	private int a = 1;
+	private int b = 2;
+
+	@Setup
+	public void setup() {
+		Interceptor passThrough = invocation -> invocation.proceed();
+		WitContainer container = new WitContainer();
+		container.bind(BenchService.class).to(BenchServiceImpl.class).intercept(passThrough);
+		container.bind(BenchPlainService.class).to(BenchServiceImpl.class).intercept(passThrough);
+		container.bind("direct").to(BenchServiceImpl.class);
+		generated = container.getInstance(BenchService.class);
+		reflective = container.getInstance(BenchPlainService.class);
+		direct = (BenchService) container.getInstance("direct");
+	}
+
+	@Benchmark
+	public int direct() {
+		return direct.add(a, b);
+	}
+
+	@Benchmark
+	public int generatedProxy() {
+		return generated.add(a, b);
+	}
+
+	@Benchmark
+	public int reflectiveProxy() {
+		return reflective.add(a, b);
+	}
+
+}
@@ -0,0 +1,76 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import working_it.witcontainer.MetricsMonitor;
+import working_it.witcontainer.ProviderPolicy;
+import working_it.witcontainer.WitContainer;
+
+/**
+ * Aufruf von Provider.get ueber den Container je {@link ProviderPolicy},
+ * mit und ohne Monitor, im Vergleich zum direkten Aufruf.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderBenchmark {
+
+	@Param({"false", "true"})
+	public boolean monitored;
+
+	private WitContainer container;
+	private BenchLeafProvider provider;
+
+	@Setup
+	public void setup() {
+		container = new WitContainer();
+		if (monitored) {
+			container.setMonitor(new MetricsMonitor());
+		}
+		container.bind(BenchLeafProvider.class);
+		container.bind("alwaysNew").toProvider(BenchLeafProvider.class);
+		container.bind("cached").toProvider(BenchLeafProvider.class, ProviderPolicy.CACHED);
+		container.bind("perThread").toProvider(BenchLeafProvider.class, ProviderPolicy.PER_THREAD);
+		container.getInstance("alwaysNew");
+		container.getInstance("cached");
+		container.getInstance("perThread");
+		provider = new BenchLeafProvider();
+	}
+
+	@Benchmark
+	public Object alwaysNew() {
+		return container.getInstance("alwaysNew");
+	}
+
+	@Benchmark
+	public Object cached() {
+		return container.getInstance("cached");
+	}
+
+	@Benchmark
+	public Object perThread() {
+		return container.getInstance("perThread");
+	}
+
+	@Benchmark
+	public Object plainGet() {
+		return provider.get();
+	}
+
+}
@@ -0,0 +1,77 @@
+package working_it.witcontainer.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import working_it.witcontainer.WitContainer;
+
+/**
+ * getInstance auf bereits erzeugte Singletons per Class- und String-Key,
+ * wahlweise im eingefrorenen Container.
+ * byClassAsObject geht mit demselben Class-Key ueber den allgemeinen
+ * Object-Pfad (Map bzw. Tabelle mit equals) und dient als Vergleich
+ * zum Class-Pfad byClass.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarmLookupBenchmark {
+
+	@Param({"false", "true"})
+	public boolean frozen;
+
+	private WitContainer container;
+	private BenchNode node;
+
+	@Setup
+	public void setup() {
+		container = new WitContainer();
+		container.bind("bench_name").to("bench");
+		container.bind(BenchLeaf.class).to(BenchLeaf.class);
+		container.bind("node").to(BenchNode.class);
+		// ein paar weitere Bindings, damit die Map nicht trivial ist
+		for (int i = 0; i < 100; i++) {
+			container.bind("node" + i).to(BenchNode.class);
+		}
+		if (frozen) {
+			container.freeze();
+		}
+		node = (BenchNode) container.getInstance("node");
+	}
+
+	@Benchmark
+	public Object byClass() {
+		return container.getInstance(BenchLeaf.class);
+	}
+
+	@Benchmark
+	public Object byClassAsObject() {
+		return container.getInstance((Object) BenchLeaf.class);
+	}
+
+	@Benchmark
+	public Object byString() {
+		return container.getInstance("node");
+	}
+
+	@Benchmark
+	public Object plainField() {
+		return node;
+	}
+
+}
@@ -0,0 +1,118 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.ModuleBean;
+
+
+public class BindingModuleTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("witcontainer", ".module");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private void write(String content) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Laden der Bindungen, Klassen erst beim ersten getInstance
+	 */
+	@Test
+	public void testLoad() throws Exception {
+		write("# Testmodul\r\n"
+				+ "class:working_it.witcontainer.sample.A =\r\n"
+				+ "  class:working_it.witcontainer.sample.B = class:working_it.witcontainer.sample.B  \n"
+				+ "\n"
+				+ "bean = class:working_it.witcontainer.sample.ModuleBean\n"
+				+ "db_name = db1\n"
+				+ "pool_size = int:10\n"
+				+ "timeout = long:30000\n"
+				+ "factor = double:0.5\n"
+				+ "enabled = boolean:true\n"
+				+ "text = string:int:x = y\n"
+				+ "umlaut = \u00e4\u00f6\u00fc");
+		WitContainer container = new WitContainer();
+		assertEquals(10, BindingModule.load(container, file));
+		container.freeze();
+		// noch keine Implementierung geladen
+		assertNull(System.getProperty("witcontainer.test.moduleBean"));
+
+		ModuleBean bean = (ModuleBean) container.getInstance("bean");
+		assertEquals("true", System.getProperty("witcontainer.test.moduleBean"));
+		A a = container.getInstance(A.class);
+		assertSame(container.getInstance(B.class), a.getB());
+		assertEquals("db1", a.getName());
+		assertSame(a, bean.getA());
+		assertEquals(10, bean.getPoolSize());
+		assertEquals(Long.valueOf(30000), container.getInstance("timeout"));
+		assertEquals(Double.valueOf(0.5), container.getInstance("factor"));
+		assertEquals(Boolean.TRUE, container.getInstance("enabled"));
+		assertEquals("int:x = y", container.getInstance("text"));
+		assertEquals("\u00e4\u00f6\u00fc", container.getInstance("umlaut"));
+	}
+
+	/**
+	 * build prueft auch die per Namen gebundenen Klassen
+	 */
+	@Test
+	public void testBuild() throws Exception {
+		write("class:working_it.witcontainer.sample.A =\n"
+				+ "unknown = class:working_it.witcontainer.sample.Unknown\n");
+		WitContainer container = new WitContainer();
+		BindingModule.load(container, file);
+		try {
+			container.build();
+			fail("ContainerValidationException expected");
+		} catch (ContainerValidationException e) {
+			assertEquals(2, e.getProblems().size());
+			assertTrue(e.getProblems().get("unknown").get(0).contains("not found"));
+		}
+	}
+
+	/**
+	 * fehlerhafte Zeilen werden mit Zeilennummer gemeldet
+	 */
+	@Test
+	public void testErrors() throws Exception {
+		write("db_name = db1\nno separator\n");
+		try {
+			BindingModule.load(new WitContainer(), file);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith(":2: expected 'key = value'"));
+		}
+		write("pool_size = int:zehn\n");
+		try {
+			BindingModule.load(new WitContainer(), file);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(":1: "));
+		}
+	}
+
+}
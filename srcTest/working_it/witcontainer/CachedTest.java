@@ -0,0 +1,122 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.util.function.LongSupplier;
+
+import org.junit.Test;
+
+import working_it.witcontainer.sample.ReferenceData;
+import working_it.witcontainer.sample.ReferenceDataImpl;
+
+
+public class CachedTest {
+
+	/**
+	 * Ergebnisse werden je Argumente gecacht, Statistik per Monitor
+	 */
+	@Test
+	public void testCachedMethods() {
+		MetricsMonitor monitor = new MetricsMonitor();
+		WitContainer container = new WitContainer();
+		container.setMonitor(monitor);
+		container.bind(ReferenceData.class).to(ReferenceDataImpl.class);
+		container.build();
+		ReferenceData data = container.getInstance(ReferenceData.class);
+		assertTrue(data instanceof GeneratedProxy);
+
+		assertEquals("name of EUR", data.lookup("EUR"));
+		assertEquals("name of EUR", data.lookup("EUR"));
+		assertEquals(1, data.getCalls());
+		// null wird gecacht, Exceptions nicht
+		assertNull(data.lookup("XXX"));
+		assertNull(data.lookup("XXX"));
+		assertEquals(2, data.getCalls());
+		for (int i = 0; i < 2; i++) {
+			try {
+				data.lookup("");
+				fail("IllegalArgumentException expected");
+			} catch (IllegalArgumentException e) {
+				// ok
+			}
+		}
+		assertEquals(4, data.getCalls());
+		// maxSize=2: EUR wird verdraengt
+		data.lookup("USD");
+		data.lookup("EUR");
+		assertEquals(6, data.getCalls());
+
+		// Annotation an der Implementierung, Arrays per Inhalt verglichen
+		assertEquals("A[1, 2]", data.describe("A", 1, 2));
+		assertEquals("A[1, 2]", data.describe("A", 1, 2));
+		assertEquals(7, data.getCalls());
+
+		MetricsMonitor.Metrics metrics = monitor.getMetrics(ReferenceData.class);
+		assertEquals(3L, metrics.getMethodCacheHits());
+		assertEquals(7L, metrics.getMethodCacheMiss().getCount());
+		assertEquals(2L, metrics.getMethodCacheEvictions());
+		assertTrue(metrics.toString(), metrics.toString().contains("methodCache: hits=3 evictions=2\n  methodCacheMiss: count=7 "));
+	}
+
+	/**
+	 * Verdraengung nach LRU bzw. LFU und Ablauf per TTL
+	 */
+	@Test
+	public void testEviction() {
+		final long[] now = {1};
+		LongSupplier clock = new LongSupplier() {
+			public long getAsLong() {
+				return now[0];
+			}
+		};
+		MethodCache lru = new MethodCache(2, Cached.Eviction.LRU, 0, clock);
+		lru.put("a", "A");
+		lru.put("b", "B");
+		lru.get("a");
+		assertEquals(1, lru.put("c", "C"));
+		assertSame(MethodCache.MISS, lru.get("b"));
+		assertEquals("A", lru.get("a"));
+
+		MethodCache lfu = new MethodCache(2, Cached.Eviction.LFU, 0, clock);
+		lfu.put("a", "A");
+		lfu.put("b", "B");
+		lfu.get("a");
+		lfu.get("a");
+		lfu.get("b");
+		assertEquals(1, lfu.put("c", "C"));
+		assertSame(MethodCache.MISS, lfu.get("b"));
+		assertEquals("A", lfu.get("a"));
+
+		MethodCache ttl = new MethodCache(100, Cached.Eviction.LRU, 10, clock);
+		ttl.put("a", "A");
+		now[0] += 5;
+		assertEquals("A", ttl.get("a"));
+		now[0] += 5;
+		assertSame(MethodCache.MISS, ttl.get("a"));
+		assertEquals(1, ttl.put("a", "A2"));
+		assertEquals("A2", ttl.get("a"));
+
+		// auf Stripes verteilt, insgesamt nie mehr als maxSize Eintraege
+		MethodCache striped = new MethodCache(100, Cached.Eviction.LRU, 0, clock);
+		for (int i = 0; i < 1000; i++) {
+			striped.put(Integer.valueOf(i), null);
+		}
+		assertTrue(striped.size() <= 100);
+	}
+
+	/**
+	 * @Cached erfordert ein Interface als Key
+	 */
+	@Test
+	public void testInvalid() {
+		WitContainer container = new WitContainer();
+		container.bind(ReferenceDataImpl.class);
+		try {
+			container.validate();
+			fail("ContainerValidationException expected");
+		} catch (ContainerValidationException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("require an interface key"));
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.SlowStartable;
+
+/**
+ * Erzeugung noch nicht existierender Singletons unter starker Konkurrenz
+ */
+public class ColdContentionTest {
+
+	private static final int TASKS = 10000;
+	private static final int BEANS = 10;
+
+	/**
+	 * 10.000 Tasks greifen gleichzeitig auf 10 noch nicht erzeugte Singletons
+	 * mit blockierendem start zu. Laeuft auf virtuellen Threads, sofern die
+	 * JVM diese anbietet (ab Java 21), ansonsten auf einem grossen Thread-Pool.
+	 * Jedes Singleton darf nur einmal gestartet werden; der Durchsatz wird
+	 * im ContendedFirstAccessBenchmark gemessen.
+	 */
+	@Test
+	public void testColdContention() throws Exception {
+		SlowStartable.STARTED.set(0);
+		final WitContainer container = new WitContainer();
+		for (int i = 0; i < BEANS; i++) {
+			container.bind("slow"+i).to(SlowStartable.class);
+		}
+		ExecutorService executor = newExecutor();
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>(TASKS);
+			for (int i = 0; i < TASKS; i++) {
+				final String key = "slow"+(i % BEANS);
+				results.add(executor.submit(new Callable<Object>() {
+					public Object call() {
+						return container.getInstance(key);
+					}
+				}));
+			}
+			for (int i = 0; i < TASKS; i++) {
+				assertSame(container.getInstance("slow"+(i % BEANS)), results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(BEANS, SlowStartable.STARTED.get());
+	}
+
+	/**
+	 * Zwei Threads fordern gleichzeitig die zyklisch voneinander abhaengigen
+	 * Singletons A und B an; dies darf nicht zum Deadlock fuehren.
+	 */
+	@Test
+	public void testCrossThreadCycle() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 200; round++) {
+				final WitContainer container = new WitContainer();
+				container.bind(A.class);
+				container.bind(B.class);
+				container.bind(C.class);
+				container.bind("db_name").to("db1");
+				final CyclicBarrier barrier = new CyclicBarrier(2);
+				Future<A> a = executor.submit(new Callable<A>() {
+					public A call() throws Exception {
+						barrier.await();
+						return container.getInstance(A.class);
+					}
+				});
+				Future<B> b = executor.submit(new Callable<B>() {
+					public B call() throws Exception {
+						barrier.await();
+						return container.getInstance(B.class);
+					}
+				});
+				assertSame(b.get(), a.get().getB());
+				assertSame(a.get(), b.get().getA());
+				assertTrue(b.get().isStarted());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Executor mit virtuellen Threads (ab Java 21), sonst ein grosser Thread-Pool
+	 */
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return Executors.newFixedThreadPool(1000);
+		}
+	}
+
+}
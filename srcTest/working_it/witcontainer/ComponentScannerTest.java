@@ -0,0 +1,141 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.NamedComponent;
+import working_it.witcontainer.sample.ScannedComponent;
+
+
+public class ComponentScannerTest {
+
+	private File index;
+	private File jar;
+	private Path classes;
+
+	@Before
+	public void setUp() throws Exception {
+		index = File.createTempFile("witcontainer", ".idx");
+		index.delete();
+		jar = File.createTempFile("witcontainer", ".jar");
+		classes = Paths.get(ScannedComponent.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	@After
+	public void tearDown() {
+		index.delete();
+		jar.delete();
+	}
+
+	private void writeJar(Class<?> clazz) throws Exception {
+		String name = clazz.getName().replace('.', '/') + ".class";
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry(name));
+			InputStream in = clazz.getClassLoader().getResourceAsStream(name);
+			try {
+				byte[] buffer = new byte[4096];
+				for (int n; (n = in.read(buffer)) > 0;) {
+					out.write(buffer, 0, n);
+				}
+			} finally {
+				in.close();
+			}
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Finden der Komponenten in Verzeichnis und Jar
+	 */
+	@Test
+	public void testScan() throws Exception {
+		writeJar(ScannedComponent.class);
+		ComponentScanner scanner = new ComponentScanner(null);
+		Map<String, String> components = scanner.scan(Collections.singletonList(classes));
+		assertEquals("", components.get(ScannedComponent.class.getName()));
+		assertEquals("named", components.get(NamedComponent.class.getName()));
+		assertFalse(components.containsKey(NamedComponent.Base.class.getName()));
+		assertFalse(components.containsKey(A.class.getName()));
+		assertFalse(components.containsKey(Component.class.getName()));
+
+		components = scanner.scan(Collections.singletonList(jar.toPath()));
+		assertEquals(Collections.singletonMap(ScannedComponent.class.getName(), ""), components);
+		assertEquals(1, scanner.getScannedRoots());
+	}
+
+	/**
+	 * Dateien, die keine Archive sind, werden uebersprungen
+	 */
+	@Test
+	public void testScanNoArchive() throws Exception {
+		File text = File.createTempFile("witcontainer", ".properties");
+		try {
+			Files.write(text.toPath(), "key=value\n".getBytes(StandardCharsets.ISO_8859_1));
+			Map<String, String> components = new ComponentScanner(null).scan(Arrays.asList(text.toPath(), classes));
+			assertEquals("", components.get(ScannedComponent.class.getName()));
+		} finally {
+			text.delete();
+		}
+	}
+
+	/**
+	 * unveraenderte Wurzeln kommen aus dem Index, geaenderte werden neu gelesen
+	 */
+	@Test
+	public void testIndex() throws Exception {
+		writeJar(ScannedComponent.class);
+		List<Path> roots = Arrays.asList(jar.toPath(), classes);
+		Map<String, String> components = new ComponentScanner(index).scan(roots);
+		assertTrue(index.isFile());
+
+		ComponentScanner scanner = new ComponentScanner(index);
+		assertEquals(components, scanner.scan(roots));
+		assertEquals(0, scanner.getScannedRoots());
+
+		writeJar(NamedComponent.class);
+		components = scanner.scan(roots);
+		assertEquals(1, scanner.getScannedRoots());
+		assertEquals("named", components.get(NamedComponent.class.getName()));
+	}
+
+	/**
+	 * Binden der gefundenen Komponenten
+	 */
+	@Test
+	public void testBind() throws Exception {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind("db_name").to("db1");
+		int count = new ComponentScanner(index).bind(container, Collections.singletonList(classes),
+				getClass().getClassLoader());
+		assertTrue(count >= 2);
+		ScannedComponent component = container.getInstance(ScannedComponent.class);
+		assertNotNull(component.getA());
+		assertSame(component, container.getInstance(ScannedComponent.class));
+		assertTrue(container.getInstance("named") instanceof NamedComponent);
+	}
+
+}
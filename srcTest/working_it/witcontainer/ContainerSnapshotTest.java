@@ -0,0 +1,133 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.CountingStartable;
+import working_it.witcontainer.sample.FieldInjected;
+
+
+public class ContainerSnapshotTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("witcontainer", ".snapshot");
+		file.delete();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private WitContainer createContainer() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind(C.class);
+		container.bind(CountingStartable.class);
+		container.bind("db_name").to("db1");
+		return container;
+	}
+
+	/**
+	 * Aufzeichnen, Schreiben und Wiederherstellen
+	 */
+	@Test
+	public void testRestore() throws Exception {
+		assertFalse(ContainerSnapshot.restore(createContainer(), file));
+
+		WitContainer first = createContainer();
+		ContainerSnapshot.record(first);
+		first.build();
+		first.getInstance(CountingStartable.class);
+		first.getInstance(A.class);
+		ContainerSnapshot.write(first, file);
+
+		File classList = new File(file.getPath() + ".classlist");
+		ContainerSnapshot.writeClassList(first, classList);
+		BufferedReader reader = new BufferedReader(new FileReader(classList));
+		try {
+			List<String> names = new ArrayList<String>();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				names.add(line);
+			}
+			assertTrue(names.toString(), names.contains("working_it/witcontainer/sample/C"));
+			assertTrue(names.toString(), names.contains("working_it/witcontainer/sample/A" + GeneratedInjector.SUFFIX));
+			assertTrue(names.indexOf("working_it/witcontainer/sample/B")
+					< names.indexOf("working_it/witcontainer/sample/CountingStartable"));
+		} finally {
+			reader.close();
+			classList.delete();
+		}
+
+		WitContainer second = createContainer();
+		int created = CountingStartable.CREATED.get();
+		assertTrue(ContainerSnapshot.restore(second, file));
+		assertTrue(second.isFrozen());
+		// bereits beim restore erzeugt und gestartet
+		assertEquals(created + 1, CountingStartable.CREATED.get());
+		CountingStartable counting = second.getInstance(CountingStartable.class);
+		assertEquals(created + 1, CountingStartable.CREATED.get());
+		assertTrue(counting.isStarted());
+		A a = second.getInstance(A.class);
+		assertSame(counting.getB(), a.getB());
+		assertSame(a, a.getB().getA());
+		assertTrue(a.getB().getC().isStarted());
+	}
+
+	/**
+	 * Passt der Snapshot, sind aber nicht alle Bindungen aufloesbar, wird er
+	 * nicht verwendet und der Container bleibt unveraendert
+	 */
+	@Test
+	public void testRestoreUnresolvable() throws Exception {
+		WitContainer first = createContainer();
+		first.bind("broken").toClassName("working_it.witcontainer.sample.Missing", getClass().getClassLoader());
+		ContainerSnapshot.record(first);
+		first.getInstance(A.class);
+		ContainerSnapshot.write(first, file);
+
+		WitContainer second = createContainer();
+		second.bind("broken").toClassName("working_it.witcontainer.sample.Missing", getClass().getClassLoader());
+		assertFalse(ContainerSnapshot.restore(second, file));
+		assertFalse(second.isFrozen());
+		for (BindObject bindObject : second.getBindObjects()) {
+			assertFalse(bindObject.isCreated());
+		}
+		assertSame(second.getInstance(A.class), second.getInstance(A.class).getB().getA());
+	}
+
+	/**
+	 * Bei geaenderten Bindungen wird der Snapshot nicht verwendet
+	 */
+	@Test
+	public void testLayoutChanged() throws Exception {
+		WitContainer first = createContainer();
+		ContainerSnapshot.record(first);
+		first.getInstance(A.class);
+		ContainerSnapshot.write(first, file);
+
+		WitContainer second = createContainer();
+		second.bind(FieldInjected.class);
+		assertFalse(ContainerSnapshot.restore(second, file));
+		assertFalse(second.isFrozen());
+		second.build();
+		assertEquals("db1", second.getInstance(FieldInjected.class).getName());
+	}
+
+}
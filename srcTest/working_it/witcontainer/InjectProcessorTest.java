@@ -0,0 +1,271 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import working_it.witcontainer.processor.InjectProcessor;
+import working_it.witcontainer.processor.ProxyProcessor;
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.AExtended;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.ConstructorInjected;
+import working_it.witcontainer.sample.FieldInjected;
+
+
+public class InjectProcessorTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("witcontainer", "apt");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	/**
+	 * Die Beispiel-Klassen werden per Ant (compile-test) mit dem InjectProcessor
+	 * uebersetzt, der Container muss die generierten Injectoren verwenden
+	 */
+	@Test
+	public void testSampleInjectorsUsed() {
+		assertNotNull(InjectionPlan.forClass(A.class).getGeneratedInjector());
+		assertNotNull(InjectionPlan.forClass(AExtended.class).getGeneratedInjector());
+		assertNotNull(InjectionPlan.forClass(B.class).getGeneratedInjector());
+		assertNotNull(InjectionPlan.forClass(ConstructorInjected.class).getGeneratedInjector());
+		assertNotNull(InjectionPlan.forClass(FieldInjected.class).getGeneratedInjector());
+		assertSame(InjectionPlan.forClass(A.class).getGeneratedInjector(), InvokerFactory.REFLECTION.getInvoker(A.class));
+	}
+
+	/**
+	 * Fuer eine Klasse mit @Inject-Settern wird ein Injector samt Index generiert
+	 */
+	@Test
+	public void testGenerateInjector() throws Exception {
+		String output = compile("sample/Service.java",
+				"package sample;\n"
+				+ "public class Service {\n"
+				+ "  @working_it.witcontainer.Inject(\"port\") public void setPort(int port) {}\n"
+				+ "  @working_it.witcontainer.Inject(optional=true) public void setName(String name) {}\n"
+				+ "}\n");
+		assertEquals("", output);
+		assertTrue(new File(dir, "sample/Service" + GeneratedInjector.SUFFIX + ".class").exists());
+		assertTrue(new File(dir, GeneratedInjector.INDEX_RESOURCE).exists());
+	}
+
+	/**
+	 * Bei inkrementellem Uebersetzen bleiben die Eintraege frueherer Laeufe
+	 * im Index, Klassen ohne Injector fallen heraus
+	 */
+	@Test
+	public void testIncrementalIndex() throws Exception {
+		compile("sample/First.java", "package sample;\n"
+				+ "public class First {\n"
+				+ "  @working_it.witcontainer.Inject(\"port\") public void setPort(int port) {}\n"
+				+ "}\n");
+		assertEquals("", compile("sample/Second.java", "package sample;\n"
+				+ "public class Second {\n"
+				+ "  @working_it.witcontainer.Inject(\"port\") public void setPort(int port) {}\n"
+				+ "}\n"));
+		ClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, null);
+		assertEquals(new HashSet<String>(Arrays.asList("sample.First", "sample.Second")),
+				GeneratedInjectors.readIndex(loader, GeneratedInjector.INDEX_RESOURCE));
+
+		// ohne @Inject wird fuer First kein Injector mehr verwendet
+		compile("sample/First.java", "package sample;\n"
+				+ "public class First {\n"
+				+ "}\n");
+		assertEquals(Collections.singleton("sample.Second"),
+				GeneratedInjectors.readIndex(new URLClassLoader(new URL[] {dir.toURI().toURL()}, null),
+						GeneratedInjector.INDEX_RESOURCE));
+	}
+
+	/**
+	 * Der Proxy-Index wird ebenso fortgeschrieben
+	 */
+	@Test
+	public void testIncrementalProxyIndex() throws Exception {
+		compile("sample/First.java", "package sample;\n"
+				+ "@working_it.witcontainer.Interceptable public interface First {\n"
+				+ "  void run();\n"
+				+ "}\n", "-processor", ProxyProcessor.class.getName());
+		assertEquals("", compile("sample/Second.java", "package sample;\n"
+				+ "@working_it.witcontainer.Interceptable public interface Second {\n"
+				+ "  void run();\n"
+				+ "}\n", "-processor", ProxyProcessor.class.getName()));
+		ClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, null);
+		assertEquals(new HashSet<String>(Arrays.asList("sample.First", "sample.Second")),
+				GeneratedInjectors.readIndex(loader, GeneratedProxy.INDEX_RESOURCE));
+
+		compile("sample/First.java", "package sample;\n"
+				+ "public interface First {\n"
+				+ "  void run();\n"
+				+ "}\n", "-processor", ProxyProcessor.class.getName());
+		assertEquals(Collections.singleton("sample.Second"),
+				GeneratedInjectors.readIndex(new URLClassLoader(new URL[] {dir.toURI().toURL()}, null),
+						GeneratedProxy.INDEX_RESOURCE));
+	}
+
+	/**
+	 * Konstruktor- und Feld-Injection werden ebenfalls generiert
+	 */
+	@Test
+	public void testGenerateConstructorAndFieldInjector() throws Exception {
+		String output = compile("sample/Immutable.java",
+				"package sample;\n"
+				+ "import working_it.witcontainer.Inject;\n"
+				+ "public class Immutable {\n"
+				+ "  @Inject Runnable task;\n"
+				+ "  private final int port;\n"
+				+ "  @Inject public Immutable(@Inject(\"port\") int port, String name) { this.port = port; }\n"
+				+ "}\n");
+		assertEquals("", output);
+		assertTrue(new File(dir, "sample/Immutable" + GeneratedInjector.SUFFIX + ".class").exists());
+	}
+
+	/**
+	 * final Felder fuehren zum Compile-Fehler
+	 */
+	@Test
+	public void testFinalField() throws Exception {
+		String output = compile("sample/FinalField.java",
+				"package sample;\n"
+				+ "public class FinalField {\n"
+				+ "  @working_it.witcontainer.Inject final String name = null;\n"
+				+ "}\n");
+		assertTrue(output, output.contains("must not be static or final"));
+		assertFalse(new File(dir, "sample/FinalField" + GeneratedInjector.SUFFIX + ".class").exists());
+	}
+
+	/**
+	 * Ein Setter mit falscher Parameter-Anzahl fuehrt zum Compile-Fehler
+	 */
+	@Test
+	public void testWrongArity() throws Exception {
+		String output = compile("sample/Broken.java",
+				"package sample;\n"
+				+ "public class Broken {\n"
+				+ "  @working_it.witcontainer.Inject public void setBoth(String a, String b) {}\n"
+				+ "}\n");
+		assertTrue(output, output.contains("must have exactly one parameter"));
+		assertFalse(new File(dir, "sample/Broken" + GeneratedInjector.SUFFIX + ".class").exists());
+	}
+
+	/**
+	 * lazy nur fuer Interfaces, Provider ohne Typ-Argument nur mit Key
+	 */
+	@Test
+	public void testLazyErrors() throws Exception {
+		String output = compile("sample/BrokenLazy.java",
+				"package sample;\n"
+				+ "public class BrokenLazy {\n"
+				+ "  @working_it.witcontainer.Inject(lazy = true) public void setName(String name) {}\n"
+				+ "  @working_it.witcontainer.Inject public java.util.function.Supplier<?> any;\n"
+				+ "}\n");
+		assertTrue(output, output.contains("requires an interface type"));
+		assertTrue(output, output.contains("not determinable"));
+	}
+
+	/**
+	 * private @Inject-Felder der Oberklasse kann der generierte Injector nicht
+	 * setzen: es wird keiner generiert, injectet wird per Reflection. Zugreifbare
+	 * Felder der Oberklasse setzt der generierte Injector. Ohne Processor
+	 * (-proc:none) werden beide Klassen gleich injectet.
+	 */
+	@Test
+	public void testInheritedFields() throws Exception {
+		String privateSource = "package sample;\n"
+				+ "class PrivateBase {\n"
+				+ "  @working_it.witcontainer.Inject(\"db_name\") private String name;\n"
+				+ "}\n"
+				+ "public class PrivateDerived extends PrivateBase {\n"
+				+ "  @working_it.witcontainer.Inject(optional=true) public void setRunnable(Runnable task) {}\n"
+				+ "}\n";
+		String packageSource = "package sample;\n"
+				+ "class PackageBase {\n"
+				+ "  @working_it.witcontainer.Inject(\"db_name\") String name;\n"
+				+ "}\n"
+				+ "public class PackageDerived extends PackageBase {\n"
+				+ "}\n";
+		String output = compile("sample/PrivateDerived.java", privateSource);
+		assertFalse(output, output.contains("error"));
+		assertFalse(new File(dir, "sample/PrivateDerived" + GeneratedInjector.SUFFIX + ".class").exists());
+		assertEquals("", compile("sample/PackageDerived.java", packageSource));
+		assertTrue(new File(dir, "sample/PackageDerived" + GeneratedInjector.SUFFIX + ".class").exists());
+		assertEquals("db1", injectedName("sample.PrivateDerived"));
+		assertEquals("db1", injectedName("sample.PackageDerived"));
+
+		setUp();
+		assertEquals("", compile("sample/PrivateDerived.java", privateSource, "-proc:none"));
+		assertEquals("", compile("sample/PackageDerived.java", packageSource, "-proc:none"));
+		assertFalse(new File(dir, "sample/PackageDerived" + GeneratedInjector.SUFFIX + ".class").exists());
+		assertEquals("db1", injectedName("sample.PrivateDerived"));
+		assertEquals("db1", injectedName("sample.PackageDerived"));
+	}
+
+	/**
+	 * Laedt die uebersetzte Klasse und liefert das injectete Feld name ihrer Oberklasse
+	 */
+	private Object injectedName(String className) throws Exception {
+		ClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, getClass().getClassLoader());
+		Class<?> type = loader.loadClass(className);
+		WitContainer container = new WitContainer();
+		container.bind("db_name").to("db1");
+		container.bind(type);
+		Field name = type.getSuperclass().getDeclaredField("name");
+		name.setAccessible(true);
+		return name.get(container.getInstance(type));
+	}
+
+	/**
+	 * Uebersetzt die Quelle mit dem InjectProcessor
+	 *
+	 * @return Ausgaben des Compilers
+	 */
+	private String compile(String name, String source) throws IOException {
+		return compile(name, source, "-processor", InjectProcessor.class.getName());
+	}
+
+	/**
+	 * Uebersetzt die Quelle, bereits uebersetzte Klassen liegen im Classpath
+	 *
+	 * @param options weitere Optionen des Compilers
+	 * @return Ausgaben des Compilers
+	 */
+	private String compile(String name, String source, String... options) throws IOException {
+		File file = new File(dir, name);
+		file.getParentFile().mkdirs();
+		Writer writer = new FileWriter(file);
+		writer.write(source);
+		writer.close();
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		StringWriter output = new StringWriter();
+		List<String> arguments = new ArrayList<String>(Arrays.asList("-classpath",
+				System.getProperty("java.class.path") + File.pathSeparator + dir.getPath(), "-d", dir.getPath()));
+		arguments.addAll(Arrays.asList(options));
+		compiler.getTask(output, null, null, arguments,
+				null, compiler.getStandardFileManager(null, null, null).getJavaFileObjects(file)).call();
+		return output.toString();
+	}
+
+}
@@ -0,0 +1,156 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import working_it.witcontainer.sample.Greeter;
+import working_it.witcontainer.sample.GreeterImpl;
+import working_it.witcontainer.sample.StringRepository;
+
+
+public class InterceptorTest {
+
+	/**
+	 * generierter Proxy, Reihenfolge der Interceptoren
+	 */
+	@Test
+	public void testGeneratedProxy() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		WitContainer container = new WitContainer();
+		container.bind("greeting").to("Hi");
+		container.bind(Greeter.class).to(GreeterImpl.class)
+				.intercept(invocation -> {
+					calls.add("outer " + invocation.getMethod().getName());
+					return invocation.proceed();
+				})
+				.intercept(invocation -> {
+					calls.add("inner");
+					if (invocation.getMethod().getName().equals("greet"))
+						invocation.getArguments()[0] = "Bob";
+					return invocation.proceed();
+				});
+		container.build();
+		Greeter greeter = container.getInstance(Greeter.class);
+		assertTrue(greeter instanceof GeneratedProxy);
+		assertSame(greeter, container.getInstance(Greeter.class));
+		assertEquals("Hi Bob", greeter.greet("Alice"));
+		assertEquals(1, greeter.getCount());
+		assertEquals("[outer greet, inner, outer getCount, inner]", calls.toString());
+
+		// default-Methoden werden ebenfalls intercepted, rufen aber das Ziel direkt auf
+		assertEquals("Hi A, B", greeter.greetAll("A", "B"));
+		assertEquals("outer greetAll", calls.get(4));
+
+		try {
+			greeter.check(false);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertEquals("not ok", e.getMessage());
+		}
+
+		// beim Beenden wird die Instance selbst gestoppt
+		GreeterImpl target = (GreeterImpl) Interception.unwrap(greeter);
+		container.close();
+		assertTrue(target.isStopped());
+	}
+
+	/**
+	 * generierter Proxy eines Interfaces mit generischem Ober-Interface,
+	 * null fuer einen primitiven Rueckgabe-Typ
+	 */
+	@Test
+	public void testGenericInterface() {
+		final List<String> saved = new ArrayList<String>();
+		WitContainer container = new WitContainer();
+		container.bind("repo").to(new StringRepository() {
+			public String find(String id) {
+				return "found " + id;
+			}
+
+			public void save(String value) {
+				saved.add(value);
+			}
+
+			public int size() {
+				return saved.size();
+			}
+
+			public String findFirst(String... ids) {
+				return find(ids[0]);
+			}
+		}).intercept(StringRepository.class, invocation -> {
+			if (invocation.getMethod().getName().equals("size") && saved.isEmpty())
+				return null;
+			return invocation.proceed();
+		});
+		StringRepository repo = (StringRepository) container.getInstance("repo");
+		assertTrue(repo instanceof GeneratedProxy);
+		assertEquals("found 1", repo.find("1"));
+		assertEquals("found 2", repo.findFirst("2", "3"));
+		try {
+			repo.size();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("size"));
+		}
+		repo.save("a");
+		assertEquals(1, repo.size());
+	}
+
+	/**
+	 * Wiederholung per mehrfachem proceed, Konstante mit Interceptor
+	 */
+	@Test
+	public void testRetry() {
+		final int[] attempts = new int[1];
+		WitContainer container = new WitContainer();
+		container.bind("plain").to((Plain) () -> {
+			if (++attempts[0] < 3)
+				throw new IllegalStateException("attempt " + attempts[0]);
+			return attempts[0];
+		}).intercept(Plain.class, invocation -> {
+			for (int i = 1;; i++) {
+				try {
+					return invocation.proceed();
+				} catch (IllegalStateException e) {
+					if (i == 3)
+						throw e;
+				}
+			}
+		});
+		Plain plain = (Plain) container.getInstance("plain");
+		assertFalse(plain instanceof GeneratedProxy);
+		assertEquals(3, plain.next());
+	}
+
+	/**
+	 * nur Interfaces koennen intercepted werden
+	 */
+	@Test
+	public void testInvalid() {
+		WitContainer container = new WitContainer();
+		try {
+			container.bind(GreeterImpl.class).intercept(invocation -> invocation.proceed());
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// ok
+		}
+		container.bind("greeter").to(String.class).intercept(Greeter.class, invocation -> invocation.proceed());
+		try {
+			container.validate();
+			fail("ContainerValidationException expected");
+		} catch (ContainerValidationException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("does not implement"));
+		}
+	}
+
+	public interface Plain {
+		int next();
+	}
+
+}
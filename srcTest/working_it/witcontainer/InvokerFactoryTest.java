@@ -0,0 +1,132 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.AExtended;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.ConstructorInjected;
+import working_it.witcontainer.sample.FieldInjected;
+
+
+public class InvokerFactoryTest {
+
+	/**
+	 * Erzeugt den Beispiel-Graphen mit der angegebenen Invoker-Strategie
+	 */
+	private void checkGraph(InvokerFactory invokerFactory) {
+		WitContainer witContainer = new WitContainer();
+		witContainer.setInvokerFactory(invokerFactory);
+		witContainer.bind(A.class);
+		witContainer.bind(AExtended.class);
+		witContainer.bind(B.class);
+		witContainer.bind(C.class);
+		witContainer.bind(ConstructorInjected.class);
+		witContainer.bind(FieldInjected.class);
+		witContainer.bind("db_name").to("db1");
+
+		A a = witContainer.getInstance(A.class);
+		B b = witContainer.getInstance(B.class);
+		assertSame(b, a.getB());
+		assertSame(a, b.getA());
+		assertEquals("db1", a.getName());
+		assertTrue(b.isStarted());
+		assertTrue(b.getC().isStarted());
+
+		AExtended aExtended = witContainer.getInstance(AExtended.class);
+		assertSame(b, aExtended.getB());
+
+		ConstructorInjected constructorInjected = witContainer.getInstance(ConstructorInjected.class);
+		assertSame(b, constructorInjected.getB());
+		assertEquals("db1", constructorInjected.getName());
+		assertSame(b.getC(), constructorInjected.getC());
+
+		FieldInjected fieldInjected = witContainer.getInstance(FieldInjected.class);
+		assertSame(b, fieldInjected.getB());
+		assertEquals("db1", fieldInjected.getName());
+		assertSame(b.getC(), fieldInjected.getC());
+	}
+
+	@Test
+	public void testReflection() {
+		checkGraph(InvokerFactory.REFLECTION);
+	}
+
+	@Test
+	public void testMethodHandle() {
+		checkGraph(InvokerFactory.METHOD_HANDLE);
+	}
+
+	@Test
+	public void testLambda() {
+		checkGraph(InvokerFactory.LAMBDA);
+	}
+
+	/**
+	 * Invoker werden je Strategie und Klasse nur einmal erzeugt
+	 */
+	@Test
+	public void testInvokerCached() {
+		assertSame(InvokerFactory.LAMBDA.getInvoker(A.class), InvokerFactory.LAMBDA.getInvoker(A.class));
+		assertSame(InvokerFactory.LAMBDA.getInvoker(C.class), InvokerFactory.LAMBDA.getInvoker(C.class));
+		assertNotSame(InvokerFactory.LAMBDA.getInvoker(C.class), InvokerFactory.METHOD_HANDLE.getInvoker(C.class));
+	}
+
+	/**
+	 * Test der einzelnen Strategien unabhaengig von generierten Injectoren
+	 */
+	@Test
+	public void testBackends() throws Exception {
+		InjectionPlan plan = InjectionPlan.reflect(A.class);
+		for (InvokerFactory factory : new InvokerFactory[] {
+				InvokerFactory.REFLECTION, InvokerFactory.METHOD_HANDLE, InvokerFactory.LAMBDA }) {
+			Invoker invoker = factory.createInvoker(plan);
+			A a = (A) invoker.newInstance(new Object[0]);
+			B b = new B();
+			InjectionPoint[] points = plan.getPoints();
+			for (int i = 0; i < points.length; i++) {
+				invoker.inject(a, i, (points[i].getKey() == B.class) ? b : "db1");
+			}
+			assertSame(b, a.getB());
+			assertEquals("db1", a.getName());
+		}
+	}
+
+	/**
+	 * Konstruktor- und Feld-Injection mit den einzelnen Strategien
+	 */
+	@Test
+	public void testConstructorAndFieldBackends() throws Exception {
+		B b = new B();
+		C c = new C();
+		InjectionPlan constructorPlan = InjectionPlan.reflect(ConstructorInjected.class);
+		assertEquals(3, constructorPlan.getArguments().length);
+		assertEquals("db_name", constructorPlan.getArguments()[1].getKey());
+		assertTrue(constructorPlan.getArguments()[2].isOptional());
+		InjectionPlan fieldPlan = InjectionPlan.reflect(FieldInjected.class);
+		InjectionPoint[] points = fieldPlan.getPoints();
+		assertEquals(3, points.length);
+		for (InvokerFactory factory : new InvokerFactory[] {
+				InvokerFactory.REFLECTION, InvokerFactory.METHOD_HANDLE, InvokerFactory.LAMBDA }) {
+			ConstructorInjected constructorInjected = (ConstructorInjected) factory.createInvoker(constructorPlan)
+					.newInstance(new Object[] {b, "db1", c});
+			assertSame(b, constructorInjected.getB());
+			assertEquals("db1", constructorInjected.getName());
+			assertSame(c, constructorInjected.getC());
+
+			Invoker invoker = factory.createInvoker(fieldPlan);
+			FieldInjected fieldInjected = (FieldInjected) invoker.newInstance(new Object[0]);
+			for (int i = 0; i < points.length; i++) {
+				Object key = points[i].getKey();
+				invoker.inject(fieldInjected, i, (key == B.class) ? b : (key == C.class) ? (Object) c : "db1");
+			}
+			assertSame(b, fieldInjected.getB());
+			assertEquals("db1", fieldInjected.getName());
+			assertSame(c, fieldInjected.getC());
+		}
+	}
+
+}
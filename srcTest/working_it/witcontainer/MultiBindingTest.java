@@ -0,0 +1,117 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.Plugins;
+import working_it.witcontainer.sample.Plugins.Kind;
+
+
+public class MultiBindingTest {
+
+	private WitContainer createContainer() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind(C.class);
+		container.bind("db_name").to("db1");
+		return container;
+	}
+
+	/**
+	 * Set in Reihenfolge der Bindung, Beitraege sind Singletons
+	 */
+	@Test
+	public void testSet() {
+		WitContainer container = createContainer();
+		C c = new C();
+		container.bindSet("all").add(B.class).add(c).addKey(A.class);
+		container.build();
+
+		Set<?> all = (Set<?>) container.getInstance("all");
+		assertSame(all, container.getInstance("all"));
+		assertEquals(3, all.size());
+		Iterator<?> it = all.iterator();
+		B b = (B) it.next();
+		assertSame(c, it.next());
+		assertSame(container.getInstance(A.class), it.next());
+		assertNotSame(container.getInstance(B.class), b);
+		assertSame(container.getInstance(A.class), b.getA());
+		try {
+			all.clear();
+			fail("Set darf nicht veraenderbar sein");
+		} catch (UnsupportedOperationException e) {
+			// ok
+		}
+	}
+
+	/**
+	 * Array- und Map-Injection, Index-Zugriff auf die Map
+	 */
+	@Test
+	public void testInject() {
+		WitContainer container = createContainer();
+		container.bind(Plugins.class);
+		container.bindSet(Startable[].class).add(B.class).addKey(C.class);
+		container.bindMap("plugins_by_kind")
+			.put(Kind.THIRD, B.class)
+			.putKey(Kind.FIRST, C.class);
+		container.build();
+
+		Plugins plugins = container.getInstance(Plugins.class);
+		Startable[] startables = plugins.getStartables();
+		assertEquals(2, startables.length);
+		assertTrue(startables[0] instanceof B);
+		assertSame(container.getInstance(C.class), startables[1]);
+
+		IndexedMap<Kind, Startable> byKind = plugins.getByKind();
+		assertEquals(2, byKind.size());
+		assertSame(container.getInstance(C.class), byKind.get(Kind.FIRST));
+		assertNull(byKind.get(Kind.SECOND));
+		assertTrue(byKind.get(Kind.THIRD) instanceof B);
+		assertSame(byKind.get(Kind.THIRD), byKind.get((Object) Kind.THIRD));
+		assertNull(byKind.get("FIRST"));
+		assertEquals(Arrays.asList(Kind.THIRD, Kind.FIRST), Arrays.asList(byKind.keySet().toArray()));
+	}
+
+	/**
+	 * Integer- und sonstige Keys
+	 */
+	@Test
+	public void testMapKeys() {
+		WitContainer container = new WitContainer();
+		container.bindMap("codes").put(Integer.valueOf(404), "not found").put(Integer.valueOf(200), "ok");
+		container.bindMap("names").put("a", "1").put("b", "2").put(Integer.valueOf(3), "3");
+		try {
+			container.bindMap("dup").put("x", "1").put("x", "2");
+			fail("doppelter Map-Key");
+		} catch (DuplicateBindException e) {
+			// ok
+		}
+
+		@SuppressWarnings("unchecked")
+		IndexedMap<Integer, String> codes = (IndexedMap<Integer, String>) container.getInstance("codes");
+		assertEquals("ok", codes.get(200));
+		assertEquals("not found", codes.get(404));
+		assertEquals("not found", codes.get((Object) Integer.valueOf(404)));
+		assertNull(codes.get(-1));
+		assertNull(codes.get(100000));
+
+		Map<?, ?> names = (Map<?, ?>) container.getInstance("names");
+		assertEquals("1", names.get("a"));
+		assertEquals("2", names.get("b"));
+		assertEquals("3", names.get(Integer.valueOf(3)));
+		assertNull(names.get("c"));
+		assertEquals(3, names.size());
+	}
+
+}
@@ -0,0 +1,217 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+
+public class ResolutionContextTest {
+
+	/**
+	 * Zyklus ueber Konstruktor-Argumente wird mit Pfad gemeldet
+	 */
+	@Test
+	public void testConstructorCycle() {
+		WitContainer container = new WitContainer();
+		container.bind(First.class);
+		container.bind(Second.class);
+		try {
+			container.getInstance(First.class);
+			fail("DependencyCycleException expected");
+		} catch (DependencyCycleException e) {
+			assertEquals(Arrays.asList(First.class, Second.class, First.class), e.getPath());
+			assertTrue(e.getMessage(), e.getMessage().contains(" -> "));
+		}
+		assertEquals(0, ResolutionContext.current().depth());
+	}
+
+	/**
+	 * Zyklus ueber Konstruktor-Argumente, dessen Singletons von zwei Threads
+	 * gleichzeitig erzeugt werden: beide Threads erhalten die Exception,
+	 * statt aufeinander zu warten
+	 */
+	@Test(timeout=20000)
+	public void testConstructorCycleAcrossThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 5; round++) {
+				final WitContainer container = new WitContainer();
+				container.bind(Upstream.class);
+				container.bind(Downstream.class);
+				container.bind(Gate.class).inScope(Scopes.PROTOTYPE);
+				final CyclicBarrier barrier = new CyclicBarrier(2);
+				Future<Upstream> up = executor.submit(new Callable<Upstream>() {
+					public Upstream call() throws Exception {
+						barrier.await();
+						return container.getInstance(Upstream.class);
+					}
+				});
+				Future<Downstream> down = executor.submit(new Callable<Downstream>() {
+					public Downstream call() throws Exception {
+						barrier.await();
+						return container.getInstance(Downstream.class);
+					}
+				});
+				assertCycle(up);
+				assertCycle(down);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertCycle(Future<?> future) throws InterruptedException {
+		try {
+			future.get();
+			fail("DependencyCycleException expected");
+		} catch (ExecutionException e) {
+			assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof DependencyCycleException);
+			List<Object> path = ((DependencyCycleException) e.getCause()).getPath();
+			assertEquals(path.get(0), path.get(path.size() - 1));
+			assertTrue(path.toString(), path.contains(Upstream.class) && path.contains(Downstream.class));
+		}
+	}
+
+	/**
+	 * Zyklus nicht-singleton Bindungen fuehrt nicht zum StackOverflowError
+	 */
+	@Test
+	public void testPrototypeCycle() {
+		WitContainer container = new WitContainer();
+		container.bind(Ping.class).inScope(Scopes.PROTOTYPE);
+		container.bind(Pong.class).inScope(Scopes.PROTOTYPE);
+		try {
+			container.getInstance(Ping.class);
+			fail("DependencyCycleException expected");
+		} catch (DependencyCycleException e) {
+			assertEquals(Arrays.asList(Ping.class, Pong.class, Ping.class), e.getPath());
+		}
+
+		// als Singletons ist der Zyklus per Setter aufloesbar
+		container = new WitContainer();
+		container.bind(Ping.class);
+		container.bind(Pong.class);
+		Ping ping = container.getInstance(Ping.class);
+		assertSame(ping, ping.pong.ping);
+	}
+
+	/**
+	 * eine sehr tiefe Kette von Konstruktor-Abhaengigkeiten wird auch
+	 * mit kleinem Thread-Stack erzeugt
+	 */
+	@Test
+	public void testDeepGraph() throws Exception {
+		final int length = 2000;
+		File dir = File.createTempFile("witcontainer", "chain");
+		dir.delete();
+		dir.mkdirs();
+		StringBuilder source = new StringBuilder("public class Chain {\n");
+		for (int i = 0; i < length; i++) {
+			source.append("public static class N").append(i).append(" {\n");
+			if (i + 1 < length) {
+				source.append("@working_it.witcontainer.Inject public N").append(i).append("(N").append(i + 1).append(" next) {}\n");
+			}
+			source.append("}\n");
+		}
+		File file = new File(dir, "Chain.java");
+		Writer writer = new FileWriter(file);
+		writer.write(source.append("}\n").toString());
+		writer.close();
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		StringWriter output = new StringWriter();
+		assertTrue(output.toString(), compiler.getTask(output, null, null,
+				Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", dir.getPath(), "-proc:none"),
+				null, compiler.getStandardFileManager(null, null, null).getJavaFileObjects(file)).call());
+
+		ClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, getClass().getClassLoader());
+		final WitContainer container = new WitContainer();
+		for (int i = 0; i < length; i++) {
+			container.bind(loader.loadClass("Chain$N" + i));
+		}
+		final Class<?> root = loader.loadClass("Chain$N0");
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final AtomicReference<Object> created = new AtomicReference<Object>();
+		Thread thread = new Thread(null, new Runnable() {
+			public void run() {
+				try {
+					created.set(container.getInstance(root));
+				} catch (Throwable e) {
+					failure.set(e);
+				}
+			}
+		}, "deep", 256 * 1024);
+		thread.start();
+		thread.join();
+		assertNull(failure.get());
+		assertTrue(root.isInstance(created.get()));
+		assertNotNull(container.getInstance(loader.loadClass("Chain$N" + (length - 1))));
+	}
+
+	public static class First {
+		@Inject
+		public First(Second second) {
+		}
+	}
+
+	public static class Second {
+		@Inject
+		public Second(First first) {
+		}
+	}
+
+	/**
+	 * verzoegert die Konstruktor-Argumente, so dass beide Threads
+	 * ihr Singleton bereits begonnen haben
+	 */
+	public static class Gate {
+		public Gate() {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public static class Upstream {
+		@Inject
+		public Upstream(Gate gate, Downstream downstream) {
+		}
+	}
+
+	public static class Downstream {
+		@Inject
+		public Downstream(Gate gate, Upstream upstream) {
+		}
+	}
+
+	public static class Ping {
+		@Inject
+		public Pong pong;
+	}
+
+	public static class Pong {
+		@Inject
+		public Ping ping;
+	}
+
+}
@@ -0,0 +1,152 @@
+package working_it.witcontainer;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import working_it.witcontainer.sample.A;
+import working_it.witcontainer.sample.B;
+import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.PooledBuffer;
+
+
+public class ScopeTest {
+
+	private WitContainer witContainer;
+
+	@Before
+	public void setUp() throws Exception {
+		witContainer = new WitContainer();
+		witContainer.bind(A.class);
+		witContainer.bind(B.class);
+		witContainer.bind("db_name").to("db1");
+	}
+
+	/**
+	 * Prototype: bei jedem Zugriff eine neue, injectete und gestartete Instance
+	 */
+	@Test
+	public void testPrototype() {
+		witContainer.bind(C.class).inScope(Scopes.PROTOTYPE);
+		C c1 = witContainer.getInstance(C.class);
+		C c2 = witContainer.getInstance(C.class);
+		assertNotSame(c1, c2);
+		assertTrue(c1.isStarted());
+		assertTrue(c2.isStarted());
+		// Singletons erhalten ihre Prototype-Instance einmalig
+		B b = witContainer.getInstance(B.class);
+		assertNotNull(b.getC());
+		assertNotSame(c1, b.getC());
+	}
+
+	/**
+	 * Thread: eine Instance je Thread
+	 */
+	@Test
+	public void testThread() throws Exception {
+		witContainer.bind(C.class).inScope(Scopes.THREAD);
+		C c1 = witContainer.getInstance(C.class);
+		assertSame(c1, witContainer.getInstance(C.class));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			C c2 = executor.submit(new Callable<C>() {
+				public C call() {
+					return witContainer.getInstance(C.class);
+				}
+			}).get();
+			assertNotSame(c1, c2);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Thread: dispose gibt die Instanzen aller Threads frei,
+	 * auch die von Pool-Threads, die weiterlaufen
+	 */
+	@Test
+	public void testThreadDispose() throws Exception {
+		witContainer.bind(C.class).inScope(Scopes.THREAD);
+		C c1 = witContainer.getInstance(C.class);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Callable<C> get = new Callable<C>() {
+				public C call() {
+					return witContainer.getInstance(C.class);
+				}
+			};
+			WeakReference<C> pooled = new WeakReference<C>(executor.submit(get).get());
+			witContainer.dispose();
+			assertNotSame(c1, witContainer.getInstance(C.class));
+			for (int i = 0; i < 50 && pooled.get() != null; i++) {
+				System.gc();
+				Thread.sleep(10);
+			}
+			assertNull(pooled.get());
+			assertNotNull(executor.submit(get).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Request: eine Instance je Request, ausserhalb eines Requests Fehler
+	 */
+	@Test
+	public void testRequest() {
+		witContainer.bind(C.class).inScope(Scopes.REQUEST);
+		C c1;
+		Scopes.REQUEST.begin();
+		try {
+			c1 = witContainer.getInstance(C.class);
+			assertSame(c1, witContainer.getInstance(C.class));
+		} finally {
+			Scopes.REQUEST.end();
+		}
+		Scopes.REQUEST.begin();
+		try {
+			assertNotSame(c1, witContainer.getInstance(C.class));
+		} finally {
+			Scopes.REQUEST.end();
+		}
+		boolean throwException = false;
+		try {
+			witContainer.getInstance(C.class);
+		} catch (ServiceCreationException e) {
+			throwException = true;
+		}
+		assertTrue(throwException);
+	}
+
+	/**
+	 * Pooled: zurueckgegebene Instanzen werden zurueckgesetzt und wiederverwendet
+	 */
+	@Test
+	public void testPooled() {
+		PooledScope pool = new PooledScope(2);
+		witContainer.bind(C.class);
+		witContainer.bind(PooledBuffer.class).inScope(pool);
+		PooledBuffer b1 = witContainer.getInstance(PooledBuffer.class);
+		PooledBuffer b2 = witContainer.getInstance(PooledBuffer.class);
+		PooledBuffer b3 = witContainer.getInstance(PooledBuffer.class);
+		assertNotSame(b1, b2);
+		assertSame(b1.getC(), b2.getC());
+		b1.getBuffer().append("x");
+		pool.release(b1);
+		pool.release(b2);
+		pool.release(b3); // Pool ist voll
+		assertEquals(2, pool.size());
+		PooledBuffer b4 = witContainer.getInstance(PooledBuffer.class);
+		assertTrue(b4 == b1 || b4 == b2);
+		assertEquals(0, b4.getBuffer().length());
+		assertEquals(1, pool.size());
+	}
+
+}
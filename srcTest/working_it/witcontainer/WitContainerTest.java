@@ -4,6 +4,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.*;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -14,6 +27,10 @@ import working_it.witcontainer.sample.A;
 import working_it.witcontainer.sample.AExtended;
 import working_it.witcontainer.sample.B;
 import working_it.witcontainer.sample.C;
+import working_it.witcontainer.sample.CountingStartable;
+import working_it.witcontainer.sample.LazyClient;
+import working_it.witcontainer.sample.ResourceUser;
+import working_it.witcontainer.sample.StoppableResource;
 import working_it.witcontainer.sample.SampleSimpleClassProvider;
 import working_it.witcontainer.sample.SampleStringProvider;
 import working_it.witcontainer.sample.SimpleClass;
@@ -160,6 +177,128 @@ public class WitContainerTest {
 		assertEquals(o, o2);
 	}
 	
+	/**
+	 * Caching-Verhalten der Provider-Bindungen
+	 */
+	@Test
+	public void testProviderPolicy() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		witContainer.bind("counter").to(new Provider<Integer>() {
+			public Integer get() {
+				return Integer.valueOf(calls.incrementAndGet());
+			}
+		});
+		witContainer.bind("alwaysNew").toProvider("counter");
+		witContainer.bind("cached").toProvider("counter", ProviderPolicy.CACHED);
+		witContainer.bind("perThread").toProvider("counter", ProviderPolicy.PER_THREAD);
+		witContainer.bind("ttl").toProvider("counter", ProviderPolicy.ttl(1, TimeUnit.HOURS));
+
+		assertNotSame(witContainer.getInstance("alwaysNew"), witContainer.getInstance("alwaysNew"));
+		assertEquals(2, calls.get());
+
+		Object cached = witContainer.getInstance("cached");
+		assertSame(cached, witContainer.getInstance("cached"));
+		assertSame(witContainer.getInstance("ttl"), witContainer.getInstance("ttl"));
+		assertEquals(4, calls.get());
+
+		Object perThread = witContainer.getInstance("perThread");
+		assertSame(perThread, witContainer.getInstance("perThread"));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Object other = executor.submit(new Callable<Object>() {
+				public Object call() {
+					return witContainer.getInstance("perThread");
+				}
+			}).get();
+			assertNotSame(perThread, other);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(6, calls.get());
+
+		witContainer.dispose();
+		assertNotSame(cached, witContainer.getInstance("cached"));
+	}
+
+	/**
+	 * dispose gibt die PER_THREAD-Objekte aller Threads frei
+	 */
+	@Test
+	public void testProviderPerThreadDispose() throws Exception {
+		witContainer.bind("counter").to(new Provider<Object>() {
+			public Object get() {
+				return new Object();
+			}
+		});
+		witContainer.bind("perThread").toProvider("counter", ProviderPolicy.PER_THREAD);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Callable<Object> get = new Callable<Object>() {
+				public Object call() {
+					return witContainer.getInstance("perThread");
+				}
+			};
+			WeakReference<Object> pooled = new WeakReference<Object>(executor.submit(get).get());
+			witContainer.dispose();
+			for (int i = 0; i < 50 && pooled.get() != null; i++) {
+				System.gc();
+				Thread.sleep(10);
+			}
+			assertNull(pooled.get());
+			assertNotNull(executor.submit(get).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * TTL-Provider mit steuerbarer Zeitquelle: erneutes Provider.get erst nach
+	 * Ablauf, auch wenn der Provider null liefert
+	 */
+	@Test
+	public void testProviderTtlExpiry() {
+		final AtomicInteger calls = new AtomicInteger();
+		Provider<Object> provider = new Provider<Object>() {
+			public Object get() {
+				calls.incrementAndGet();
+				return null;
+			}
+		};
+		final long[] now = { 0 };
+		ProviderResolver ttl = new ProviderResolver.Ttl(provider, "ttl", null, 10, new LongSupplier() {
+			public long getAsLong() {
+				return now[0];
+			}
+		});
+		assertNull(ttl.get());
+		now[0] = 9;
+		assertNull(ttl.get());
+		assertEquals(1, calls.get());
+		now[0] = 10;
+		assertNull(ttl.get());
+		assertEquals(2, calls.get());
+	}
+
+	/**
+	 * der Injection-Plan wird je Klasse nur einmal ermittelt und von
+	 * allen Containern gemeinsam genutzt
+	 */
+	@Test
+	public void testInjectionPlanCached() {
+		InjectionPlan plan = InjectionPlan.forClass(AExtended.class);
+		assertSame(plan, InjectionPlan.forClass(AExtended.class));
+		assertNotSame(plan, InjectionPlan.reflect(AExtended.class));
+
+		WitContainer other = new WitContainer();
+		other.bind(AExtended.class);
+		other.bind(B.class);
+		other.bind(A.class);
+		other.bind(C.class);
+		other.bind("db_name").to("db2");
+		assertNotNull(other.getInstance(AExtended.class).getB());
+		assertSame(plan, InjectionPlan.forClass(AExtended.class));
+	}
+
 	@Test
 	public void testInjectionOverExtendedClass() {
 		witContainer.bind(AExtended.class);
@@ -169,12 +308,541 @@ public class WitContainerTest {
 	}
 	
 	
+	/**
+	 * Test der thread-sicheren Erzeugung:
+	 * bei gleichzeitigem ersten Zugriff vieler Threads darf jede Instance
+	 * nur einmal erzeugt und gestartet werden, und alle Threads muessen
+	 * die fertig injectete Instance sehen.
+	 */
 	@Test
-	public void testThreadSafeGetInstance() {
-		//TODO
+	public void testThreadSafeGetInstance() throws Exception {
+		final int threads = 16;
+		final int rounds = 200;
+		CountingStartable.CREATED.set(0);
+		CountingStartable.STARTED.set(0);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (int round = 0; round < rounds; round++) {
+				final WitContainer container = new WitContainer();
+				container.bind(A.class);
+				container.bind(B.class);
+				container.bind(C.class);
+				container.bind(CountingStartable.class);
+				container.bind("db_name").to("db1");
+
+				final CyclicBarrier barrier = new CyclicBarrier(threads);
+				List<Future<CountingStartable>> results = new ArrayList<Future<CountingStartable>>();
+				for (int i = 0; i < threads; i++) {
+					final boolean viaB = i % 2 == 0;
+					results.add(executor.submit(new Callable<CountingStartable>() {
+						public CountingStartable call() throws Exception {
+							barrier.await();
+							if (viaB) {
+								B b = container.getInstance(B.class);
+								assertNotNull(b.getA());
+								assertTrue(b.isStarted());
+							}
+							return container.getInstance(CountingStartable.class);
+						}
+					}));
+				}
+				CountingStartable first = results.get(0).get();
+				for (Future<CountingStartable> result : results) {
+					CountingStartable cs = result.get();
+					assertSame(first, cs);
+					assertTrue(cs.isStarted());
+					assertNotNull(cs.getB());
+					assertSame(cs.getB(), cs.getB().getA().getB());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(rounds, CountingStartable.CREATED.get());
+		assertEquals(rounds, CountingStartable.STARTED.get());
+	}
+
+	/**
+	 * Zyklus ueber Setter, gleichzeitig von beiden Enden in zwei Threads
+	 * aufgeloest: jeder Thread erhaelt die noch nicht fertige Instance des
+	 * anderen, anstatt auf deren Lock zu warten (Deadlock)
+	 */
+	@Test(timeout = 20000)
+	public void testCycleAcrossThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 5; round++) {
+				final WitContainer container = new WitContainer();
+				container.bind(Left.class);
+				container.bind(Right.class);
+				final CyclicBarrier barrier = new CyclicBarrier(2);
+				Future<Left> left = executor.submit(new Callable<Left>() {
+					public Left call() throws Exception {
+						barrier.await();
+						return container.getInstance(Left.class);
+					}
+				});
+				Future<Right> right = executor.submit(new Callable<Right>() {
+					public Right call() throws Exception {
+						barrier.await();
+						return container.getInstance(Right.class);
+					}
+				});
+				assertSame(right.get(), left.get().right);
+				assertSame(left.get(), right.get().left);
+			}
+		} finally {
+			executor.shutdown();
+		}
 	}
 	
 	
+	/**
+	 * Test des Einfrierens: Zugriffe funktionieren weiterhin,
+	 * weitere Bindungen werden abgewiesen
+	 */
+	@Test
+	public void testFreeze() {
+		witContainer.bind("key1").to("value1");
+		witContainer.freeze();
+		assertTrue(witContainer.isFrozen());
+		assertSame(a, witContainer.getInstance(A.class));
+		assertEquals("value1", witContainer.getInstance("key1"));
+		boolean throwException = false;
+		try {
+			witContainer.getInstance("unknown");
+		} catch (ServiceNotBoundException e) {
+			throwException = true;
+		}
+		assertTrue(throwException);
+
+		// Class-Keys ohne Monitor ueber die Identitaets-Tabelle, auch aus dem Kind
+		witContainer.setMonitor(null);
+		assertSame(a, witContainer.getInstance(A.class));
+		WitContainer child = witContainer.createChild();
+		child.freeze();
+		assertSame(b, child.getInstance(B.class));
+		try {
+			child.getInstance(String.class);
+			fail("ServiceNotBoundException expected");
+		} catch (ServiceNotBoundException e) {
+			// ok
+		}
+
+		throwException = false;
+		try {
+			witContainer.bind("key2");
+		} catch (ContainerFrozenException e) {
+			throwException = true;
+		}
+		assertTrue(throwException);
+	}
+
+	/**
+	 * Test des parallelen Bindens im concurrentBind-Modus:
+	 * jeder Key darf genau einmal gebunden werden
+	 */
+	@Test
+	public void testConcurrentBind() throws Exception {
+		final int threads = 8;
+		final int keys = 1000;
+		final WitContainer container = new WitContainer(16, true);
+		final AtomicInteger duplicates = new AtomicInteger();
+		final CyclicBarrier barrier = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						barrier.await();
+						for (int i = 0; i < keys; i++) {
+							try {
+								container.bind("key"+i).to("value"+i);
+							} catch (DuplicateBindException e) {
+								duplicates.incrementAndGet();
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Object> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals((threads-1)*keys, duplicates.get());
+		container.freeze();
+		for (int i = 0; i < keys; i++) {
+			assertEquals("value"+i, container.getInstance("key"+i));
+		}
+	}
+
+	/**
+	 * Ein abgeschalteter Monitor darf keine Meldungen erhalten
+	 */
+	@Test
+	public void testDisabledMonitor() {
+		final AtomicInteger messages = new AtomicInteger();
+		WitContainer container = new WitContainer();
+		container.setMonitor(new Monitor() {
+			public void log(String message) {
+				messages.incrementAndGet();
+			}
+			public boolean isEnabled() {
+				return false;
+			}
+		});
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind("db_name").to("db1");
+		assertNotNull(container.getInstance(A.class).getB());
+		assertEquals(0, messages.get());
+	}
+
+	/**
+	 * Test der strukturierten Ereignisse per MetricsMonitor
+	 */
+	@Test
+	public void testMetricsMonitor() {
+		MetricsMonitor metrics = new MetricsMonitor();
+		WitContainer container = new WitContainer();
+		container.setMonitor(metrics);
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind(C.class);
+		container.bind("db_name").to("db1");
+		container.bind(SampleStringProvider.class);
+		container.bind("message").toProvider(SampleStringProvider.class);
+
+		container.getInstance(A.class);
+		container.getInstance(A.class);
+		container.getInstance("message");
+
+		MetricsMonitor.Metrics a = metrics.getMetrics(A.class);
+		assertEquals(1L, a.getBinds());
+		assertEquals(1L, a.getCreations());
+		assertEquals(1L, a.getCacheHits());
+		assertEquals(1L, a.getConstruct().getCount());
+		assertEquals(2L, a.getInject().getCount());
+		assertEquals(3L, a.getResolve().getCount());
+		assertEquals(1L, metrics.getMetrics(B.class).getStart().getCount());
+		assertEquals(1L, metrics.getMetrics("message").getProviderGet().getCount());
+		assertTrue(metrics.report().length() > 0);
+	}
+
+	/**
+	 * Test des parallelen Vorab-Erzeugens aller Singletons
+	 */
+	@Test
+	public void testStartAll() {
+		CountingStartable.CREATED.set(0);
+		CountingStartable.STARTED.set(0);
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind(C.class);
+		container.bind(CountingStartable.class);
+		container.bind("db_name").to("db1");
+		container.bind(SampleStringProvider.class);
+		container.bind("message").toProvider(SampleStringProvider.class);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			container.startAll(executor);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, CountingStartable.STARTED.get());
+		CountingStartable cs = container.getInstance(CountingStartable.class);
+		assertTrue(cs.isStarted());
+		assertTrue(cs.getB().isStarted());
+		assertSame(cs.getB(), cs.getB().getA().getB());
+		assertEquals("instance by provider", container.getInstance("message"));
+		assertEquals(1, CountingStartable.CREATED.get());
+	}
+
+	/**
+	 * Fehler beim Vorab-Erzeugen werden gesammelt gemeldet,
+	 * abhaengige Instanzen nicht mehr erzeugt
+	 */
+	@Test
+	public void testStartAllFailure() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind(C.class);
+		container.bind("db_name").to(SimpleClass.class); // kein Default-Konstruktor
+		container.bind("other").to(SimpleClass.class);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			container.startAll(executor);
+			fail("ContainerLifecycleException expected");
+		} catch (ContainerLifecycleException e) {
+			assertEquals(2, e.getFailures().size());
+			assertTrue(e.getFailures().containsKey("db_name"));
+			assertTrue(e.getFailures().containsKey("other"));
+			assertEquals(2, e.getSuppressed().length);
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(container.getInstance(C.class).isStarted());
+	}
+
+	/**
+	 * Kind-Container: lokale Bindungen haben Vorrang, Singletons des
+	 * Eltern-Containers werden geteilt, dispose betrifft nur das Kind
+	 */
+	@Test
+	public void testChildContainer() {
+		WitContainer child = witContainer.createChild();
+		assertSame(witContainer, child.getParent());
+		child.bind("db_name").to("tenant1");
+		child.bind("tenantA").to(A.class);
+
+		// Singletons des Eltern-Containers
+		assertSame(a, child.getInstance(A.class));
+		assertSame(b, child.getInstance(B.class));
+		assertEquals("db1", witContainer.getInstance("db_name"));
+		assertEquals("tenant1", child.getInstance("db_name"));
+
+		A tenantA = (A) child.getInstance("tenantA");
+		assertEquals("tenant1", tenantA.getName());
+		assertSame(b, tenantA.getB());
+		assertSame(tenantA, child.getInstance("tenantA"));
+
+		boolean throwException = false;
+		try {
+			witContainer.getInstance("tenantA");
+		} catch (ServiceNotBoundException e) {
+			throwException = true;
+		}
+		assertTrue(throwException);
+
+		child.dispose();
+		assertNotSame(tenantA, child.getInstance("tenantA"));
+		assertEquals("tenant1", child.getInstance("db_name"));
+		assertSame(a, witContainer.getInstance(A.class));
+	}
+
+	/**
+	 * build: Pruefen, Vorab-Aufloesen und Einfrieren
+	 */
+	@Test
+	public void testBuild() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind("db_name").to("db1");
+		container.bind(SampleStringProvider.class);
+		container.bind("message").toProvider(SampleStringProvider.class);
+		assertSame(container, container.build());
+		assertTrue(container.isFrozen());
+
+		A a = container.getInstance(A.class);
+		assertSame(container.getInstance(B.class), a.getB());
+		assertSame(a, a.getB().getA());
+		assertNull(a.getB().getC());
+		assertEquals("db1", a.getName());
+		assertEquals("instance by provider", container.getInstance("message"));
+	}
+
+	/**
+	 * validate meldet alle Fehler in einem Durchgang
+	 */
+	@Test
+	public void testValidate() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind("noImpl");
+		container.bind("p1").toProvider("p2");
+		container.bind("p2").toProvider("p1");
+		container.bind("p3").toProvider("unknown");
+		try {
+			container.build();
+			fail("ContainerValidationException expected");
+		} catch (ContainerValidationException e) {
+			Map<Object, List<String>> problems = e.getProblems();
+			assertEquals(5, problems.size());
+			// B und db_name fehlen
+			assertEquals(2, problems.get(A.class).size());
+			assertEquals(1, problems.get("noImpl").size());
+			assertTrue(problems.get("p1").get(0).startsWith("unresolvable cycle"));
+			assertTrue(problems.get("p2").get(0).startsWith("unresolvable cycle"));
+			assertEquals(1, problems.get("p3").size());
+		}
+		assertFalse(container.isFrozen());
+	}
+
+	/**
+	 * Provider-, Supplier- und Proxy-Injection erzeugen die Abhaengigkeiten
+	 * erst beim ersten Zugriff
+	 */
+	@Test
+	public void testLazy() {
+		WitContainer container = new WitContainer();
+		container.bind(A.class);
+		container.bind(B.class);
+		container.bind("db_name").to("db1");
+		container.bind(Startable.class).to(C.class);
+		container.bind(LazyClient.class);
+		container.build();
+		container.recordCreations();
+
+		LazyClient client = container.getInstance(LazyClient.class);
+		assertEquals(1, container.getCreationOrder().size());
+		assertEquals("db1", client.name.get());
+		assertSame(container.getInstance(A.class), client.getA().get());
+		assertEquals(3, container.getCreationOrder().size());
+
+		Startable startable = client.getStartable();
+		assertFalse(startable instanceof C);
+		startable.start();
+		C c = (C) container.getInstance(Startable.class);
+		assertTrue(c.isStarted());
+		assertEquals(4, container.getCreationOrder().size());
+		assertEquals(startable, startable);
+		assertFalse(startable.equals(c));
+
+		// generierter Injector und Reflection liefern denselben Plan
+		InjectionPoint[] generated = InjectionPlan.forClass(LazyClient.class).getPoints();
+		InjectionPoint[] reflected = InjectionPlan.reflect(LazyClient.class).getPoints();
+		assertNotNull(InjectionPlan.forClass(LazyClient.class).getGeneratedInjector());
+		assertEquals(reflected.length, generated.length);
+		for (int i = 0; i < reflected.length; i++) {
+			assertEquals(reflected[i].getKey(), generated[i].getKey());
+			assertEquals(reflected[i].getLazyType(), generated[i].getLazyType());
+		}
+		assertEquals(A.class, InjectionPlan.forClass(LazyClient.class).getArguments()[0].getKey());
+		assertEquals(Provider.class, InjectionPlan.reflect(LazyClient.class).getArguments()[0].getLazyType());
+	}
+
+	/**
+	 * rohe Provider-Typen sowie Bindungen an eine Provider-Instance werden
+	 * nicht verzoegert, sondern erhalten den gebundenen Provider selbst
+	 */
+	@Test
+	public void testProviderInjectedDirectly() {
+		Provider<String> provider = new SampleStringProvider();
+		WitContainer container = new WitContainer();
+		container.bind("x").to(provider);
+		container.bind(ProviderHolder.class);
+		ProviderHolder holder = container.getInstance(ProviderHolder.class);
+		assertSame(provider, holder.raw);
+		assertSame(provider, holder.typed);
+
+		assertNull(InjectionPlan.reflect(ProviderHolder.class).getPoints()[0].getLazyType());
+		assertNotNull(InjectionPlan.forClass(ProviderHolder.class).getGeneratedInjector());
+		assertNull(InjectionPlan.forClass(ProviderHolder.class).getPoints()[0].getLazyType());
+	}
+
+	/**
+	 * close beendet in umgekehrter Abhaengigkeits-Reihenfolge,
+	 * haengende stop-Aufrufe werden per Timeout abgebrochen
+	 */
+	@Test
+	public void testClose() throws Exception {
+		StoppableResource.STOPPED.clear();
+		MetricsMonitor metrics = new MetricsMonitor();
+		WitContainer container = new WitContainer();
+		container.setMonitor(metrics);
+		container.bind(StoppableResource.class);
+		container.bind(ResourceUser.class);
+		container.bind(Hanging.class);
+		container.bind("unused").to(ResourceUser.class);
+		ResourceUser user = container.getInstance(ResourceUser.class);
+		container.getInstance(Hanging.class);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			container.close(executor, 100, TimeUnit.MILLISECONDS);
+			fail("ContainerLifecycleException expected");
+		} catch (ContainerLifecycleException e) {
+			assertEquals(1, e.getFailures().size());
+			assertTrue(e.getFailures().get(Hanging.class) instanceof java.util.concurrent.TimeoutException);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals("[user, resource]", StoppableResource.STOPPED.toString());
+		assertEquals(1L, metrics.getMetrics(ResourceUser.class).getStop().getCount());
+		assertEquals(0L, metrics.getMetrics("unused").getStop().getCount());
+
+		// danach sind die Instanzen freigegeben
+		assertNotSame(user, container.getInstance(ResourceUser.class));
+		container.close();
+		assertEquals("[user, resource, user, resource]", StoppableResource.STOPPED.toString());
+	}
+
+	/**
+	 * laeuft ein stop-Aufruf nach dem Timeout weiter, werden seine
+	 * Abhaengigkeiten nicht beendet, sondern gemeldet
+	 */
+	@Test
+	public void testCloseTimeoutKeepsDependencies() throws Exception {
+		StoppableResource.STOPPED.clear();
+		WitContainer container = new WitContainer();
+		container.bind(StoppableResource.class);
+		container.bind(HangingUser.class);
+		container.getInstance(HangingUser.class);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			container.close(executor, 100, TimeUnit.MILLISECONDS);
+			fail("ContainerLifecycleException expected");
+		} catch (ContainerLifecycleException e) {
+			assertEquals(2, e.getFailures().size());
+			assertTrue(e.getFailures().get(HangingUser.class) instanceof java.util.concurrent.TimeoutException);
+			assertTrue(e.getFailures().get(StoppableResource.class) instanceof java.util.concurrent.TimeoutException);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(StoppableResource.STOPPED.toString(), StoppableResource.STOPPED.isEmpty());
+	}
+
+	/**
+	 * die Wartezeit in der Warteschlange des Executors zaehlt nicht zum Timeout
+	 */
+	@Test
+	public void testCloseTimeoutExcludesQueueing() throws Exception {
+		WitContainer container = new WitContainer();
+		container.bind("slow1").to(SlowStop.class);
+		container.bind("slow2").to(SlowStop.class);
+		container.getInstance("slow1");
+		container.getInstance("slow2");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			container.close(executor, 300, TimeUnit.MILLISECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public static class SlowStop implements Stoppable {
+		public void stop() {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public static class HangingUser extends Hanging {
+		@Inject
+		public StoppableResource resource;
+	}
+
+	public static class Hanging implements Stoppable {
+		public void stop() {
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				// ok
+			}
+		}
+	}
+
 	@Test
 	public void testRuntime() {
 		System.out.println("\n=== testRuntime ===");
@@ -216,4 +884,52 @@ public class WitContainerTest {
 	}
 	
 
+	private static void pause() {
+		try {
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	public static class ProviderHolder {
+		Provider raw;
+
+		@Inject("x")
+		public Provider<String> typed;
+
+		@Inject("x")
+		public void setRaw(Provider raw) {
+			this.raw = raw;
+		}
+	}
+
+	public static class Left {
+		private Right right;
+
+		public Left() {
+			// beide Threads sollen ihre Instance vor dem Injecten erzeugt haben
+			pause();
+		}
+
+		@Inject
+		public void setRight(Right right) {
+			this.right = right;
+		}
+	}
+
+	public static class Right {
+		private Left left;
+
+		public Right() {
+			pause();
+		}
+
+		@Inject
+		public void setLeft(Left left) {
+			this.left = left;
+		}
+	}
+
 }
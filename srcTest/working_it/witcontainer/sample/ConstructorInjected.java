@@ -0,0 +1,42 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * unveraenderliche Klasse mit Konstruktor-Injection
+ */
+public class ConstructorInjected {
+
+	private final B b;
+	private final String name;
+	private final C c;
+
+	@Inject
+	public ConstructorInjected(B b, @Inject("db_name") String name, @Inject(optional=true) C c) {
+		this.b = b;
+		this.name = name;
+		this.c = c;
+	}
+
+	/**
+	 * @return the b
+	 */
+	public B getB() {
+		return b;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the c
+	 */
+	public C getC() {
+		return c;
+	}
+
+}
@@ -0,0 +1,48 @@
+package working_it.witcontainer.sample;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Startable;
+
+/**
+ * Zaehlt Erzeugungen und start-Aufrufe (fuer Thread-Tests).
+ * Die Erzeugung ist kuenstlich verlangsamt.
+ */
+public class CountingStartable implements Startable {
+
+	public static final AtomicInteger CREATED = new AtomicInteger();
+	public static final AtomicInteger STARTED = new AtomicInteger();
+
+	private B b;
+	private boolean started;
+
+	public CountingStartable() {
+		CREATED.incrementAndGet();
+		Thread.yield();
+	}
+
+	@Inject
+	public void setB(B b) {
+		this.b = b;
+	}
+
+	public void start() {
+		STARTED.incrementAndGet();
+		started = true;
+	}
+
+	/**
+	 * @return the b
+	 */
+	public B getB() {
+		return b;
+	}
+
+	/**
+	 * @return the started
+	 */
+	public boolean isStarted() {
+		return started;
+	}
+}
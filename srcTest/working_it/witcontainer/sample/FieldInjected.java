@@ -0,0 +1,40 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Klasse mit Feld-Injection
+ */
+public class FieldInjected {
+
+	@Inject
+	B b;
+
+	@Inject("db_name")
+	protected String name;
+
+	@Inject(optional=true)
+	public C c;
+
+	/**
+	 * @return the b
+	 */
+	public B getB() {
+		return b;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the c
+	 */
+	public C getC() {
+		return c;
+	}
+
+}
@@ -0,0 +1,22 @@
+package working_it.witcontainer.sample;
+
+import java.io.IOException;
+
+import working_it.witcontainer.Interceptable;
+
+/**
+ * Interface mit generiertem Proxy fuer Interceptoren
+ */
+@Interceptable
+public interface Greeter {
+
+	public String greet(String name);
+
+	public int getCount();
+
+	public void check(boolean ok) throws IOException;
+
+	public default String greetAll(String... names) {
+		return greet(String.join(", ", names));
+	}
+}
@@ -0,0 +1,40 @@
+package working_it.witcontainer.sample;
+
+import java.io.IOException;
+
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Stoppable;
+
+public class GreeterImpl implements Greeter, Stoppable {
+
+	private String greeting = "Hello";
+	private int count;
+	private boolean stopped;
+
+	@Inject(value="greeting", optional=true)
+	public void setGreeting(String greeting) {
+		this.greeting = greeting;
+	}
+
+	public String greet(String name) {
+		count++;
+		return greeting + " " + name;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void check(boolean ok) throws IOException {
+		if (!ok)
+			throw new IOException("not ok");
+	}
+
+	public void stop() {
+		stopped = true;
+	}
+
+	public boolean isStopped() {
+		return stopped;
+	}
+}
@@ -0,0 +1,37 @@
+package working_it.witcontainer.sample;
+
+import java.util.function.Supplier;
+
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Provider;
+import working_it.witcontainer.Startable;
+
+/**
+ * Beispiel fuer verzoegerte Injection per Provider, Supplier und Proxy
+ */
+public class LazyClient {
+
+	private final Provider<A> a;
+	private Startable startable;
+
+	@Inject("db_name")
+	public Supplier<String> name;
+
+	@Inject
+	public LazyClient(Provider<A> a) {
+		this.a = a;
+	}
+
+	public Provider<A> getA() {
+		return a;
+	}
+
+	@Inject(lazy = true)
+	public void setStartable(Startable startable) {
+		this.startable = startable;
+	}
+
+	public Startable getStartable() {
+		return startable;
+	}
+}
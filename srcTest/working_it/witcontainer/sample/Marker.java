@@ -0,0 +1,12 @@
+package working_it.witcontainer.sample;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Annotation, die nur im Class-File steht (RuntimeInvisibleAnnotations),
+ * der ComponentScanner muss sie ueberspringen
+ */
+@Retention(RetentionPolicy.CLASS)
+public @interface Marker {
+}
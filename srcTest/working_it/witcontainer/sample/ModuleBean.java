@@ -0,0 +1,37 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Bean, die nur per Modul-Datei gebunden wird.
+ * Die Initialisierung der Klasse wird per System-Property protokolliert.
+ */
+public class ModuleBean {
+
+	public static final String INITIALIZED = "witcontainer.test.moduleBean";
+
+	static {
+		System.setProperty(INITIALIZED, "true");
+	}
+
+	private A a;
+	private int poolSize;
+
+	@Inject
+	public void setA(A a) {
+		this.a = a;
+	}
+
+	public A getA() {
+		return a;
+	}
+
+	@Inject("pool_size")
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+}
@@ -0,0 +1,16 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Component;
+
+/**
+ * Komponente, die per ComponentScanner unter einem String-Key gebunden wird
+ */
+@Marker
+@Component(value = "named")
+public class NamedComponent {
+
+	/** abstrakte Klassen werden nicht gebunden */
+	@Component
+	public static abstract class Base {
+	}
+}
@@ -0,0 +1,34 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.IndexedMap;
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Startable;
+
+/**
+ * Beispiel fuer die Injection von Multi-Bindungen
+ */
+public class Plugins {
+
+	public enum Kind { FIRST, SECOND, THIRD }
+
+	private Startable[] startables;
+	private IndexedMap<Kind, Startable> byKind;
+
+	@Inject
+	public void setStartables(Startable[] startables) {
+		this.startables = startables;
+	}
+
+	public Startable[] getStartables() {
+		return startables;
+	}
+
+	@Inject("plugins_by_kind")
+	public void setByKind(IndexedMap<Kind, Startable> byKind) {
+		this.byKind = byKind;
+	}
+
+	public IndexedMap<Kind, Startable> getByKind() {
+		return byKind;
+	}
+}
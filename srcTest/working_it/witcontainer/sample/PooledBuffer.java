@@ -0,0 +1,30 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Inject;
+import working_it.witcontainer.Resettable;
+
+/**
+ * Beispiel fuer eine gepoolte, ruecksetzbare Instance
+ */
+public class PooledBuffer implements Resettable {
+
+	private final StringBuilder buffer = new StringBuilder();
+	private C c;
+
+	@Inject
+	public void setC(C c) {
+		this.c = c;
+	}
+
+	public C getC() {
+		return c;
+	}
+
+	public StringBuilder getBuffer() {
+		return buffer;
+	}
+
+	public void reset() {
+		buffer.setLength(0);
+	}
+}
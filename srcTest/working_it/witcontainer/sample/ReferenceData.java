@@ -0,0 +1,25 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Cached;
+import working_it.witcontainer.Interceptable;
+
+/**
+ * Nachschlagen von Referenzdaten mit gecachten Ergebnissen
+ */
+@Interceptable
+public interface ReferenceData {
+
+	/**
+	 * @return der Name zum Code, null wenn unbekannt
+	 * @throws IllegalArgumentException bei leerem Code
+	 */
+	@Cached(maxSize = 2)
+	public String lookup(String code);
+
+	/**
+	 * gecacht per Annotation an der Implementierung
+	 */
+	public String describe(String code, int... details);
+
+	public int getCalls();
+}
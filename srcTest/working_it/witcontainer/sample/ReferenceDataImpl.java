@@ -0,0 +1,30 @@
+package working_it.witcontainer.sample;
+
+import java.util.Arrays;
+
+import working_it.witcontainer.Cached;
+
+/**
+ * Zaehlt die Aufrufe, die den Cache verfehlt haben
+ */
+public class ReferenceDataImpl implements ReferenceData {
+
+	private int calls;
+
+	public String lookup(String code) {
+		calls++;
+		if (code.isEmpty())
+			throw new IllegalArgumentException("empty code");
+		return code.startsWith("X") ? null : "name of " + code;
+	}
+
+	@Cached(eviction = Cached.Eviction.LFU)
+	public String describe(String code, int... details) {
+		calls++;
+		return code + Arrays.toString(details);
+	}
+
+	public int getCalls() {
+		return calls;
+	}
+}
@@ -0,0 +1,13 @@
+package working_it.witcontainer.sample;
+
+/**
+ * generisches Ober-Interface von {@link StringRepository}
+ */
+public interface Repository<T> {
+
+	public T find(String id);
+
+	public void save(T value);
+
+	public int size();
+}
@@ -0,0 +1,16 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Inject;
+
+/**
+ * Nutzer einer {@link StoppableResource}, wird per close beendet
+ */
+public class ResourceUser implements AutoCloseable {
+
+	@Inject
+	public StoppableResource resource;
+
+	public void close() {
+		StoppableResource.STOPPED.add("user");
+	}
+}
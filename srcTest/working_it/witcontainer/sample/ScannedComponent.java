@@ -0,0 +1,22 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Component;
+import working_it.witcontainer.Inject;
+
+/**
+ * Komponente, die per ComponentScanner unter ihrer Klasse gebunden wird
+ */
+@Component
+public class ScannedComponent {
+
+	private A a;
+
+	@Inject
+	public void setA(A a) {
+		this.a = a;
+	}
+
+	public A getA() {
+		return a;
+	}
+}
@@ -0,0 +1,22 @@
+package working_it.witcontainer.sample;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import working_it.witcontainer.Startable;
+
+/**
+ * Simuliert ein Singleton mit blockierendem start (z.B. Connection-Pool)
+ */
+public class SlowStartable implements Startable {
+
+	public static final AtomicInteger STARTED = new AtomicInteger();
+
+	public void start() {
+		try {
+			Thread.sleep(20);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		STARTED.incrementAndGet();
+	}
+}
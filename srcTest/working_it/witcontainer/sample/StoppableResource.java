@@ -0,0 +1,19 @@
+package working_it.witcontainer.sample;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import working_it.witcontainer.Stoppable;
+
+/**
+ * Ressource, die beim Schliessen des Containers beendet wird.
+ * Die Reihenfolge aller stop- bzw. close-Aufrufe wird in STOPPED protokolliert.
+ */
+public class StoppableResource implements Stoppable {
+
+	public static final Queue<String> STOPPED = new ConcurrentLinkedQueue<String>();
+
+	public void stop() {
+		STOPPED.add("resource");
+	}
+}
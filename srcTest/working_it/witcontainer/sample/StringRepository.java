@@ -0,0 +1,12 @@
+package working_it.witcontainer.sample;
+
+import working_it.witcontainer.Interceptable;
+
+/**
+ * Interface mit generiertem Proxy und generischem Ober-Interface
+ */
+@Interceptable
+public interface StringRepository extends Repository<String> {
+
+	public String findFirst(String... ids);
+}